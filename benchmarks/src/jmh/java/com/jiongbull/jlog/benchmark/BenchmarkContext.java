@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.benchmark;
+
+import android.app.AlarmManager;
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.net.ConnectivityManager;
+
+/**
+ * 基准测试使用的Context.
+ */
+final class BenchmarkContext extends Context {
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public String getString(int resId) {
+        return "res" + resId;
+    }
+
+    @Override
+    public Object getSystemService(String name) {
+        if (ALARM_SERVICE.equals(name)) {
+            return new AlarmManager();
+        }
+        return new ConnectivityManager();
+    }
+
+    @Override
+    public PackageManager getPackageManager() {
+        return new PackageManager() {
+            @Override
+            public PackageInfo getPackageInfo(String packageName, int flags) {
+                PackageInfo info = new PackageInfo();
+                info.versionName = "1.0";
+                info.versionCode = 1;
+                return info;
+            }
+        };
+    }
+
+    @Override
+    public String getPackageName() {
+        return "com.jiongbull.jlog.benchmark";
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.benchmark;
+
+import com.jiongbull.jlog.CallSite;
+import com.jiongbull.jlog.Logger;
+import com.jiongbull.jlog.LoggerGlobal;
+import com.jiongbull.jlog.constant.FlushPolicy;
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.constant.OverflowPolicy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个线程同时往文件打印日志时的吞吐量.
+ *
+ * <p>队列满时丢弃新日志，使用固定的调用位置，只衡量放入队列时线程之间的竞争，不受磁盘速度的影响.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentionBenchmark {
+
+    private static final String MESSAGE = "user 10086 opened the settings page";
+    private static final CallSite SITE = new CallSite(ContentionBenchmark.class.getName(),
+            "append", "ContentionBenchmark.java", 100);
+
+    private Logger mLogger;
+
+    @Setup
+    public void setUp() {
+        mLogger = Logger.Builder.newBuilder(new BenchmarkContext(), "contention")
+                .setDebug(false)
+                .setWriteToFile(true)
+                .setLogDir("jlog-benchmark")
+                .setLogPrefix("contention")
+                .setFileLevel(LogPriority.VERBOSE)
+                .setFlushPolicy(FlushPolicy.BUFFER_FULL)
+                .setOverflowPolicy(OverflowPolicy.DROP_NEWEST)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        LoggerGlobal.shutdown(10000);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void threads01() {
+        mLogger.i(SITE, MESSAGE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void threads04() {
+        mLogger.i(SITE, MESSAGE);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void threads16() {
+        mLogger.i(SITE, MESSAGE);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void threads32() {
+        mLogger.i(SITE, MESSAGE);
+    }
+}
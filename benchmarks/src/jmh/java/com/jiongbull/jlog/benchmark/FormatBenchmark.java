@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.benchmark;
+
+import com.jiongbull.jlog.constant.FlushPolicy;
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.constant.LogSegment;
+import com.jiongbull.jlog.constant.OverflowPolicy;
+import com.jiongbull.jlog.constant.WriteMode;
+import com.jiongbull.jlog.platform.DeviceInfo;
+import com.jiongbull.jlog.util.LogUtils;
+import com.jiongbull.jlog.util.PrinterUtils;
+import com.jiongbull.jlog.util.RecordLayout;
+import com.jiongbull.jlog.util.TimeFormatter;
+import com.jiongbull.jlog.util.TimeUtils;
+import com.jiongbull.jlog.writer.FileTarget;
+import com.jiongbull.jlog.writer.LogRecord;
+import com.jiongbull.jlog.writer.SegmentClock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * 格式化日志、时间和文件名的开销.
+ *
+ * <p>时间每次前进1毫秒，和连续打印日志时一样.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+
+    private static final String TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final String MESSAGE = "user 10086 opened the settings page";
+    private static final StackTraceElement ELEMENT = new StackTraceElement(
+            FormatBenchmark.class.getName(), "format", "FormatBenchmark.java", 100);
+
+    private final StringBuilder mBuffer = new StringBuilder(256);
+    private FileTarget mTarget;
+    private RecordLayout mConsoleLayout;
+    private TimeFormatter mTimeFormatter;
+    private SegmentClock mSegmentClock;
+    private long mMillis;
+
+    @Setup
+    public void setUp() {
+        mSegmentClock = new SegmentClock("jlog-benchmark", "", LogSegment.ONE_HOUR,
+                TimeUtils.ZoneOffset.P0800);
+        mTimeFormatter = new TimeFormatter(TIME_FORMAT, TimeUtils.ZoneOffset.P0800);
+        mTarget = new FileTarget(DeviceInfo.JVM, mSegmentClock, mTimeFormatter,
+                new RecordLayout(RecordLayout.DEFAULT_FILE_PATTERN), WriteMode.STREAM,
+                FlushPolicy.EVERY_RECORD, 64, 1000L, OverflowPolicy.BLOCK, LogPriority.WARN,
+                Deflater.DEFAULT_COMPRESSION, 0, 0, false);
+        mConsoleLayout = new RecordLayout(RecordLayout.DEFAULT_CONSOLE_PATTERN);
+        mMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * 在写文件的线程中按布局格式化一条文件日志.
+     */
+    @Benchmark
+    public StringBuilder decorateMsgForFile() {
+        mBuffer.setLength(0);
+        new LogRecord(mTarget, LogPriority.INFO, MESSAGE, ELEMENT, "main", mMillis++)
+                .appendTo(mBuffer);
+        return mBuffer;
+    }
+
+    @Benchmark
+    public String decorateMsgForConsole() {
+        return PrinterUtils.decorateMsgForConsole(mConsoleLayout, LogPriority.INFO, MESSAGE,
+                ELEMENT);
+    }
+
+    /**
+     * 旧的实现，每次通过Calendar换算时区，再新建DateFormat格式化，见{@link #legacyCurTime}.
+     */
+    @Benchmark
+    public String legacyGetCurTime() {
+        return legacyCurTime(TimeUtils.ZoneOffset.P0800, TIME_FORMAT);
+    }
+
+    /**
+     * 现在的实现，使用缓存的{@link TimeFormatter}.
+     */
+    @Benchmark
+    public String getCurTime() {
+        return TimeUtils.getCurTime(TimeUtils.ZoneOffset.P0800, TIME_FORMAT);
+    }
+
+    @Benchmark
+    public String timeFormatter() {
+        return mTimeFormatter.format(mMillis++);
+    }
+
+    /**
+     * 旧的实现，每次都重新计算时间切片.
+     */
+    @Benchmark
+    public String genFileName() {
+        return LogUtils.genFileName("", LogSegment.ONE_HOUR, TimeUtils.ZoneOffset.P0800);
+    }
+
+    @Benchmark
+    public String segmentClockFileName() {
+        return mSegmentClock.getFileName(mMillis++);
+    }
+
+    /**
+     * 旧的TimeUtils.getCurTime，JVM上没有android.text.format.DateFormat，用SimpleDateFormat代替.
+     *
+     * @param zoneOffset 时区偏移
+     * @param fmt        时间格式
+     * @return 目标时区的当前时间
+     */
+    private static String legacyCurTime(long zoneOffset, String fmt) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(System.currentTimeMillis());
+        long millis = calendar.getTimeInMillis() - calendar.get(Calendar.ZONE_OFFSET)
+                + zoneOffset;
+        return new SimpleDateFormat(fmt, Locale.getDefault()).format(new Date(millis));
+    }
+}
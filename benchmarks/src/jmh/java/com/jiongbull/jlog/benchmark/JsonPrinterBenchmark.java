@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.benchmark;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.printer.JsonPrinter;
+import com.jiongbull.jlog.util.RecordLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JsonPrinter}格式化JSON并输出到控制台的开销，控制台的输出被替身丢弃.
+ *
+ * <p>JSON的解析和格式化使用org.json，和Android中的实现接口相同，性能可能不同.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonPrinterBenchmark {
+
+    private static final StackTraceElement ELEMENT = new StackTraceElement(
+            JsonPrinterBenchmark.class.getName(), "print", "JsonPrinterBenchmark.java", 100);
+
+    /** JSON数组的元素个数. */
+    @Param({"1", "100"})
+    public int items;
+
+    private final JsonPrinter mPrinter = new JsonPrinter();
+    private final RecordLayout mLayout = new RecordLayout(RecordLayout.DEFAULT_CONSOLE_PATTERN);
+    private String mJson;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(i)
+                    .append(",\"name\":\"user").append(i).append('"')
+                    .append(",\"vip\":").append(i % 2 == 0)
+                    .append(",\"tags\":[\"a\",\"b\",\"c\"]")
+                    .append(",\"address\":{\"city\":\"Beijing\",\"zip\":\"100000\"}}");
+        }
+        mJson = sb.append(']').toString();
+    }
+
+    @Benchmark
+    public void printConsole() {
+        mPrinter.printConsole(LogPriority.JSON, "json", mJson, ELEMENT, mLayout);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.benchmark;
+
+import com.jiongbull.jlog.CallSite;
+import com.jiongbull.jlog.Logger;
+import com.jiongbull.jlog.LoggerGlobal;
+import com.jiongbull.jlog.constant.FlushPolicy;
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.constant.OverflowPolicy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 打印一条日志的开销：级别被过滤、只输出到控制台、只输出到文件.
+ *
+ * <p>控制台的输出被替身丢弃，只衡量查找调用者和格式化；文件的日志在写文件的线程中写入，
+ * 队列满时阻塞，衡量的是持续写入时打印日志的线程的开销.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggerBenchmark {
+
+    private static final String MESSAGE = "user 10086 opened the settings page";
+    private static final CallSite SITE = new CallSite(LoggerBenchmark.class.getName(),
+            "fileOnlyWithCallSite", "LoggerBenchmark.java", 100);
+
+    private Logger mDisabled;
+    private Logger mConsole;
+    private Logger mFile;
+
+    @Setup
+    public void setUp() {
+        BenchmarkContext context = new BenchmarkContext();
+        mDisabled = Logger.Builder.newBuilder(context, "disabled")
+                .setConsoleLevel(LogPriority.ERROR)
+                .setWriteToFile(false)
+                .build();
+        mConsole = Logger.Builder.newBuilder(context, "console")
+                .setConsoleLevel(LogPriority.VERBOSE)
+                .setWriteToFile(false)
+                .build();
+        mFile = Logger.Builder.newBuilder(context, "file")
+                .setDebug(false)
+                .setWriteToFile(true)
+                .setLogDir("jlog-benchmark")
+                .setFileLevel(LogPriority.VERBOSE)
+                .setFlushPolicy(FlushPolicy.BUFFER_FULL)
+                .setOverflowPolicy(OverflowPolicy.BLOCK)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        LoggerGlobal.shutdown(10000);
+    }
+
+    @Benchmark
+    public void disabledLevel() {
+        mDisabled.d(MESSAGE);
+    }
+
+    @Benchmark
+    public void consoleOnly() {
+        mConsole.d(MESSAGE);
+    }
+
+    @Benchmark
+    public void fileOnly() {
+        mFile.d(MESSAGE);
+    }
+
+    /**
+     * gradle插件生成调用位置后，不需要通过异常栈查找调用者.
+     */
+    @Benchmark
+    public void fileOnlyWithCallSite() {
+        mFile.d(SITE, MESSAGE);
+    }
+}
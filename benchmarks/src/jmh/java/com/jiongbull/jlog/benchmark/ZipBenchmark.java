@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.benchmark;
+
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.LogUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压缩日志文件的耗时，一个文件串行压缩和拆成4个文件并行压缩.
+ *
+ * <p>日志文件由随机生成的日志组成，大小可以通过-p sizeMb=10指定，磁盘上需要大约3倍的空间.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ZipBenchmark {
+
+    /** 并行压缩的文件个数. */
+    private static final int PARTS = 4;
+
+    /** 日志的总大小，单位MB. */
+    @Param({"10", "100", "500"})
+    public int sizeMb;
+
+    /** 压缩级别. */
+    @Param({"1", "-1"})
+    public int level;
+
+    private File mDir;
+    private File mSource;
+    private File[] mParts;
+    private File[] mWorkParts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mDir = Files.createTempDirectory("jlog-zip").toFile();
+        mSource = new File(mDir, "source.log");
+        generate(mSource, sizeMb * 1024L * 1024L, 1);
+        mParts = new File[PARTS];
+        mWorkParts = new File[PARTS];
+        for (int i = 0; i < PARTS; i++) {
+            mParts[i] = new File(mDir, "part" + i + ".src");
+            generate(mParts[i], sizeMb * 1024L * 1024L / PARTS, i + 2);
+            mWorkParts[i] = new File(mDir, "part" + i + LogUtils.LOG_EXT);
+        }
+    }
+
+    /**
+     * {@link LogUtils#zipLogs(File[], int)}压缩后删除源文件，每次压缩前重新复制.
+     */
+    @Setup(Level.Invocation)
+    public void copyParts() throws IOException {
+        for (int i = 0; i < PARTS; i++) {
+            Files.copy(mParts[i].toPath(), mWorkParts[i].toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] files = mDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                FileUtils.delete(file);
+            }
+        }
+        FileUtils.delete(mDir);
+    }
+
+    @Benchmark
+    public void zip() throws IOException {
+        FileUtils.zip(mSource.getAbsolutePath(), new File(mDir, "source.zip").getAbsolutePath(),
+                false, level);
+    }
+
+    @Benchmark
+    public void zipLogsParallel() throws IOException {
+        LogUtils.zipLogs(mWorkParts, level);
+    }
+
+    /**
+     * 生成和真实日志相近的文件，重复的文本多，数字随机.
+     *
+     * @param file 文件
+     * @param size 大小，单位byte
+     * @param seed 随机数种子，保证每次运行的内容相同
+     * @throws IOException 写入失败
+     */
+    private static void generate(File file, long size, long seed) throws IOException {
+        Random random = new Random(seed);
+        String[] levels = {"VERBOSE", "DEBUG", "INFO", "WARN", "ERROR"};
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                Charset.forName("UTF-8")), 64 * 1024);
+        try {
+            long written = 0;
+            StringBuilder sb = new StringBuilder(256);
+            while (written < size) {
+                sb.setLength(0);
+                sb.append("[2016-10-26 18:").append(10 + random.nextInt(50)).append(':')
+                        .append(10 + random.nextInt(50)).append("  ")
+                        .append(levels[random.nextInt(levels.length)])
+                        .append("  MainActivity.java:").append(random.nextInt(500))
+                        .append("  Thread: main]\n")
+                        .append("request ").append(random.nextLong())
+                        .append(" finished in ").append(random.nextInt(1000)).append("ms\n\n");
+                writer.write(sb.toString());
+                written += sb.length();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+}
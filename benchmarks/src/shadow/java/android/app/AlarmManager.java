@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.app;
+
+/**
+ * {@link AlarmManager}的替身，不设置任何定时任务.
+ */
+public class AlarmManager {
+    public static final int ELAPSED_REALTIME_WAKEUP = 2;
+    public static final int ELAPSED_REALTIME = 3;
+    public static final long INTERVAL_FIFTEEN_MINUTES = 15 * 60 * 1000L;
+
+    public void cancel(PendingIntent operation) {
+    }
+
+    public void set(int type, long triggerAtMillis, PendingIntent operation) {
+    }
+
+    public void setWindow(int type, long windowStartMillis, long windowLengthMillis,
+            PendingIntent operation) {
+    }
+
+    public void setInexactRepeating(int type, long triggerAtMillis, long intervalMillis,
+            PendingIntent operation) {
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.content;
+
+import android.content.pm.PackageManager;
+
+/**
+ * {@link Context}的替身，只保留jlog用到的方法，由基准测试提供实现.
+ */
+public abstract class Context {
+    public static final String ALARM_SERVICE = "alarm";
+    public static final String CONNECTIVITY_SERVICE = "connectivity";
+
+    public abstract Context getApplicationContext();
+
+    public abstract String getString(int resId);
+
+    public abstract Object getSystemService(String name);
+
+    public abstract PackageManager getPackageManager();
+
+    public abstract String getPackageName();
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.net;
+
+/**
+ * {@link ConnectivityManager}的替身，总是没有网络.
+ */
+public class ConnectivityManager {
+    public static final int TYPE_MOBILE = 0;
+    public static final int TYPE_WIFI = 1;
+    public static final int TYPE_ETHERNET = 9;
+
+    public NetworkInfo getActiveNetworkInfo() {
+        return null;
+    }
+
+    public NetworkInfo getNetworkInfo(int networkType) {
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+/**
+ * {@link Build}的替身，使用JVM的系统属性.
+ */
+public class Build {
+    public static final String BRAND = "jvm";
+    public static final String DISPLAY = System.getProperty("java.vm.name");
+    public static final String MANUFACTURER = System.getProperty("java.vendor");
+    public static final String MODEL = System.getProperty("os.arch");
+    public static final String PRODUCT = System.getProperty("os.name");
+
+    public static class VERSION {
+        public static final int SDK_INT = 14;
+        public static final String RELEASE = System.getProperty("java.version");
+    }
+
+    public static class VERSION_CODES {
+        public static final int KITKAT = 19;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+import java.io.File;
+
+/**
+ * {@link Environment}的替身，外部存储目录由系统属性jlog.storage指定，默认为临时目录.
+ */
+public class Environment {
+
+    public static File getExternalStorageDirectory() {
+        return new File(System.getProperty("jlog.storage", System.getProperty("java.io.tmpdir")));
+    }
+}
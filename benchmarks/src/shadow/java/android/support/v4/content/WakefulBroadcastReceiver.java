@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.content;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * {@link WakefulBroadcastReceiver}的替身.
+ */
+public abstract class WakefulBroadcastReceiver extends BroadcastReceiver {
+
+    public static void startWakefulService(Context context, Intent intent) {
+    }
+
+    public static boolean completeWakefulIntent(Intent intent) {
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.text.format;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * {@link DateFormat}的替身，每次创建{@link SimpleDateFormat}，开销和Android的实现接近.
+ */
+public class DateFormat {
+
+    public static CharSequence format(CharSequence inFormat, long inTimeInMillis) {
+        return new SimpleDateFormat(inFormat.toString(), Locale.US)
+                .format(new Date(inTimeInMillis));
+    }
+}
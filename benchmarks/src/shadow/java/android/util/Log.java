@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.util;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * {@link Log}的替身，丢弃所有输出，基准测试只衡量jlog自身的开销.
+ */
+public final class Log {
+
+    private Log() {
+    }
+
+    public static int v(String tag, String msg) {
+        return msg.length();
+    }
+
+    public static int d(String tag, String msg) {
+        return msg.length();
+    }
+
+    public static int i(String tag, String msg) {
+        return msg.length();
+    }
+
+    public static int w(String tag, String msg) {
+        return msg.length();
+    }
+
+    public static int w(String tag, String msg, Throwable tr) {
+        return msg.length();
+    }
+
+    public static int e(String tag, String msg) {
+        return msg.length();
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return msg.length();
+    }
+
+    public static int wtf(String tag, String msg) {
+        return msg.length();
+    }
+
+    public static String getStackTraceString(Throwable tr) {
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        tr.printStackTrace(pw);
+        pw.flush();
+        return sw.toString();
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog;
+
+/**
+ * library的资源ID的替身，在Android中由构建工具生成.
+ */
+public final class R {
+
+    public static final class string {
+        public static final int app_version_name = 1;
+        public static final int app_version_code = 2;
+        public static final int os_version_name = 3;
+        public static final int os_version_code = 4;
+        public static final int os_display_name = 5;
+        public static final int brand_info = 6;
+        public static final int product_info = 7;
+        public static final int model_info = 8;
+        public static final int manufacturer_info = 9;
+    }
+}
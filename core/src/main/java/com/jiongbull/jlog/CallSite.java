@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog;
+
+import android.support.annotation.NonNull;
+
+/**
+ * 日志调用位置.
+ *
+ * <p>通常由jlog的gradle插件在编译期生成，作为静态常量传给{@code Logger}，
+ * 这样打印日志时无需再通过异常栈查找调用者.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class CallSite {
+
+    /** 调用者的堆栈元素. */
+    private final StackTraceElement mElement;
+
+    /**
+     * 创建调用位置.
+     *
+     * @param className  调用者的全限定类名
+     * @param methodName 调用者的方法名
+     * @param fileName   调用者的源文件名，可以为null
+     * @param lineNumber 调用所在的行号，未知时为-1
+     */
+    public CallSite(@NonNull String className, @NonNull String methodName, String fileName,
+            int lineNumber) {
+        mElement = new StackTraceElement(className, methodName, fileName, lineNumber);
+    }
+
+    public String getClassName() {
+        return mElement.getClassName();
+    }
+
+    public String getMethodName() {
+        return mElement.getMethodName();
+    }
+
+    public String getFileName() {
+        return mElement.getFileName();
+    }
+
+    public int getLineNumber() {
+        return mElement.getLineNumber();
+    }
+
+    /**
+     * 获取对应的堆栈元素.
+     *
+     * @return 堆栈元素，每次返回同一个对象
+     */
+    @NonNull
+    public StackTraceElement getElement() {
+        return mElement;
+    }
+
+    @Override
+    public String toString() {
+        return mElement.toString();
+    }
+}
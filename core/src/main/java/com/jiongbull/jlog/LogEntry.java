@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.util.LogUtils;
+
+/**
+ * 从日志文件中读取的一条日志，布局中没有的字段为null或-1.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class LogEntry {
+
+    /** UTC时间戳，精确到时间格式中最小的单位. */
+    private final long mMillis;
+    @LogPriority
+    private final int mPriority;
+    private final String mFileName;
+    private final int mLineNumber;
+    private final String mMethodName;
+    private final String mClassName;
+    private final String mThreadName;
+    private final String mMessage;
+
+    LogEntry(long millis, int priority, String fileName, int lineNumber, String methodName,
+            String className, String threadName, String message) {
+        mMillis = millis;
+        mPriority = priority;
+        mFileName = fileName;
+        mLineNumber = lineNumber;
+        mMethodName = methodName;
+        mClassName = className;
+        mThreadName = threadName;
+        mMessage = message;
+    }
+
+    public long getMillis() {
+        return mMillis;
+    }
+
+    @LogPriority
+    public int getPriority() {
+        return mPriority;
+    }
+
+    public String getFileName() {
+        return mFileName;
+    }
+
+    public int getLineNumber() {
+        return mLineNumber;
+    }
+
+    public String getMethodName() {
+        return mMethodName;
+    }
+
+    public String getClassName() {
+        return mClassName;
+    }
+
+    public String getThreadName() {
+        return mThreadName;
+    }
+
+    public String getMessage() {
+        return mMessage;
+    }
+
+    /**
+     * 获取日志的标签. 文件中不保存打印时传入的标签，这里和{@code Logger}的默认标签一致，
+     * 为调用者的简单类名，布局中没有类名时用文件名去掉扩展名代替.
+     *
+     * @return 标签，布局中既没有类名也没有文件名时为null
+     */
+    public String getTag() {
+        return toTag(mClassName, mFileName);
+    }
+
+    /**
+     * 根据类名或文件名生成标签.
+     *
+     * @param className 类名，可以为null
+     * @param fileName  文件名，可以为null
+     * @return 标签，都为null时为null
+     */
+    static String toTag(String className, String fileName) {
+        if (className != null) {
+            return LogUtils.getSimpleClassName(className);
+        }
+        if (fileName != null) {
+            int index = fileName.lastIndexOf('.');
+            return index > 0 ? fileName.substring(0, index) : fileName;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "LogEntry{" + mMillis + ", " + mPriority + ", " + getTag() + ", " + mMessage + "}";
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog;
+
+/**
+ * 日志信息的提供者.
+ *
+ * <p>只有在日志确认会被输出时才会调用{@link #get()}，适合生成耗时的日志信息.</p>
+ */
+public interface MessageSupplier {
+
+    /**
+     * 生成日志信息.
+     *
+     * @return 日志信息
+     */
+    String get();
+}
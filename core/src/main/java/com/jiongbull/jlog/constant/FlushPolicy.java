@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.constant;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static com.jiongbull.jlog.constant.FlushPolicy.BUFFER_FULL;
+import static com.jiongbull.jlog.constant.FlushPolicy.EVERY_RECORD;
+import static com.jiongbull.jlog.constant.FlushPolicy.WHEN_IDLE;
+
+/**
+ * 日志文件的刷新策略.
+ */
+@IntDef({EVERY_RECORD, WHEN_IDLE, BUFFER_FULL})
+@Retention(RetentionPolicy.SOURCE)
+public @interface FlushPolicy {
+    /** 日志写入后立即刷新，同一批写入的日志只刷新一次. */
+    int EVERY_RECORD = 0;
+    /** 待写的日志都写完后再刷新. */
+    int WHEN_IDLE = 1;
+    /** 缓冲区写满、切换文件时才刷新. */
+    int BUFFER_FULL = 2;
+}
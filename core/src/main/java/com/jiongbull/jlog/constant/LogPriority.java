@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.constant;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static com.jiongbull.jlog.constant.LogPriority.DEBUG;
+import static com.jiongbull.jlog.constant.LogPriority.ERROR;
+import static com.jiongbull.jlog.constant.LogPriority.INFO;
+import static com.jiongbull.jlog.constant.LogPriority.JSON;
+import static com.jiongbull.jlog.constant.LogPriority.VERBOSE;
+import static com.jiongbull.jlog.constant.LogPriority.WARN;
+import static com.jiongbull.jlog.constant.LogPriority.WTF;
+
+/**
+ * 日志优先级，与{@link LogLevel}一一对应，数值越大优先级越高.
+ *
+ * <p>每个优先级对应掩码中的一位（{@code 1 << priority}），用于快速判断日志是否输出.</p>
+ */
+@IntDef({VERBOSE, DEBUG, INFO, JSON, WARN, ERROR, WTF})
+@Retention(RetentionPolicy.SOURCE)
+public @interface LogPriority {
+    int VERBOSE = 0;
+    int DEBUG = 1;
+    int INFO = 2;
+    int JSON = 3;
+    int WARN = 4;
+    int ERROR = 5;
+    int WTF = 6;
+}
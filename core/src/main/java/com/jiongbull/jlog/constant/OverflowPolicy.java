@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.constant;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static com.jiongbull.jlog.constant.OverflowPolicy.BLOCK;
+import static com.jiongbull.jlog.constant.OverflowPolicy.DROP_BELOW_LEVEL;
+import static com.jiongbull.jlog.constant.OverflowPolicy.DROP_NEWEST;
+import static com.jiongbull.jlog.constant.OverflowPolicy.DROP_OLDEST;
+
+/**
+ * 待写日志的队列已满时的处理策略.
+ */
+@IntDef({BLOCK, DROP_NEWEST, DROP_OLDEST, DROP_BELOW_LEVEL})
+@Retention(RetentionPolicy.SOURCE)
+public @interface OverflowPolicy {
+    /** 打印日志的线程等待，直到队列有空位. */
+    int BLOCK = 0;
+    /** 丢弃新的日志. */
+    int DROP_NEWEST = 1;
+    /** 丢弃队列中最早的日志. */
+    int DROP_OLDEST = 2;
+    /** 丢弃低于指定级别的新日志，其他日志等待. */
+    int DROP_BELOW_LEVEL = 3;
+}
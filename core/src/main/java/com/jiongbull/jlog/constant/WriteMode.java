@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.constant;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static com.jiongbull.jlog.constant.WriteMode.GZIP;
+import static com.jiongbull.jlog.constant.WriteMode.MMAP;
+import static com.jiongbull.jlog.constant.WriteMode.STREAM;
+
+/**
+ * 日志文件的写入方式.
+ */
+@IntDef({STREAM, MMAP, GZIP})
+@Retention(RetentionPolicy.SOURCE)
+public @interface WriteMode {
+    /** 通过缓冲的输出流追加到日志文件. */
+    int STREAM = 0;
+    /** 先写入内存映射的缓存文件，刷新时再移到日志文件，进程被杀也不会丢失. */
+    int MMAP = 1;
+    /** 直接写入gzip压缩的日志文件（.log.gz），每次刷新结束一个gzip成员. */
+    int GZIP = 2;
+}
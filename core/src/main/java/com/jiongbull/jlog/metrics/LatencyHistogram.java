@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.metrics;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 耗时的直方图.
+ *
+ * <p>按2的幂分桶，第i个桶记录[2^i, 2^(i+1))纳秒的耗时，记录只需要一次分段计数，
+ * 分位数是所在桶的上界，误差不超过一倍.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class LatencyHistogram {
+
+    /** 桶数，最后一个桶记录所有超过约9分钟的耗时. */
+    static final int BUCKETS = 40;
+    /** 记录耗时总和的槽. */
+    private static final int SUM_SLOT = BUCKETS;
+
+    /** 各个桶的计数和耗时总和. */
+    private final StripedCounter mCounter = new StripedCounter(BUCKETS + 1);
+
+    /**
+     * 记录一次耗时.
+     *
+     * @param nanos 耗时，单位纳秒
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int bucket = Math.min(63 - Long.numberOfLeadingZeros(nanos | 1), BUCKETS - 1);
+        mCounter.increment(bucket);
+        mCounter.add(SUM_SLOT, nanos);
+    }
+
+    /**
+     * 获取当前的读数.
+     *
+     * @return 快照
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = mCounter.sum(i);
+        }
+        return new Snapshot(counts, mCounter.sum(SUM_SLOT));
+    }
+
+    /**
+     * 直方图的快照.
+     */
+    public static final class Snapshot {
+        /** 各个桶的计数. */
+        private final long[] mCounts;
+        /** 总次数. */
+        private final long mCount;
+        /** 耗时总和，单位纳秒. */
+        private final long mSum;
+
+        Snapshot(@NonNull long[] counts, long sum) {
+            mCounts = counts;
+            long count = 0;
+            for (long c : counts) {
+                count += c;
+            }
+            mCount = count;
+            mSum = sum;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        /**
+         * 获取耗时总和.
+         *
+         * @return 单位纳秒
+         */
+        public long getSum() {
+            return mSum;
+        }
+
+        /**
+         * 获取平均耗时.
+         *
+         * @return 单位纳秒，没有记录时为0
+         */
+        public long getMean() {
+            return mCount == 0 ? 0 : mSum / mCount;
+        }
+
+        /**
+         * 获取分位数.
+         *
+         * @param quantile 0-1，比如0.99
+         * @return 所在桶的上界，单位纳秒，没有记录时为0
+         */
+        public long getPercentile(double quantile) {
+            if (mCount == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(Math.max(0, Math.min(quantile, 1)) * mCount);
+            long seen = 0;
+            for (int i = 0; i < mCounts.length; i++) {
+                seen += mCounts[i];
+                if (seen >= Math.max(rank, 1)) {
+                    return getUpperBound(i);
+                }
+            }
+            return getUpperBound(mCounts.length - 1);
+        }
+
+        /**
+         * 获取桶的计数.
+         *
+         * @param bucket 桶，0-39
+         * @return 耗时在[2^bucket, 2^(bucket+1))纳秒之间的次数
+         */
+        public long getBucketCount(int bucket) {
+            return mCounts[bucket];
+        }
+
+        public int getBucketSize() {
+            return mCounts.length;
+        }
+
+        /**
+         * 计算相对于之前的快照的增量，用于定期上报.
+         *
+         * @param previous 之前的快照
+         * @return 这段时间内的直方图
+         */
+        @NonNull
+        public Snapshot minus(@NonNull Snapshot previous) {
+            long[] counts = new long[mCounts.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = mCounts[i] - previous.mCounts[i];
+            }
+            return new Snapshot(counts, mSum - previous.mSum);
+        }
+
+        /**
+         * 获取桶的上界.
+         *
+         * @param bucket 桶
+         * @return 单位纳秒
+         */
+        private static long getUpperBound(int bucket) {
+            return (1L << (bucket + 1)) - 1;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + mCount
+                    + " mean=" + TimeUnit.NANOSECONDS.toMicros(getMean()) + "us"
+                    + " p50=" + TimeUnit.NANOSECONDS.toMicros(getPercentile(0.5)) + "us"
+                    + " p99=" + TimeUnit.NANOSECONDS.toMicros(getPercentile(0.99)) + "us";
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.metrics;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.platform.Platform;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志管道的运行指标，所有日志实例共用一个.
+ *
+ * <p>计数使用{@link StripedCounter}，记录的开销是一次无竞争的原子加，读取时才汇总.
+ * 可以定期调用{@link #snapshot()}，用{@link MetricsSnapshot#minus}计算增量后上报.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class LogMetrics {
+
+    /** 日志级别的个数. */
+    static final int LEVELS = LogPriority.WTF + 1;
+
+    private static final LogMetrics sInstance = new LogMetrics();
+
+    /** 接受的日志，按级别计数. */
+    private final StripedCounter mAccepted = new StripedCounter(LEVELS);
+    /** 因为级别被过滤的日志，按级别计数. */
+    private final StripedCounter mFiltered = new StripedCounter(LEVELS);
+    /** 队列已满时被丢弃的日志，按级别计数. */
+    private final StripedCounter mDropped = new StripedCounter(LEVELS);
+    /** 写入文件的字节数（UTF-8编码，压缩前）. */
+    private final StripedCounter mBytesWritten = new StripedCounter(1);
+    /** 队列中日志条数的最大值. */
+    private final AtomicLong mQueueHighWaterMark = new AtomicLong();
+    /** 打印日志的线程花费的时间. */
+    private final LatencyHistogram mCallerLatency = new LatencyHistogram();
+    /** 写文件的线程写入一批日志花费的时间. */
+    private final LatencyHistogram mBatchLatency = new LatencyHistogram();
+    /** 压缩一个日志文件花费的时间. */
+    private final LatencyHistogram mZipTime = new LatencyHistogram();
+    /** 上传一个日志实例花费的时间. */
+    private final LatencyHistogram mUploadTime = new LatencyHistogram();
+
+    private LogMetrics() {
+    }
+
+    @NonNull
+    public static LogMetrics getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * 记录一条被接受的日志.
+     *
+     * @param priority    {@link LogPriority}，优先级
+     * @param callerNanos 打印日志的线程花费的时间，单位纳秒
+     */
+    public void onAccepted(@LogPriority int priority, long callerNanos) {
+        mAccepted.increment(priority);
+        mCallerLatency.record(callerNanos);
+    }
+
+    /**
+     * 记录一条因为级别被过滤的日志.
+     *
+     * @param priority {@link LogPriority}，优先级
+     */
+    public void onFiltered(@LogPriority int priority) {
+        mFiltered.increment(priority);
+    }
+
+    /**
+     * 记录一条队列已满时被丢弃的日志.
+     *
+     * @param priority {@link LogPriority}，优先级
+     */
+    public void onDropped(@LogPriority int priority) {
+        mDropped.increment(priority);
+    }
+
+    /**
+     * 记录写入文件的字节数.
+     *
+     * @param bytes 字节数
+     */
+    public void onWritten(long bytes) {
+        mBytesWritten.add(0, bytes);
+    }
+
+    /**
+     * 记录队列中的日志条数，只保留最大值.
+     *
+     * @param depth 日志条数
+     */
+    public void onQueueDepth(long depth) {
+        long max = mQueueHighWaterMark.get();
+        while (depth > max && !mQueueHighWaterMark.compareAndSet(max, depth)) {
+            max = mQueueHighWaterMark.get();
+        }
+    }
+
+    /**
+     * 记录写文件的线程写入一批日志的时间.
+     *
+     * @param nanos 单位纳秒
+     */
+    public void onBatchWritten(long nanos) {
+        mBatchLatency.record(nanos);
+    }
+
+    /**
+     * 记录压缩一个日志文件的时间.
+     *
+     * @param nanos 单位纳秒
+     */
+    public void onZipped(long nanos) {
+        mZipTime.record(nanos);
+    }
+
+    /**
+     * 记录上传一个日志实例的时间.
+     *
+     * @param nanos 单位纳秒
+     */
+    public void onUploaded(long nanos) {
+        mUploadTime.record(nanos);
+    }
+
+    /**
+     * 重置队列中日志条数的最大值，用于按周期统计.
+     *
+     * @return 重置前的最大值
+     */
+    public long resetQueueHighWaterMark() {
+        return mQueueHighWaterMark.getAndSet(0);
+    }
+
+    /**
+     * 获取当前的读数，各项分别汇总，其他线程同时记录时不是严格一致的.
+     *
+     * @return 快照
+     */
+    @NonNull
+    public MetricsSnapshot snapshot() {
+        long[] accepted = new long[LEVELS];
+        long[] filtered = new long[LEVELS];
+        long[] dropped = new long[LEVELS];
+        for (int i = 0; i < LEVELS; i++) {
+            accepted[i] = mAccepted.sum(i);
+            filtered[i] = mFiltered.sum(i);
+            dropped[i] = mDropped.sum(i);
+        }
+        return new MetricsSnapshot(Platform.getClock().currentTimeMillis(), accepted, filtered,
+                dropped, mBytesWritten.sum(0), mQueueHighWaterMark.get(), mCallerLatency.snapshot(),
+                mBatchLatency.snapshot(), mZipTime.snapshot(), mUploadTime.snapshot());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.metrics;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.util.LevelUtils;
+
+/**
+ * 运行指标的快照，创建后不再改变.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class MetricsSnapshot {
+
+    /** 读取时的UTC时间戳. */
+    private final long mMillis;
+    /** 接受的日志，按级别计数. */
+    private final long[] mAccepted;
+    /** 因为级别被过滤的日志，按级别计数. */
+    private final long[] mFiltered;
+    /** 队列已满时被丢弃的日志，按级别计数. */
+    private final long[] mDropped;
+    /** 写入文件的字节数. */
+    private final long mBytesWritten;
+    /** 队列中日志条数的最大值. */
+    private final long mQueueHighWaterMark;
+    private final LatencyHistogram.Snapshot mCallerLatency;
+    private final LatencyHistogram.Snapshot mBatchLatency;
+    private final LatencyHistogram.Snapshot mZipTime;
+    private final LatencyHistogram.Snapshot mUploadTime;
+
+    MetricsSnapshot(long millis, @NonNull long[] accepted, @NonNull long[] filtered,
+            @NonNull long[] dropped, long bytesWritten, long queueHighWaterMark,
+            @NonNull LatencyHistogram.Snapshot callerLatency,
+            @NonNull LatencyHistogram.Snapshot batchLatency,
+            @NonNull LatencyHistogram.Snapshot zipTime,
+            @NonNull LatencyHistogram.Snapshot uploadTime) {
+        mMillis = millis;
+        mAccepted = accepted;
+        mFiltered = filtered;
+        mDropped = dropped;
+        mBytesWritten = bytesWritten;
+        mQueueHighWaterMark = queueHighWaterMark;
+        mCallerLatency = callerLatency;
+        mBatchLatency = batchLatency;
+        mZipTime = zipTime;
+        mUploadTime = uploadTime;
+    }
+
+    public long getMillis() {
+        return mMillis;
+    }
+
+    public long getAccepted(@LogPriority int priority) {
+        return mAccepted[priority];
+    }
+
+    public long getFiltered(@LogPriority int priority) {
+        return mFiltered[priority];
+    }
+
+    public long getDropped(@LogPriority int priority) {
+        return mDropped[priority];
+    }
+
+    public long getAccepted() {
+        return sum(mAccepted);
+    }
+
+    public long getFiltered() {
+        return sum(mFiltered);
+    }
+
+    public long getDropped() {
+        return sum(mDropped);
+    }
+
+    public long getBytesWritten() {
+        return mBytesWritten;
+    }
+
+    public long getQueueHighWaterMark() {
+        return mQueueHighWaterMark;
+    }
+
+    /**
+     * 获取打印日志的线程花费的时间，包括查找调用者、格式化、输出到控制台和放入队列.
+     *
+     * @return 直方图
+     */
+    @NonNull
+    public LatencyHistogram.Snapshot getCallerLatency() {
+        return mCallerLatency;
+    }
+
+    /**
+     * 获取写文件的线程写入一批日志花费的时间，包括刷新.
+     *
+     * @return 直方图
+     */
+    @NonNull
+    public LatencyHistogram.Snapshot getBatchLatency() {
+        return mBatchLatency;
+    }
+
+    @NonNull
+    public LatencyHistogram.Snapshot getZipTime() {
+        return mZipTime;
+    }
+
+    @NonNull
+    public LatencyHistogram.Snapshot getUploadTime() {
+        return mUploadTime;
+    }
+
+    /**
+     * 计算相对于之前的快照的增量，队列中日志条数的最大值保持不变.
+     *
+     * @param previous 之前的快照
+     * @return 这段时间内的指标
+     */
+    @NonNull
+    public MetricsSnapshot minus(@NonNull MetricsSnapshot previous) {
+        return new MetricsSnapshot(mMillis, minus(mAccepted, previous.mAccepted),
+                minus(mFiltered, previous.mFiltered), minus(mDropped, previous.mDropped),
+                mBytesWritten - previous.mBytesWritten, mQueueHighWaterMark,
+                mCallerLatency.minus(previous.mCallerLatency),
+                mBatchLatency.minus(previous.mBatchLatency), mZipTime.minus(previous.mZipTime),
+                mUploadTime.minus(previous.mUploadTime));
+    }
+
+    private static long sum(@NonNull long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static long[] minus(@NonNull long[] values, @NonNull long[] previous) {
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i] - previous[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < mAccepted.length; i++) {
+            sb.append(LevelUtils.toLevel(i)).append(": accepted=").append(mAccepted[i])
+                    .append(" filtered=").append(mFiltered[i])
+                    .append(" dropped=").append(mDropped[i]).append('\n');
+        }
+        sb.append("bytesWritten=").append(mBytesWritten)
+                .append(" queueHighWaterMark=").append(mQueueHighWaterMark).append('\n')
+                .append("callerLatency: ").append(mCallerLatency).append('\n')
+                .append("batchLatency: ").append(mBatchLatency).append('\n')
+                .append("zipTime: ").append(mZipTime).append('\n')
+                .append("uploadTime: ").append(mUploadTime);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段的计数器.
+ *
+ * <p>每个线程按线程ID累加到不同的段，段之间隔开一个缓存行，多个线程同时计数时不会互相竞争；
+ * 读取时把各段相加. 一个计数器可以有多个槽，比如每个日志级别一个.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class StripedCounter {
+
+    /** 一个缓存行能放下的long个数. */
+    private static final int CACHE_LINE_LONGS = 8;
+    /** 最多的段数. */
+    private static final int MAX_STRIPES = 16;
+    /** 段数，2的幂. */
+    private static final int STRIPES = stripes();
+
+    /** 槽数. */
+    private final int mSlots;
+    /** 每段占用的长度，缓存行的整数倍. */
+    private final int mStride;
+    /** 所有段的计数. */
+    private final AtomicLongArray mCells;
+
+    /**
+     * 创建计数器.
+     *
+     * @param slots 槽数
+     */
+    public StripedCounter(int slots) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("slots must be positive");
+        }
+        mSlots = slots;
+        mStride = (slots + CACHE_LINE_LONGS - 1) / CACHE_LINE_LONGS * CACHE_LINE_LONGS;
+        mCells = new AtomicLongArray(mStride * STRIPES);
+    }
+
+    public int getSlots() {
+        return mSlots;
+    }
+
+    /**
+     * 槽的计数加一.
+     *
+     * @param slot 槽
+     */
+    public void increment(int slot) {
+        add(slot, 1);
+    }
+
+    /**
+     * 槽的计数增加指定的值.
+     *
+     * @param slot  槽
+     * @param delta 增加的值
+     */
+    public void add(int slot, long delta) {
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        mCells.addAndGet(stripe * mStride + slot, delta);
+    }
+
+    /**
+     * 获取槽的计数，其他线程同时计数时只是近似值.
+     *
+     * @param slot 槽
+     * @return 各段的和
+     */
+    public long sum(int slot) {
+        long sum = 0;
+        for (int i = slot, length = mCells.length(); i < length; i += mStride) {
+            sum += mCells.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * 根据CPU个数计算段数.
+     *
+     * @return 段数，2的幂
+     */
+    private static int stripes() {
+        int cpus = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES);
+        int stripes = 2;
+        while (stripes < cpus) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+}
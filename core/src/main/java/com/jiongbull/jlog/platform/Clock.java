@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.platform;
+
+/**
+ * 时钟.
+ */
+public interface Clock {
+
+    /** 系统时钟. */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * 获取当前的UTC时间.
+     *
+     * @return 时间戳，单位毫秒
+     */
+    long currentTimeMillis();
+
+    /**
+     * 获取单调递增的时间，只能用来计算时间间隔，不受修改系统时间的影响.
+     *
+     * @return 时间，单位纳秒
+     */
+    long nanoTime();
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.platform;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.util.LevelUtils;
+
+/**
+ * 控制台，输出调试日志和jlog内部的错误.
+ */
+public interface Console {
+
+    /** 标准输出，{@link LogPriority#WARN}及以上的日志输出到标准错误. */
+    Console SYSTEM = new Console() {
+        @Override
+        public void println(@LogPriority int priority, @NonNull String tag,
+                @NonNull String msg) {
+            String line = LevelUtils.toLevel(priority) + "/" + tag + ": " + msg;
+            if (priority >= LogPriority.WARN) {
+                System.err.println(line);
+            } else {
+                System.out.println(line);
+            }
+        }
+    };
+
+    /**
+     * 输出一行日志，过长的日志已由调用者拆分.
+     *
+     * @param priority 优先级
+     * @param tag      标签
+     * @param msg      信息
+     */
+    void println(@LogPriority int priority, @NonNull String tag, @NonNull String msg);
+}
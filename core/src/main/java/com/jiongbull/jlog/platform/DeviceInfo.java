@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.platform;
+
+import android.support.annotation.NonNull;
+
+/**
+ * 设备信息，新建日志文件时写在文件开头.
+ */
+public interface DeviceInfo {
+
+    /** JVM和操作系统的版本. */
+    DeviceInfo JVM = new DeviceInfo() {
+        @NonNull
+        @Override
+        public String getHeader() {
+            String lineSeparator = System.getProperty("line.separator");
+            return "Java version: " + System.getProperty("java.version") + lineSeparator
+                    + "Java vendor: " + System.getProperty("java.vendor") + lineSeparator
+                    + "OS name: " + System.getProperty("os.name") + lineSeparator
+                    + "OS version: " + System.getProperty("os.version") + lineSeparator
+                    + "OS arch: " + System.getProperty("os.arch") + lineSeparator
+                    + lineSeparator + lineSeparator;
+        }
+    };
+
+    /**
+     * 获取写在日志文件开头的设备信息.
+     *
+     * @return 设备信息，每项一行，以两个空行结束
+     */
+    @NonNull
+    String getHeader();
+}
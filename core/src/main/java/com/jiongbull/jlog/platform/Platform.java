@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.platform;
+
+import android.support.annotation.NonNull;
+
+/**
+ * 运行平台，jlog-core通过这里访问控制台、存储的根目录、设备信息和时钟.
+ *
+ * <p>默认是JVM的实现，在Android中由library在创建日志实例时替换. 修改后新打开的日志文件生效，
+ * 最好在打印日志之前设置.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class Platform {
+
+    private static volatile Console sConsole = Console.SYSTEM;
+    private static volatile StorageRoot sStorageRoot = StorageRoot.WORKING_DIR;
+    private static volatile DeviceInfo sDeviceInfo = DeviceInfo.JVM;
+    private static volatile Clock sClock = Clock.SYSTEM;
+
+    private Platform() {
+    }
+
+    @NonNull
+    public static Console getConsole() {
+        return sConsole;
+    }
+
+    public static void setConsole(@NonNull Console console) {
+        if (console == null) {
+            throw new IllegalArgumentException("console must not be null");
+        }
+        sConsole = console;
+    }
+
+    @NonNull
+    public static StorageRoot getStorageRoot() {
+        return sStorageRoot;
+    }
+
+    public static void setStorageRoot(@NonNull StorageRoot storageRoot) {
+        if (storageRoot == null) {
+            throw new IllegalArgumentException("storageRoot must not be null");
+        }
+        sStorageRoot = storageRoot;
+    }
+
+    @NonNull
+    public static DeviceInfo getDeviceInfo() {
+        return sDeviceInfo;
+    }
+
+    public static void setDeviceInfo(@NonNull DeviceInfo deviceInfo) {
+        if (deviceInfo == null) {
+            throw new IllegalArgumentException("deviceInfo must not be null");
+        }
+        sDeviceInfo = deviceInfo;
+    }
+
+    @NonNull
+    public static Clock getClock() {
+        return sClock;
+    }
+
+    public static void setClock(@NonNull Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("clock must not be null");
+        }
+        sClock = clock;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.platform;
+
+import android.support.annotation.NonNull;
+
+import java.io.File;
+
+/**
+ * 存储的根目录，日志目录都是相对这个目录的路径.
+ */
+public interface StorageRoot {
+
+    /** 当前的工作目录. */
+    StorageRoot WORKING_DIR = new StorageRoot() {
+        @NonNull
+        @Override
+        public File getRoot() {
+            return new File(System.getProperty("user.dir"));
+        }
+    };
+
+    /**
+     * 获取根目录.
+     *
+     * @return 根目录
+     */
+    @NonNull
+    File getRoot();
+}
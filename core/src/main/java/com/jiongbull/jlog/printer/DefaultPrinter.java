@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.printer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.util.PrinterUtils;
+import com.jiongbull.jlog.util.RecordLayout;
+import com.jiongbull.jlog.writer.FileTarget;
+
+/**
+ * 默认打印机.
+ */
+public class DefaultPrinter implements Printer {
+
+    @Override
+    public void printConsole(@LogPriority int priority, @NonNull String tag,
+            @NonNull String message, @NonNull StackTraceElement element,
+            @NonNull RecordLayout layout) {
+        PrinterUtils.printConsole(priority, tag,
+                PrinterUtils.decorateMsgForConsole(layout, priority, message, element));
+    }
+
+    @Override
+    public void printFile(@LogPriority int priority, @NonNull String message,
+            @NonNull StackTraceElement element, @NonNull FileTarget target) {
+        PrinterUtils.printFile(target, priority, message, element);
+    }
+}
\ No newline at end of file
@@ -16,13 +16,12 @@
 
 package com.jiongbull.jlog.printer;
 
-import android.content.Context;
 import android.support.annotation.NonNull;
 
-import com.jiongbull.jlog.constant.LogLevel;
-import com.jiongbull.jlog.constant.LogSegment;
+import com.jiongbull.jlog.constant.LogPriority;
 import com.jiongbull.jlog.util.PrinterUtils;
-import com.jiongbull.jlog.util.TimeUtils;
+import com.jiongbull.jlog.util.RecordLayout;
+import com.jiongbull.jlog.writer.FileTarget;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -37,8 +36,9 @@ public class JsonPrinter implements Printer {
     private static final int JSON_INDENT = 4;
 
     @Override
-    public void printConsole(@LogLevel String level, @NonNull String tag, @NonNull String message,
-            @NonNull StackTraceElement element) {
+    public void printConsole(@LogPriority int priority, @NonNull String tag,
+            @NonNull String message, @NonNull StackTraceElement element,
+            @NonNull RecordLayout layout) {
         String json;
         try {
             if (message.startsWith("{")) {
@@ -53,17 +53,13 @@ public class JsonPrinter implements Printer {
         } catch (JSONException e) {
             json = message;
         }
-        PrinterUtils.printConsole(level, tag, PrinterUtils.decorateMsgForConsole(json, element));
+        PrinterUtils.printConsole(priority, tag,
+                PrinterUtils.decorateMsgForConsole(layout, priority, json, element));
     }
 
     @Override
-    public void printFile(@NonNull Context context, @LogLevel String level, @NonNull String message,
-            @NonNull StackTraceElement element, @TimeUtils.ZoneOffset long zoneOffset,
-            @NonNull String timeFmt, @NonNull String logDir, String logPrefix,
-            @LogSegment int logSegment) {
-        synchronized (Printer.class) {
-            PrinterUtils.printFile(context, logDir, logPrefix, logSegment, zoneOffset,
-                    PrinterUtils.decorateMsgForFile(level, message, element, zoneOffset, timeFmt));
-        }
+    public void printFile(@LogPriority int priority, @NonNull String message,
+            @NonNull StackTraceElement element, @NonNull FileTarget target) {
+        PrinterUtils.printFile(target, priority, message, element);
     }
 }
\ No newline at end of file
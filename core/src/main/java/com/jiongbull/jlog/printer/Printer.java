@@ -16,12 +16,9 @@
 
 package com.jiongbull.jlog.printer;
 
-import android.content.Context;
-
-import com.jiongbull.jlog.constant.LogLevel;
-import com.jiongbull.jlog.constant.LogSegment;
-import com.jiongbull.jlog.util.SysUtils;
-import com.jiongbull.jlog.util.TimeUtils;
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.util.RecordLayout;
+import com.jiongbull.jlog.writer.FileTarget;
 
 /**
  * 打印接口.
@@ -29,27 +26,28 @@ import com.jiongbull.jlog.util.TimeUtils;
 @SuppressWarnings("unused")
 public interface Printer {
 
-    String LINE_SEPARATOR = SysUtils.getLineSeparator();
+    String LINE_SEPARATOR = System.getProperty("line.separator");
 
     /**
      * 日志打印输出到控制台.
      *
-     * @param level   级别
-     * @param tag     标签
-     * @param message 信息
-     * @param element 堆栈元素
+     * @param priority 优先级
+     * @param tag      标签
+     * @param message  信息
+     * @param element  堆栈元素
+     * @param layout   日志布局
      */
-    void printConsole(@LogLevel String level, String tag, String message,
-            StackTraceElement element);
+    void printConsole(@LogPriority int priority, String tag, String message,
+            StackTraceElement element, RecordLayout layout);
 
     /**
      * 日志打印输出到文件.
      *
-     * @param level   级别
-     * @param message 信息
-     * @param element 堆栈元素
+     * @param priority 优先级
+     * @param message  信息
+     * @param element  堆栈元素
+     * @param target   输出目标
      */
-    void printFile(Context context, @LogLevel String level, String message,
-            StackTraceElement element, @TimeUtils.ZoneOffset long zoneOffset, String timeFmt,
-            String logDir, String logPrefix, @LogSegment int logSegment);
+    void printFile(@LogPriority int priority, String message, StackTraceElement element,
+            FileTarget target);
 }
@@ -17,10 +17,8 @@
 package com.jiongbull.jlog.util;
 
 import android.support.annotation.NonNull;
-import android.text.TextUtils;
-import android.util.Log;
 
-import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -28,18 +26,28 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
-import static android.content.ContentValues.TAG;
-
 /**
  * 文件相关.
  */
 @SuppressWarnings({"unused", "WeakerAccess"})
 public class FileUtils {
+    private static final String TAG = "FileUtils";
     /** 压缩文件的扩展名. */
     public static final String ZIP_EXT = ".zip";
+    /** gzip文件的扩展名. */
+    public static final String GZIP_EXT = ".gz";
+    /** 日志索引文件的扩展名. */
+    public static final String INDEX_EXT = ".idx";
+    /** 上传进度文件的扩展名，进度文件名为“.”加上文件名再加上该扩展名. */
+    public static final String UPLOAD_EXT = ".upload";
+    /** 压缩时读写文件的缓冲区大小. */
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private FileUtils() {
     }
@@ -112,7 +120,7 @@ public class FileUtils {
     }
 
     /**
-     * 压缩文件.
+     * 压缩文件，使用默认的压缩级别.
      *
      * @param sourcePath 源文件的路径
      * @param destPath   目标文件路径
@@ -120,20 +128,37 @@ public class FileUtils {
      */
     public static void zip(@NonNull String sourcePath, @NonNull String destPath, boolean isClean)
             throws IOException {
+        zip(sourcePath, destPath, isClean, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * 压缩文件.
+     *
+     * @param sourcePath 源文件的路径
+     * @param destPath   目标文件路径
+     * @param isClean    压缩完毕后是否清理
+     * @param level      压缩级别，0-9，见{@link Deflater}
+     */
+    public static void zip(@NonNull String sourcePath, @NonNull String destPath, boolean isClean,
+            int level) throws IOException {
         ZipOutputStream zos = null;
         try {
-            zos = new ZipOutputStream(new FileOutputStream(destPath));
+            // ZipOutputStream每次只向下层写512字节，加一层缓冲减少系统调用
+            zos = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(destPath),
+                    BUFFER_SIZE));
+            zos.setLevel(level);
             File sourceFile = new File(sourcePath);
-            zip(zos, sourceFile, null);
-            if (isClean) {
-                boolean deleteResult = delete(sourceFile); // 压缩完毕后删除
-                if (!deleteResult) {
-                    Log.e(TAG, "delete file failed");
-                }
-            }
+            zip(zos, sourceFile, null, new byte[BUFFER_SIZE]);
+            zos.finish();
         } finally {
             IOUtils.closeQuietly(zos);
         }
+        if (isClean) {
+            boolean deleteResult = delete(new File(sourcePath)); // 压缩完毕后删除
+            if (!deleteResult) {
+                LogUtils.logError(TAG, "delete file failed", null);
+            }
+        }
     }
 
     /**
@@ -142,33 +167,31 @@ public class FileUtils {
      * @param zos        ZipOutputStream
      * @param fileToZip  待压缩的文件
      * @param folderPath 父路径，可以为null
+     * @param buffer     读文件的缓冲区
      * @throws IOException 压缩失败
      */
-    private static void zip(ZipOutputStream zos, File fileToZip, String folderPath)
-            throws IOException {
+    private static void zip(ZipOutputStream zos, File fileToZip, String folderPath,
+            byte[] buffer) throws IOException {
         String zipEntryName = fileToZip.getName();
-        if (!TextUtils.isEmpty(folderPath)) {
+        if (folderPath != null && !folderPath.isEmpty()) {
             zipEntryName = folderPath + File.separator + fileToZip.getName();
         }
         if (fileToZip.isDirectory()) {
             for (File file : fileToZip.listFiles()) {
-                zip(zos, file, zipEntryName);
+                zip(zos, file, zipEntryName, buffer);
             }
         } else {
-            BufferedInputStream bis = null;
+            FileInputStream fis = null;
             try {
-                int bufferSize = 1024;
-                byte[] buffer = new byte[bufferSize];
-                FileInputStream fis = new FileInputStream(fileToZip);
-                bis = new BufferedInputStream(fis, bufferSize);
+                fis = new FileInputStream(fileToZip);
                 zos.putNextEntry(new ZipEntry(zipEntryName));
                 int length;
-                while ((length = bis.read(buffer, 0, bufferSize)) != -1) {
+                while ((length = fis.read(buffer)) != -1) {
                     zos.write(buffer, 0, length);
                 }
                 zos.closeEntry();
             } finally {
-                IOUtils.closeQuietly(bis);
+                IOUtils.closeQuietly(fis);
             }
         }
     }
@@ -189,6 +212,32 @@ public class FileUtils {
         return logDir.listFiles(zipFilter);
     }
 
+    /**
+     * 获取目录下所有的gzip文件.
+     *
+     * @param logDir 日志目录
+     * @return gzip文件数组
+     */
+    public static File[] getGzipFiles(@NonNull File logDir) {
+        FilenameFilter gzipFilter = new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String filename) {
+                return filename.endsWith(GZIP_EXT);
+            }
+        };
+        return logDir.listFiles(gzipFilter);
+    }
+
+    /**
+     * 获取文件对应的上传进度文件.
+     *
+     * @param file 待上传的文件
+     * @return 上传进度文件
+     */
+    public static File getUploadFile(@NonNull File file) {
+        return new File(file.getParentFile(), "." + file.getName() + UPLOAD_EXT);
+    }
+
     /**
      * 删除文件.
      *
@@ -212,19 +261,7 @@ public class FileUtils {
      * @param files 待排序的文件
      */
     public static void sortByModifyDate(File[] files) {
-        Arrays.sort(files, new Comparator<File>() {
-            @Override
-            public int compare(File f1, File f2) {
-                long diff = f1.lastModified() - f2.lastModified();
-                if (diff > 0) {
-                    return 1;
-                } else if (diff == 0) {
-                    return 0;
-                } else {
-                    return -1;
-                }
-            }
-        });
+        sortByLastModified(files);
     }
 
     /**
@@ -233,10 +270,23 @@ public class FileUtils {
      * @param files 待排序的文件
      */
     public static void sortByModifyDateDesc(File[] files) {
+        sortByLastModified(files);
+    }
+
+    /**
+     * 按文件的最后修改时间排序，每个文件只读取一次修改时间.
+     *
+     * @param files 待排序的文件
+     */
+    private static void sortByLastModified(File[] files) {
+        final Map<File, Long> modified = new HashMap<>(files.length * 2);
+        for (File file : files) {
+            modified.put(file, file.lastModified());
+        }
         Arrays.sort(files, new Comparator<File>() {
             @Override
             public int compare(File f1, File f2) {
-                long diff = f1.lastModified() - f2.lastModified();
+                long diff = modified.get(f1) - modified.get(f2);
                 if (diff > 0) {
                     return 1;
                 } else if (diff == 0) {
@@ -247,4 +297,4 @@ public class FileUtils {
             }
         });
     }
-}
\ No newline at end of file
+}
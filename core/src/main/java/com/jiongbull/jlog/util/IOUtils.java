@@ -16,7 +16,7 @@
 
 package com.jiongbull.jlog.util;
 
-import android.util.Log;
+import android.support.annotation.NonNull;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -44,7 +44,34 @@ public class IOUtils {
                 closeable.close();
             }
         } catch (final IOException ioe) {
-            Log.e(TAG, ioe.getMessage());
+            LogUtils.logError(TAG, String.valueOf(ioe.getMessage()), null);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 计算字符串按UTF-8编码后的字节数，和{@link okio.BufferedSink#writeUtf8}写入的一致.
+     *
+     * @param text 字符串
+     * @return 字节数
+     */
+    public static long utf8Length(@NonNull String text) {
+        long length = 0;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+                length += 3;
+            } else if (Character.isHighSurrogate(c) && i + 1 < len
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length++; // 和Okio一致，不成对的代理字符写成'?'
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.util;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogLevel;
+import com.jiongbull.jlog.constant.LogPriority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 日志级别相关.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class LevelUtils {
+    /** 不输出任何级别的掩码. */
+    public static final int MASK_NONE = 0;
+    /** 输出所有级别的掩码. */
+    public static final int MASK_ALL = (1 << (LogPriority.WTF + 1)) - 1;
+
+    /** 按优先级排列的日志级别. */
+    private static final String[] LEVELS = {LogLevel.VERBOSE, LogLevel.DEBUG, LogLevel.INFO,
+            LogLevel.JSON, LogLevel.WARN, LogLevel.ERROR, LogLevel.WTF};
+
+    private LevelUtils() {
+    }
+
+    /**
+     * 获取优先级对应的日志级别.
+     *
+     * @param priority {@link LogPriority}，优先级
+     * @return {@link LogLevel}，日志级别
+     */
+    @LogLevel
+    public static String toLevel(@LogPriority int priority) {
+        return LEVELS[priority];
+    }
+
+    /**
+     * 获取日志级别对应的优先级.
+     *
+     * @param level {@link LogLevel}，日志级别
+     * @return {@link LogPriority}，未知级别返回-1
+     */
+    public static int toPriority(@LogLevel String level) {
+        if (level == null) {
+            return -1;
+        }
+        switch (level) {
+            case LogLevel.VERBOSE:
+                return LogPriority.VERBOSE;
+            case LogLevel.DEBUG:
+                return LogPriority.DEBUG;
+            case LogLevel.INFO:
+                return LogPriority.INFO;
+            case LogLevel.JSON:
+                return LogPriority.JSON;
+            case LogLevel.WARN:
+                return LogPriority.WARN;
+            case LogLevel.ERROR:
+                return LogPriority.ERROR;
+            case LogLevel.WTF:
+                return LogPriority.WTF;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * 获取优先级对应的掩码.
+     *
+     * @param priority {@link LogPriority}，优先级
+     * @return 掩码
+     */
+    public static int mask(@LogPriority int priority) {
+        return 1 << priority;
+    }
+
+    /**
+     * 获取不低于该优先级的所有级别的掩码.
+     *
+     * @param priority {@link LogPriority}，最低优先级
+     * @return 掩码
+     */
+    public static int maskAtLeast(@LogPriority int priority) {
+        return MASK_ALL & ~((1 << priority) - 1);
+    }
+
+    /**
+     * 获取日志级别列表对应的掩码.
+     *
+     * @param levels {@link LogLevel}，日志级别列表
+     * @return 掩码，忽略未知级别
+     */
+    public static int maskOf(List<String> levels) {
+        int mask = MASK_NONE;
+        if (levels != null) {
+            for (String level : levels) {
+                int priority = toPriority(level);
+                if (priority >= 0) {
+                    mask |= mask(priority);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 获取掩码对应的日志级别列表.
+     *
+     * @param mask 掩码
+     * @return {@link LogLevel}，日志级别列表
+     */
+    @NonNull
+    public static List<String> toLevels(int mask) {
+        List<String> levels = new ArrayList<>();
+        for (int priority = LogPriority.VERBOSE; priority <= LogPriority.WTF; priority++) {
+            if ((mask & mask(priority)) != 0) {
+                levels.add(LEVELS[priority]);
+            }
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.util;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.constant.LogSegment;
+import com.jiongbull.jlog.metrics.LogMetrics;
+import com.jiongbull.jlog.platform.Console;
+import com.jiongbull.jlog.platform.Platform;
+import com.jiongbull.jlog.writer.SegmentClock;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import static com.jiongbull.jlog.util.FileUtils.ZIP_EXT;
+
+/**
+ * 日志相关.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class LogUtils {
+    private static final String TAG = "log";
+    /** logcat里日志的最大长度. */
+    private static final int MAX_LOG_LENGTH = 4000;
+    /** 日志的扩展名. */
+    public static final String LOG_EXT = ".log";
+    /** 压缩日志的最大线程数. */
+    private static final int MAX_ZIP_THREADS = 4;
+    /** 压缩日志的线程池. */
+    private static ExecutorService sZipExecutor;
+
+    private LogUtils() {
+    }
+
+    /**
+     * 使用{@link Platform#getConsole()}输出日志，字符长度超过4000则自动换行.
+     *
+     * @param priority 优先级
+     * @param tag      标签
+     * @param message  信息
+     */
+    public static void log(@LogPriority int priority, @NonNull String tag,
+            @NonNull String message) {
+        Console console = Platform.getConsole();
+        int subNum = message.length() / MAX_LOG_LENGTH;
+        if (subNum > 0) {
+            int index = 0;
+            for (int i = 0; i < subNum; i++) {
+                int lastIndex = index + MAX_LOG_LENGTH;
+                String sub = message.substring(index, lastIndex);
+                console.println(priority, tag, sub);
+                index = lastIndex;
+            }
+            console.println(priority, tag, message.substring(index, message.length()));
+        } else {
+            console.println(priority, tag, message);
+        }
+    }
+
+    /**
+     * 输出jlog内部的错误.
+     *
+     * @param tag 标签
+     * @param msg 信息
+     * @param tr  异常，可以为null
+     */
+    public static void logError(@NonNull String tag, @NonNull String msg, Throwable tr) {
+        if (tr != null) {
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+            tr.printStackTrace(pw);
+            pw.flush();
+            msg = msg + '\n' + sw.toString();
+        }
+        Platform.getConsole().println(LogPriority.ERROR, tag, msg);
+    }
+
+    /**
+     * 格式化日志信息，格式有误时把参数追加到格式后面，不抛出异常.
+     *
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数，为空时直接返回格式
+     * @return 格式化后的信息
+     */
+    public static String format(String pattern, Object[] args) {
+        if (pattern == null || args == null || args.length == 0) {
+            return pattern;
+        }
+        try {
+            return String.format(pattern, args);
+        } catch (IllegalFormatException e) {
+            return pattern + " " + Arrays.toString(args);
+        }
+    }
+
+    /**
+     * 通过全限定类名来获取类名。
+     *
+     * @param className 全限定类名
+     * @return 类名
+     */
+    public static String getSimpleClassName(@NonNull String className) {
+        int lastIndex = className.lastIndexOf(".");
+        int index = lastIndex + 1;
+        if (lastIndex > 0 && index < className.length()) {
+            return className.substring(index);
+        }
+        return className;
+    }
+
+    /**
+     * 生成日志目录路径.
+     *
+     * @param logDir 日志保存的目录，相对于{@link Platform#getStorageRoot()}
+     * @return 日志目录路径
+     */
+    public static String genDirPath(@NonNull String logDir) {
+        return Platform.getStorageRoot().getRoot().getAbsolutePath() + File.separator + logDir;
+    }
+
+    /**
+     * 生成当前时间的日志文件名，和{@link SegmentClock}写入的文件一致.
+     *
+     * @param logPrefix  日志前缀
+     * @param logSegment 日志切片
+     * @param zoneOffset 时区偏移
+     * @return 日志文件名
+     */
+    public static String genFileName(String logPrefix, @LogSegment int logSegment,
+            @TimeUtils.ZoneOffset long zoneOffset) {
+        return SegmentClock.genFileName(logPrefix, logSegment, zoneOffset,
+                TimeUtils.getCurUtcMillis());
+    }
+
+    /**
+     * 根据切片时间获取当前的时间段.
+     *
+     * @param logSegment 日志切片
+     * @param zoneOffset 时区偏移
+     * @return 比如“0001”表示00:00-01:00
+     */
+    public static String getCurSegment(@LogSegment int logSegment,
+            @TimeUtils.ZoneOffset long zoneOffset) {
+        int hour = TimeUtils.getCurHour(zoneOffset);
+        int start = hour - hour % logSegment;
+        int end = start + logSegment;
+        if (end == 24) {
+            end = 0;
+        }
+        return getDoubleNum(start) + getDoubleNum(end);
+    }
+
+    /**
+     * 获取日录下的所有日志文件.
+     *
+     * @param logDir 日志目录
+     * @return 日志文件数组
+     */
+    public static File[] getLogFiles(@NonNull File logDir) {
+        FilenameFilter logFilter = new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String filename) {
+                return filename.endsWith(LOG_EXT);
+            }
+        };
+        return logDir.listFiles(logFilter);
+    }
+
+    /**
+     * 压缩日志文件，使用默认的压缩级别.
+     *
+     * @param file 日志文件，以".log"结尾
+     */
+    public static void zipLogs(@NonNull File file) throws IOException {
+        zipLogs(file, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * 压缩日志文件.
+     *
+     * @param file  日志文件，以".log"结尾
+     * @param level 压缩级别，0-9，见{@link Deflater}
+     */
+    public static void zipLogs(@NonNull File file, int level) throws IOException {
+        String filePath = file.getAbsolutePath();
+        int index = filePath.lastIndexOf('.');
+        if (index == -1) {
+            return;
+        }
+        String destPath = filePath.substring(0, index) + ZIP_EXT;
+        long start = System.nanoTime();
+        FileUtils.zip(filePath, destPath, true, level);
+        LogMetrics.getInstance().onZipped(System.nanoTime() - start);
+        FileUtils.delete(new File(filePath + FileUtils.INDEX_EXT));
+    }
+
+    /**
+     * 并行压缩多个日志文件，全部完成后返回.
+     *
+     * @param files 日志文件，通常是{@link #filterLogFiles}的结果
+     * @param level 压缩级别，0-9，见{@link Deflater}
+     * @throws IOException 任意一个文件压缩失败，其他文件仍会压缩
+     */
+    public static void zipLogs(@NonNull File[] files, final int level) throws IOException {
+        if (files.length == 1) {
+            zipLogs(files[0], level);
+            return;
+        }
+        ExecutorService executor = getZipExecutor();
+        List<Future<Void>> futures = new ArrayList<>(files.length);
+        for (final File file : files) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    zipLogs(file, level);
+                    return null;
+                }
+            }));
+        }
+        IOException error = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof IOException ? (IOException) e.getCause()
+                            : new IOException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("zip logs interrupted");
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * 获取压缩日志的线程池，线程数不超过CPU核数和{@link #MAX_ZIP_THREADS}，空闲时自动回收.
+     *
+     * @return 线程池
+     */
+    private static synchronized ExecutorService getZipExecutor() {
+        if (sZipExecutor == null) {
+            int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                    MAX_ZIP_THREADS));
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30L,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(@NonNull Runnable r) {
+                            Thread thread = new Thread(r, "jlog-zip");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            sZipExecutor = executor;
+        }
+        return sZipExecutor;
+    }
+
+    /**
+     * 根据当前日志的时间切片来过滤日志文件.
+     *
+     * @param logFiles   所有的日志文件
+     * @param zoneOffset 时区
+     * @param logPrefix  前缀
+     * @param logSegment 日志切片
+     * @return 当前时间切片之前的日志
+     */
+    public static File[] filterLogFiles(@NonNull File[] logFiles,
+            @TimeUtils.ZoneOffset long zoneOffset,
+            String logPrefix, @LogSegment int logSegment) {
+        String referFileName = genFileName(logPrefix, logSegment, zoneOffset);
+        List<File> files = new ArrayList<>();
+        for (File logFile : logFiles) {
+            if (logFile.getName().compareTo(referFileName) < 0) {
+                files.add(logFile);
+            }
+        }
+        return files.toArray(new File[files.size()]);
+    }
+
+    /**
+     * 对于1-9的数值进行前置补0.
+     *
+     * @param num 数值
+     * @return num在[0, 9]时前置补0，否则返回原值
+     */
+    private static String getDoubleNum(int num) {
+        return num < 10 ? "0" + num : String.valueOf(num);
+    }
+}
\ No newline at end of file
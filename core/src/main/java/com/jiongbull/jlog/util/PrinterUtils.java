@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.util;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.platform.Platform;
+import com.jiongbull.jlog.writer.AsyncAppender;
+import com.jiongbull.jlog.writer.FileTarget;
+import com.jiongbull.jlog.writer.LogRecord;
+
+/**
+ * 打印相关.
+ */
+public class PrinterUtils {
+
+    /** 最大保留的缓冲区容量，超过后丢弃，避免偶尔的长日志一直占用内存. */
+    private static final int MAX_BUFFER_CAPACITY = 16 * 1024;
+    /** 每个线程复用的装饰缓冲区. */
+    private static final ThreadLocal<StringBuilder> sBuffers = new ThreadLocal<>();
+
+    private PrinterUtils() {
+    }
+
+    /**
+     * 日志打印输出到控制台.
+     *
+     * @param priority 优先级
+     * @param tag      标签
+     * @param message  信息
+     */
+    public static void printConsole(@LogPriority int priority, @NonNull String tag,
+            @NonNull String message) {
+        LogUtils.log(priority, tag, message);
+    }
+
+    /**
+     * 日志打印输出到文件，格式化和写入都在写文件的线程中完成.
+     *
+     * @param target   输出目标
+     * @param priority 优先级
+     * @param message  信息
+     * @param element  堆栈元素
+     */
+    public static void printFile(@NonNull FileTarget target, @LogPriority int priority,
+            @NonNull String message, @NonNull StackTraceElement element) {
+        AsyncAppender.getInstance().append(new LogRecord(target, priority, message, element,
+                Thread.currentThread().getName(), Platform.getClock().currentTimeMillis()));
+    }
+
+    /**
+     * 装饰打印到控制台的信息.
+     *
+     * @param layout   控制台的日志布局，logcat自带时间，所以忽略%d
+     * @param priority 优先级
+     * @param message  信息
+     * @param element  堆栈元素
+     * @return 装饰后的信息
+     */
+    public static String decorateMsgForConsole(@NonNull RecordLayout layout,
+            @LogPriority int priority, @NonNull String message,
+            @NonNull StackTraceElement element) {
+        StringBuilder sb = obtainBuffer();
+        layout.appendTo(sb, 0L, null, priority, message, element,
+                Thread.currentThread().getName());
+        return sb.toString();
+    }
+
+    /**
+     * 获取当前线程的缓冲区.
+     *
+     * @return 清空后的缓冲区
+     */
+    private static StringBuilder obtainBuffer() {
+        StringBuilder sb = sBuffers.get();
+        if (sb == null || sb.capacity() > MAX_BUFFER_CAPACITY) {
+            sb = new StringBuilder(256);
+            sBuffers.set(sb);
+        }
+        sb.setLength(0);
+        return sb;
+    }
+}
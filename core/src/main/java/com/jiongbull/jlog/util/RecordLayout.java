@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.util;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预编译的日志布局.
+ *
+ * <p>构造时解析一次布局，之后把各个字段直接追加到调用方提供的StringBuilder中，
+ * 不再使用{@link String#format}. 布局中可以使用以下占位符：</p>
+ * <ul>
+ * <li>%d - 时间，格式由{@link TimeFormatter}决定</li>
+ * <li>%p - 日志级别</li>
+ * <li>%F - 文件名</li>
+ * <li>%L - 行号</li>
+ * <li>%M - 方法名</li>
+ * <li>%C - 类名</li>
+ * <li>%t - 线程名</li>
+ * <li>%m - 信息</li>
+ * <li>%n - 换行符</li>
+ * <li>%% - 百分号</li>
+ * </ul>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RecordLayout {
+
+    /** 文件中保存的内容格式. */
+    public static final String DEFAULT_FILE_PATTERN = "[%d  %p  %F:%L  Thread: %t]%n%m%n%n";
+    /** 控制台打印的内容格式. */
+    public static final String DEFAULT_CONSOLE_PATTERN =
+            "------------------------------ (%F:%L)#%M Thread:%t%n%m%n ";
+
+    private static final char LITERAL = 0;
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    /** 布局. */
+    private final String mPattern;
+    /** 字段类型，{@link #LITERAL}表示文本. */
+    private final char[] mFields;
+    /** 文本字段的内容. */
+    private final String[] mLiterals;
+
+    /**
+     * 创建日志布局.
+     *
+     * @param pattern 布局
+     */
+    public RecordLayout(@NonNull String pattern) {
+        mPattern = pattern;
+        List<Character> fields = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int len = pattern.length();
+        for (int i = 0; i < len; i++) {
+            char c = pattern.charAt(i);
+            if (c != '%' || i + 1 == len) {
+                literal.append(c);
+                continue;
+            }
+            char field = pattern.charAt(++i);
+            switch (field) {
+                case 'n':
+                    literal.append(LINE_SEPARATOR);
+                    break;
+                case 'd':
+                case 'p':
+                case 'F':
+                case 'L':
+                case 'M':
+                case 'C':
+                case 't':
+                case 'm':
+                    if (literal.length() > 0) {
+                        fields.add(LITERAL);
+                        literals.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    fields.add(field);
+                    literals.add(null);
+                    break;
+                case '%':
+                    literal.append('%');
+                    break;
+                default:
+                    literal.append('%').append(field);
+                    break;
+            }
+        }
+        if (literal.length() > 0) {
+            fields.add(LITERAL);
+            literals.add(literal.toString());
+        }
+        int size = fields.size();
+        mFields = new char[size];
+        mLiterals = literals.toArray(new String[size]);
+        for (int i = 0; i < size; i++) {
+            mFields[i] = fields.get(i);
+        }
+    }
+
+    public String getPattern() {
+        return mPattern;
+    }
+
+    /**
+     * 获取字段类型，供{@link RecordParser}使用.
+     *
+     * @return 字段类型，0表示文本，不要修改
+     */
+    char[] getFields() {
+        return mFields;
+    }
+
+    /**
+     * 获取文本字段的内容，供{@link RecordParser}使用.
+     *
+     * @return 文本字段的内容，不是文本的位置为null，不要修改
+     */
+    String[] getLiterals() {
+        return mLiterals;
+    }
+
+    /**
+     * 按布局把日志追加到sb中.
+     *
+     * @param sb            目标StringBuilder
+     * @param millis        日志的UTC时间戳
+     * @param timeFormatter 时间格式化器，为null时忽略%d
+     * @param priority      优先级
+     * @param message       信息
+     * @param element       堆栈元素
+     * @param threadName    线程名
+     */
+    public void appendTo(@NonNull StringBuilder sb, long millis, TimeFormatter timeFormatter,
+            @LogPriority int priority, @NonNull String message,
+            @NonNull StackTraceElement element, @NonNull String threadName) {
+        for (int i = 0; i < mFields.length; i++) {
+            switch (mFields[i]) {
+                case 'd':
+                    if (timeFormatter != null) {
+                        timeFormatter.formatTo(millis, sb);
+                    }
+                    break;
+                case 'p':
+                    sb.append(LevelUtils.toLevel(priority));
+                    break;
+                case 'F':
+                    sb.append(element.getFileName());
+                    break;
+                case 'L':
+                    sb.append(element.getLineNumber());
+                    break;
+                case 'M':
+                    sb.append(element.getMethodName());
+                    break;
+                case 'C':
+                    sb.append(element.getClassName());
+                    break;
+                case 't':
+                    sb.append(threadName);
+                    break;
+                case 'm':
+                    sb.append(message);
+                    break;
+                default:
+                    sb.append(mLiterals[i]);
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.util;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * 按{@link RecordLayout}解析日志文件中每条日志的第一行.
+ *
+ * <p>只解析布局中第一个换行符或%m之前的部分，能够解析说明这一行是一条日志的开头.
+ * %d按时间格式解析，精确到时间格式中最小的单位；其他字段取到下一段文本为止.
+ * 解析结果保存在解析器中，非线程安全.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RecordParser {
+
+    private static final char LITERAL = 0;
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    /** 第一行的字段类型. */
+    private final char[] mFields;
+    /** 第一行的文本字段. */
+    private final String[] mLiterals;
+    /** 第一行是否在换行符处结束，否则在%m处结束. */
+    private final boolean mEndsAtLineEnd;
+    /** 第一行开头的文本，第一行以字段开头时为空字符串. */
+    private final String mHeaderPrefix;
+    /** 第一行之后、信息之前的文本. */
+    private final String mMessagePrefix;
+    /** 信息之后的文本. */
+    private final String mMessageSuffix;
+    /** 时间解析器，布局中没有%d时为null. */
+    private final SimpleDateFormat mDateFormat;
+    @TimeUtils.ZoneOffset
+    private final long mZoneOffset;
+    private final ParsePosition mPosition = new ParsePosition(0);
+
+    private long mMillis;
+    private int mPriority;
+    private String mFileName;
+    private int mLineNumber;
+    private String mMethodName;
+    private String mClassName;
+    private String mThreadName;
+    private String mMessage;
+
+    /**
+     * 创建解析器.
+     *
+     * @param layout     日志布局
+     * @param timeFormat 时间格式
+     * @param zoneOffset 时区偏移
+     */
+    public RecordParser(@NonNull RecordLayout layout, @NonNull String timeFormat,
+            @TimeUtils.ZoneOffset long zoneOffset) {
+        char[] fields = layout.getFields();
+        String[] literals = layout.getLiterals();
+        String separator = LINE_SEPARATOR;
+        List<Character> headerFields = new ArrayList<>();
+        List<String> headerLiterals = new ArrayList<>();
+        boolean endsAtLineEnd = false;
+        boolean hasTime = false;
+        int i = 0;
+        StringBuilder messagePrefix = new StringBuilder();
+        for (; i < fields.length; i++) {
+            char field = fields[i];
+            if (field == 'm') {
+                break;
+            }
+            if (field == LITERAL) {
+                int index = literals[i].indexOf(separator);
+                if (index >= 0) {
+                    if (index > 0) {
+                        headerFields.add(LITERAL);
+                        headerLiterals.add(literals[i].substring(0, index));
+                    }
+                    messagePrefix.append(literals[i].substring(index + separator.length()));
+                    endsAtLineEnd = true;
+                    i++;
+                    break;
+                }
+            } else if (field == 'd') {
+                hasTime = true;
+            }
+            headerFields.add(field);
+            headerLiterals.add(literals[i]);
+        }
+        // 第一行之后到%m之间只有文本时才能去掉，否则保留在信息中
+        for (; i < fields.length && fields[i] != 'm'; i++) {
+            if (fields[i] != LITERAL) {
+                messagePrefix.setLength(0);
+                while (i < fields.length && fields[i] != 'm') {
+                    i++;
+                }
+                break;
+            }
+            messagePrefix.append(literals[i]);
+        }
+        StringBuilder messageSuffix = new StringBuilder();
+        for (i++; i < fields.length && fields[i] == LITERAL; i++) {
+            messageSuffix.append(literals[i]);
+        }
+        mMessagePrefix = messagePrefix.toString();
+        mMessageSuffix = messageSuffix.toString();
+        int size = headerFields.size();
+        mFields = new char[size];
+        mLiterals = headerLiterals.toArray(new String[size]);
+        for (int j = 0; j < size; j++) {
+            mFields[j] = headerFields.get(j);
+        }
+        mHeaderPrefix = size > 0 && mFields[0] == LITERAL ? mLiterals[0] : "";
+        mEndsAtLineEnd = endsAtLineEnd;
+        mZoneOffset = zoneOffset;
+        if (hasTime) {
+            // TimeFormatter按UTC计算目标时区的时间，解析时同样按UTC解析再减去时区偏移
+            mDateFormat = new SimpleDateFormat(timeFormat.replace('A', 'a'), Locale.getDefault());
+            mDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            mDateFormat.setLenient(false);
+        } else {
+            mDateFormat = null;
+        }
+    }
+
+    /**
+     * 解析一行文本.
+     *
+     * @param line 一行文本，不包括换行符
+     * @return true - 是一条日志的第一行，结果可以通过getter获取
+     */
+    public boolean parse(@NonNull String line) {
+        mMillis = -1;
+        mPriority = -1;
+        mFileName = null;
+        mLineNumber = -1;
+        mMethodName = null;
+        mClassName = null;
+        mThreadName = null;
+        mMessage = null;
+        if (mFields.length == 0) {
+            return false;
+        }
+        int pos = 0;
+        int len = line.length();
+        for (int i = 0; i < mFields.length; i++) {
+            char field = mFields[i];
+            if (field == LITERAL) {
+                if (!line.startsWith(mLiterals[i], pos)) {
+                    return false;
+                }
+                pos += mLiterals[i].length();
+                continue;
+            }
+            if (field == 'd') {
+                mPosition.setIndex(pos);
+                mPosition.setErrorIndex(-1);
+                Date date = mDateFormat.parse(line, mPosition);
+                if (date == null) {
+                    return false;
+                }
+                mMillis = date.getTime() - mZoneOffset;
+                pos = mPosition.getIndex();
+                continue;
+            }
+            int end;
+            if (i + 1 < mFields.length && mFields[i + 1] == LITERAL) {
+                end = line.indexOf(mLiterals[i + 1], pos);
+            } else if (i + 1 == mFields.length && mEndsAtLineEnd) {
+                end = len;
+            } else {
+                return false; // 两个字段相邻或者后面紧跟信息时无法区分边界
+            }
+            if (end < 0) {
+                return false;
+            }
+            String text = line.substring(pos, end);
+            if (!setField(field, text)) {
+                return false;
+            }
+            pos = end;
+        }
+        if (mEndsAtLineEnd) {
+            return pos == len;
+        }
+        mMessage = line.substring(pos);
+        return true;
+    }
+
+    /**
+     * 获取第一行开头的文本，可以用来在解析前快速排除不是日志开头的行.
+     *
+     * @return 文本，第一行以字段开头时为空字符串
+     */
+    @NonNull
+    public String getHeaderPrefix() {
+        return mHeaderPrefix;
+    }
+
+    /**
+     * 取出完整的信息，去掉布局中信息前后的文本.
+     *
+     * @param lineMessage 解析第一行时{@link #getMessage()}的结果
+     * @param body        第一行之后到下一条日志之前的内容，最后一行包括换行符
+     * @return 信息
+     */
+    @NonNull
+    public String extractMessage(String lineMessage, @NonNull String body) {
+        String text;
+        if (lineMessage != null) {
+            text = lineMessage + LINE_SEPARATOR + body;
+        } else if (body.startsWith(mMessagePrefix)) {
+            text = body.substring(mMessagePrefix.length());
+        } else {
+            text = body;
+        }
+        if (mMessageSuffix.length() > 0 && text.endsWith(mMessageSuffix)) {
+            text = text.substring(0, text.length() - mMessageSuffix.length());
+        }
+        return text;
+    }
+
+    private boolean setField(char field, @NonNull String text) {
+        switch (field) {
+            case 'p':
+                mPriority = LevelUtils.toPriority(text);
+                return mPriority >= 0;
+            case 'F':
+                mFileName = text;
+                return true;
+            case 'L':
+                try {
+                    mLineNumber = Integer.parseInt(text);
+                    return true;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            case 'M':
+                mMethodName = text;
+                return true;
+            case 'C':
+                mClassName = text;
+                return true;
+            case 't':
+                mThreadName = text;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 获取日志的UTC时间戳.
+     *
+     * @return 时间戳，布局中没有%d时为-1
+     */
+    public long getMillis() {
+        return mMillis;
+    }
+
+    /**
+     * 获取日志的优先级.
+     *
+     * @return {@link LogPriority}，布局中没有%p时为-1
+     */
+    public int getPriority() {
+        return mPriority;
+    }
+
+    public String getFileName() {
+        return mFileName;
+    }
+
+    public int getLineNumber() {
+        return mLineNumber;
+    }
+
+    public String getMethodName() {
+        return mMethodName;
+    }
+
+    public String getClassName() {
+        return mClassName;
+    }
+
+    public String getThreadName() {
+        return mThreadName;
+    }
+
+    /**
+     * 获取第一行中的信息.
+     *
+     * @return 信息，布局中信息不在第一行时为null
+     */
+    public String getMessage() {
+        return mMessage;
+    }
+}
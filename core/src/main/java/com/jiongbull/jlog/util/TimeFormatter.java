@@ -0,0 +1,347 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.util;
+
+import android.support.annotation.NonNull;
+
+import java.text.DateFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预编译的时间格式化器.
+ *
+ * <p>构造时解析一次时间格式，之后按时间戳直接计算各个字段，不再创建Calendar或重新解析格式.
+ * 同一秒内的时间直接复用上次的结果，日期部分只在跨天时重新计算.
+ * 支持的字段和{@link android.text.format.DateFormat}一致：y M d H h k K m s E a A z，
+ * 以及用单引号括起来的文本.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class TimeFormatter {
+
+    private static final long SECOND_MILLIS = 1000L;
+    private static final long DAY_SECONDS = 24 * 60 * 60L;
+
+    private static final char LITERAL = 0;
+
+    /** 时间格式. */
+    private final String mPattern;
+    /** 时区偏移. */
+    @TimeUtils.ZoneOffset
+    private final long mZoneOffset;
+    /** 字段类型，{@link #LITERAL}表示文本. */
+    private final char[] mFields;
+    /** 字段长度. */
+    private final int[] mCounts;
+    /** 文本字段的内容. */
+    private final String[] mLiterals;
+    private final String[] mShortMonths;
+    private final String[] mMonths;
+    private final String[] mShortWeekdays;
+    private final String[] mWeekdays;
+    private final String[] mAmPm;
+    /** 最近一次格式化的结果，多线程访问时整体替换. */
+    private volatile Cache mCache;
+
+    /**
+     * 创建时间格式化器.
+     *
+     * @param pattern    时间格式
+     * @param zoneOffset 时区偏移
+     */
+    public TimeFormatter(@NonNull String pattern, @TimeUtils.ZoneOffset long zoneOffset) {
+        mPattern = pattern;
+        mZoneOffset = zoneOffset;
+
+        List<Character> fields = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int len = pattern.length();
+        int i = 0;
+        while (i < len) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < len && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i += 2;
+                    continue;
+                }
+                int end = i + 1;
+                while (end < len) {
+                    if (pattern.charAt(end) == '\'') {
+                        if (end + 1 < len && pattern.charAt(end + 1) == '\'') {
+                            literal.append('\'');
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    literal.append(pattern.charAt(end));
+                    end++;
+                }
+                i = end + 1;
+                continue;
+            }
+            if (!isField(c)) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            int count = 1;
+            while (i + count < len && pattern.charAt(i + count) == c) {
+                count++;
+            }
+            if (literal.length() > 0) {
+                fields.add(LITERAL);
+                counts.add(0);
+                literals.add(literal.toString());
+                literal.setLength(0);
+            }
+            fields.add(c);
+            counts.add(count);
+            literals.add(null);
+            i += count;
+        }
+        if (literal.length() > 0) {
+            fields.add(LITERAL);
+            counts.add(0);
+            literals.add(literal.toString());
+        }
+
+        int size = fields.size();
+        mFields = new char[size];
+        mCounts = new int[size];
+        mLiterals = new String[size];
+        for (int j = 0; j < size; j++) {
+            mFields[j] = fields.get(j);
+            mCounts[j] = counts.get(j);
+            mLiterals[j] = literals.get(j);
+        }
+
+        DateFormatSymbols symbols = DateFormatSymbols.getInstance();
+        mShortMonths = symbols.getShortMonths();
+        mMonths = symbols.getMonths();
+        mShortWeekdays = symbols.getShortWeekdays();
+        mWeekdays = symbols.getWeekdays();
+        mAmPm = symbols.getAmPmStrings();
+    }
+
+    public String getPattern() {
+        return mPattern;
+    }
+
+    @TimeUtils.ZoneOffset
+    public long getZoneOffset() {
+        return mZoneOffset;
+    }
+
+    /**
+     * 格式化UTC时间戳.
+     *
+     * @param millis UTC时间戳
+     * @return 格式化后的时间文本，同一秒内返回同一个对象
+     */
+    public String format(long millis) {
+        long second = floorDiv(millis + mZoneOffset, SECOND_MILLIS);
+        Cache cache = mCache;
+        if (cache != null && cache.mSecond == second) {
+            return cache.mText;
+        }
+        cache = compute(second, cache);
+        mCache = cache;
+        return cache.mText;
+    }
+
+    /**
+     * 把UTC时间戳格式化后追加到sb中.
+     *
+     * @param millis UTC时间戳
+     * @param sb     目标StringBuilder
+     */
+    public void formatTo(long millis, @NonNull StringBuilder sb) {
+        sb.append(format(millis));
+    }
+
+    /**
+     * 计算某一秒的时间文本，和上次在同一天时复用日期字段.
+     *
+     * @param second 目标时区的秒数（自1970-01-01起）
+     * @param last   上次的结果，可以为null
+     * @return 新的结果
+     */
+    private Cache compute(long second, Cache last) {
+        long day = floorDiv(second, DAY_SECONDS);
+        int year;
+        int month;
+        int dayOfMonth;
+        if (last != null && last.mDay == day) {
+            year = last.mYear;
+            month = last.mMonth;
+            dayOfMonth = last.mDayOfMonth;
+        } else {
+            // 公历日期换算，参考 http://howardhinnant.github.io/date_algorithms.html
+            long z = day + 719468;
+            long era = floorDiv(z, 146097);
+            long doe = z - era * 146097;
+            long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+            long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+            long mp = (5 * doy + 2) / 153;
+            dayOfMonth = (int) (doy - (153 * mp + 2) / 5 + 1);
+            month = (int) (mp < 10 ? mp + 3 : mp - 9);
+            year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+        }
+        int secondOfDay = (int) (second - day * DAY_SECONDS);
+        int hour = secondOfDay / 3600;
+        int minute = secondOfDay / 60 % 60;
+        int sec = secondOfDay % 60;
+        // 1970-01-01是星期四，Calendar中星期日为1
+        int weekday = (int) ((day % 7 + 7 + 4) % 7) + 1;
+
+        StringBuilder sb = new StringBuilder(mPattern.length() + 8);
+        for (int i = 0; i < mFields.length; i++) {
+            int count = mCounts[i];
+            switch (mFields[i]) {
+                case 'y':
+                    appendNumber(sb, count <= 2 ? year % 100 : year, count <= 2 ? 2 : count);
+                    break;
+                case 'M':
+                case 'L':
+                    if (count >= 4) {
+                        sb.append(mMonths[month - 1]);
+                    } else if (count == 3) {
+                        sb.append(mShortMonths[month - 1]);
+                    } else {
+                        appendNumber(sb, month, count);
+                    }
+                    break;
+                case 'd':
+                    appendNumber(sb, dayOfMonth, count);
+                    break;
+                case 'H':
+                    appendNumber(sb, hour, count);
+                    break;
+                case 'k':
+                    appendNumber(sb, hour == 0 ? 24 : hour, count);
+                    break;
+                case 'h':
+                    appendNumber(sb, hour % 12 == 0 ? 12 : hour % 12, count);
+                    break;
+                case 'K':
+                    appendNumber(sb, hour % 12, count);
+                    break;
+                case 'm':
+                    appendNumber(sb, minute, count);
+                    break;
+                case 's':
+                    appendNumber(sb, sec, count);
+                    break;
+                case 'E':
+                    sb.append(count >= 4 ? mWeekdays[weekday] : mShortWeekdays[weekday]);
+                    break;
+                case 'a':
+                case 'A':
+                    sb.append(mAmPm[hour < 12 ? 0 : 1]);
+                    break;
+                case 'z':
+                    appendZone(sb);
+                    break;
+                default:
+                    sb.append(mLiterals[i]);
+                    break;
+            }
+        }
+        return new Cache(second, day, year, month, dayOfMonth, sb.toString());
+    }
+
+    private void appendZone(StringBuilder sb) {
+        long minutes = mZoneOffset / 60000L;
+        sb.append("GMT").append(minutes < 0 ? '-' : '+');
+        minutes = Math.abs(minutes);
+        appendNumber(sb, (int) (minutes / 60), 2);
+        sb.append(':');
+        appendNumber(sb, (int) (minutes % 60), 2);
+    }
+
+    private static boolean isField(char c) {
+        switch (c) {
+            case 'y':
+            case 'M':
+            case 'L':
+            case 'd':
+            case 'H':
+            case 'k':
+            case 'h':
+            case 'K':
+            case 'm':
+            case 's':
+            case 'E':
+            case 'a':
+            case 'A':
+            case 'z':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 追加数字，不足位数时在前面补0.
+     *
+     * @param sb    目标StringBuilder
+     * @param value 非负数字
+     * @param width 最少位数
+     */
+    private static void appendNumber(StringBuilder sb, int value, int width) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < width; i++) {
+            sb.append('0');
+        }
+        sb.append(value);
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y != 0 && ((x ^ y) < 0)) ? q - 1 : q;
+    }
+
+    /**
+     * 最近一次格式化的结果.
+     */
+    private static final class Cache {
+        /** 目标时区的秒数. */
+        private final long mSecond;
+        /** 目标时区的天数. */
+        private final long mDay;
+        private final int mYear;
+        private final int mMonth;
+        private final int mDayOfMonth;
+        private final String mText;
+
+        private Cache(long second, long day, int year, int month, int dayOfMonth, String text) {
+            mSecond = second;
+            mDay = day;
+            mYear = year;
+            mMonth = month;
+            mDayOfMonth = dayOfMonth;
+            mText = text;
+        }
+    }
+}
@@ -18,11 +18,15 @@ package com.jiongbull.jlog.util;
 
 import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
-import android.text.format.DateFormat;
+
+import com.jiongbull.jlog.platform.Platform;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.jiongbull.jlog.util.TimeUtils.ZoneOffset.N0000;
 import static com.jiongbull.jlog.util.TimeUtils.ZoneOffset.N0100;
@@ -66,6 +70,14 @@ import static com.jiongbull.jlog.util.TimeUtils.ZoneOffset.P1400;
 @SuppressWarnings({"unused", "WeakerAccess"})
 public final class TimeUtils {
 
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+    /** 缓存的格式化器的最大个数. */
+    private static final int MAX_FORMATTERS = 16;
+    /** 按时区偏移和时间格式缓存的格式化器. */
+    private static final ConcurrentMap<String, TimeFormatter> sFormatters =
+            new ConcurrentHashMap<>();
+
     private TimeUtils() {
     }
 
@@ -87,7 +99,7 @@ public final class TimeUtils {
      * @return 时间戳
      */
     public static long getCurUtcMillis() {
-        return System.currentTimeMillis();
+        return Platform.getClock().currentTimeMillis();
     }
 
     /**
@@ -119,7 +131,7 @@ public final class TimeUtils {
      * @return 目标时区的当前时间戳
      */
     public static long getCurMillis(@ZoneOffset long zoneOffset) {
-        return getMillis(System.currentTimeMillis(), zoneOffset);
+        return getMillis(getCurUtcMillis(), zoneOffset);
     }
 
     /**
@@ -129,40 +141,65 @@ public final class TimeUtils {
      * @return 目标时区的当前日期
      */
     public static String getCurDate(@ZoneOffset long zoneOffset) {
-        return format(getCurMillis(zoneOffset), "yyyy-MM-dd");
+        return getCurTime(zoneOffset, "yyyy-MM-dd");
     }
 
     /**
-     * 格式化时间戳.
+     * 按默认时区格式化时间戳，时间格式同{@link TimeFormatter}.
      *
      * @param millis 时间戳
      * @param fmt    时间格式
      * @return 格式化后的时间文本
      */
     public static String format(long millis, @NonNull String fmt) {
-        return DateFormat.format(fmt, millis).toString();
+        return obtainFormatter(fmt, TimeZone.getDefault().getOffset(millis)).format(millis);
     }
 
     /**
-     * 获取目标时区的当前时间.
+     * 获取目标时区的当前时间，按UTC时间加上时区偏移计算，不受设备夏令时的影响.
      *
      * @param zoneOffset 时区偏移
      * @param fmt        时间格式
      * @return 目标时区的当前时间
      */
     public static String getCurTime(@ZoneOffset long zoneOffset, @NonNull String fmt) {
-        return format(getCurMillis(zoneOffset), fmt);
+        return obtainFormatter(fmt, zoneOffset).format(getCurUtcMillis());
     }
 
     /**
-     * 获取当前小时（0-23）.
+     * 获取目标时区的当前小时（0-23），不受设备夏令时的影响.
      *
      * @param zoneOffset 时区偏移
      * @return 当前小时
      */
     public static int getCurHour(@ZoneOffset long zoneOffset) {
-        Calendar calendar = getCalendar(getCurMillis(zoneOffset));
-        return calendar.get(Calendar.HOUR_OF_DAY);
+        long local = getCurUtcMillis() + zoneOffset;
+        long mod = local % DAY_MILLIS;
+        if (mod < 0) {
+            mod += DAY_MILLIS;
+        }
+        return (int) (mod / HOUR_MILLIS);
+    }
+
+    /**
+     * 获取缓存的时间格式化器，缓存满时清空.
+     *
+     * @param fmt        时间格式
+     * @param zoneOffset 时区偏移
+     * @return 时间格式化器
+     */
+    private static TimeFormatter obtainFormatter(@NonNull String fmt, long zoneOffset) {
+        String key = zoneOffset + "|" + fmt;
+        TimeFormatter formatter = sFormatters.get(key);
+        if (formatter == null) {
+            if (sFormatters.size() >= MAX_FORMATTERS) {
+                sFormatters.clear();
+            }
+            //noinspection WrongConstant
+            formatter = new TimeFormatter(fmt, zoneOffset);
+            sFormatters.put(key, formatter);
+        }
+        return formatter;
     }
 
     /**
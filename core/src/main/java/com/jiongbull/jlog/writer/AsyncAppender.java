@@ -0,0 +1,597 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.FlushPolicy;
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.constant.OverflowPolicy;
+import com.jiongbull.jlog.constant.WriteMode;
+import com.jiongbull.jlog.metrics.LogMetrics;
+import com.jiongbull.jlog.platform.Platform;
+import com.jiongbull.jlog.util.IOUtils;
+import com.jiongbull.jlog.util.LogUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步写日志文件.
+ *
+ * <p>打印日志的线程只把{@link LogRecord}放进无锁队列，互相之间不会阻塞，
+ * 写文件的线程每次取出队列中的全部日志，格式化后批量写入，再按刷新策略统一刷新（group commit）.
+ * 未刷新的日志达到批量条数、字符数上限或停留超过linger时间时也会刷新.</p>
+ *
+ * <p>队列同时限制条数和字节数，满了以后按{@link OverflowPolicy}处理，被丢弃的日志会计数，
+ * 写文件的线程追上后在对应的文件中补一行“N records dropped”.</p>
+ *
+ * <p>{@link #flush(long)}等待调用之前放入队列的日志全部写入并刷新，不受刷新策略的影响.</p>
+ *
+ * <p>写入器超过几个linger时间（至少一分钟）没有写入时会被关闭，
+ * 日志目录或前缀改变后，原来的写入器不会一直占用文件.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class AsyncAppender {
+
+    private static final String TAG = "log";
+    /** 写文件线程的名字. */
+    private static final String THREAD_NAME = "jlog-appender";
+    /** 未刷新的字符数上限. */
+    private static final long MAX_PENDING_CHARS = 64 * 1024L;
+    /** 每次最多取出的日志条数. */
+    private static final int MAX_DRAIN = 1024;
+    /** 队列容量. */
+    private static final int QUEUE_CAPACITY = 8192;
+    /** 队列中日志占用的字节数上限. */
+    private static final long MAX_QUEUE_BYTES = 4 * 1024 * 1024L;
+    /** 写入器空闲多少个linger时间后关闭. */
+    private static final int IDLE_LINGERS = 4;
+    /** 写入器空闲后关闭的最短时间. */
+    private static final long MIN_IDLE_MILLIS = 60 * 1000L;
+    /** 队列已满时生产者每次等待的时间，单位纳秒. */
+    private static final long FULL_PARK_NANOS = 100 * 1000L;
+    /** 丢弃提示使用的堆栈元素. */
+    private static final StackTraceElement DROP_ELEMENT = new StackTraceElement(
+            AsyncAppender.class.getName(), "drop", "AsyncAppender.java", -1);
+
+    private static volatile AsyncAppender sInstance;
+
+    /** 运行指标. */
+    private final LogMetrics mMetrics = LogMetrics.getInstance();
+
+    /** 待写入的日志. */
+    private final RingBuffer<LogRecord> mQueue = new RingBuffer<>(QUEUE_CAPACITY);
+    /** 队列中日志占用的字节数. */
+    private final AtomicLong mQueuedBytes = new AtomicLong();
+    /** 被丢弃的日志，以写入器的键区分. */
+    private final ConcurrentMap<String, Drops> mDrops = new ConcurrentHashMap<>();
+    /** 日志文件的写入器，只在写文件的线程中访问. */
+    private final Map<String, SegmentWriter> mWriters = new HashMap<>();
+    /** 每个写入器最近一次使用的输出目标，只在写文件的线程中访问. */
+    private final Map<SegmentWriter, FileTarget> mTargets = new HashMap<>();
+    /** 每个日志目录的保留策略，只在写文件的线程中访问. */
+    private final Map<String, RetentionManager> mRetentions = new HashMap<>();
+    /** 格式化日志的缓冲区，只在写文件的线程中访问. */
+    private final StringBuilder mBuffer = new StringBuilder(1024);
+    /** 写文件的线程. */
+    private final Thread mThread;
+    /** 写文件的线程是否准备休眠，生产者据此决定是否唤醒它. */
+    private volatile boolean mParked;
+    /** 放入队列的日志条数. */
+    private final AtomicLong mAppended = new AtomicLong();
+    /** 已经写入或丢弃的日志条数. */
+    private final AtomicLong mProcessed = new AtomicLong();
+    /** 等待强制刷新的锁. */
+    private final Object mFlushLock = new Object();
+    /** 最近一次强制刷新时已经写入或丢弃的日志条数，由mFlushLock保护. */
+    private long mFlushed;
+    /** 关闭所有写入器的次数，由mFlushLock保护. */
+    private long mCloseCount;
+    /** 是否有线程在等待强制刷新. */
+    private volatile boolean mFlushRequested;
+    /** 强制刷新后是否关闭所有写入器. */
+    private volatile boolean mCloseRequested;
+
+    private AsyncAppender() {
+        mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, THREAD_NAME);
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    /**
+     * 获取写文件的实例，第一次调用时启动写文件线程.
+     *
+     * @return 实例
+     */
+    public static AsyncAppender getInstance() {
+        if (sInstance == null) {
+            synchronized (AsyncAppender.class) {
+                if (sInstance == null) {
+                    sInstance = new AsyncAppender();
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 把日志放入队列，不等待写入，队列已满时按输出目标的{@link OverflowPolicy}处理.
+     *
+     * @param record 日志
+     */
+    public void append(@NonNull LogRecord record) {
+        if (!tryOffer(record)) {
+            LockSupport.unpark(mThread);
+            FileTarget target = record.getTarget();
+            switch (target.getOverflowPolicy()) {
+                case OverflowPolicy.DROP_NEWEST:
+                    drop(record);
+                    return;
+                case OverflowPolicy.DROP_OLDEST:
+                    do {
+                        LogRecord oldest = mQueue.poll();
+                        if (oldest != null) {
+                            mQueuedBytes.addAndGet(-oldest.getWeight());
+                            drop(oldest);
+                            mProcessed.incrementAndGet();
+                        }
+                    } while (!tryOffer(record));
+                    break;
+                case OverflowPolicy.DROP_BELOW_LEVEL:
+                    if (record.getPriority() < target.getOverflowLevel()) {
+                        drop(record);
+                        return;
+                    }
+                    waitOffer(record);
+                    break;
+                case OverflowPolicy.BLOCK:
+                default:
+                    waitOffer(record);
+                    break;
+            }
+        }
+        if (mParked) {
+            LockSupport.unpark(mThread);
+        }
+    }
+
+    /**
+     * 把日志放入队列，不受{@link OverflowPolicy}的影响，队列已满时最多等待指定的时间.
+     *
+     * <p>用于崩溃时写入最重要的日志，不会被丢弃，也不会无限期阻塞.</p>
+     *
+     * @param record        日志
+     * @param timeoutMillis 最多等待的毫秒数
+     * @return true - 放入成功，false - 超时
+     */
+    public boolean append(@NonNull LogRecord record, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!tryOffer(record)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.unpark(mThread);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        if (mParked) {
+            LockSupport.unpark(mThread);
+        }
+        return true;
+    }
+
+    /**
+     * 等待调用之前放入队列的日志全部写入文件并刷新.
+     *
+     * @param timeoutMillis 最多等待的毫秒数
+     * @return true - 刷新完成，false - 超时、被中断或者在写文件的线程中调用
+     */
+    public boolean flush(long timeoutMillis) {
+        return awaitFlush(false, timeoutMillis);
+    }
+
+    /**
+     * 等待调用之前放入队列的日志全部写入文件并刷新，然后关闭所有日志文件.
+     *
+     * <p>之后仍然可以写日志，写入时重新打开文件.</p>
+     *
+     * @param timeoutMillis 最多等待的毫秒数
+     * @return true - 完成，false - 超时、被中断或者在写文件的线程中调用
+     */
+    public boolean shutdown(long timeoutMillis) {
+        return awaitFlush(true, timeoutMillis);
+    }
+
+    /**
+     * 请求写文件的线程强制刷新，等待调用之前放入队列的日志都被刷新.
+     *
+     * @param close         刷新后是否关闭所有写入器
+     * @param timeoutMillis 最多等待的毫秒数
+     * @return true - 完成
+     */
+    private boolean awaitFlush(boolean close, long timeoutMillis) {
+        if (Thread.currentThread() == mThread) {
+            return false; // 写文件的线程等待自己会死锁
+        }
+        long target = mAppended.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (mFlushLock) {
+            long closeCount = mCloseCount;
+            if (close) {
+                mCloseRequested = true;
+            }
+            while (mFlushed < target || (close && mCloseCount == closeCount)) {
+                long remain = deadline - System.nanoTime();
+                if (remain <= 0) {
+                    return false;
+                }
+                mFlushRequested = true;
+                LockSupport.unpark(mThread);
+                try {
+                    mFlushLock.wait(TimeUnit.NANOSECONDS.toMillis(remain) + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 尝试放入队列，条数或字节数超过上限时失败. 队列为空时总能放入，避免单条超大的日志永远写不进去.
+     *
+     * @param record 日志
+     * @return true - 放入成功
+     */
+    private boolean tryOffer(@NonNull LogRecord record) {
+        int weight = record.getWeight();
+        long queuedBytes = mQueuedBytes.addAndGet(weight);
+        if ((queuedBytes > MAX_QUEUE_BYTES && queuedBytes != weight) || !mQueue.offer(record)) {
+            mQueuedBytes.addAndGet(-weight);
+            return false;
+        }
+        mAppended.incrementAndGet();
+        mMetrics.onQueueDepth(mQueue.size());
+        return true;
+    }
+
+    /**
+     * 等待队列有空位后放入.
+     *
+     * @param record 日志
+     */
+    private void waitOffer(@NonNull LogRecord record) {
+        while (!tryOffer(record)) {
+            LockSupport.unpark(mThread);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * 丢弃日志并计数.
+     *
+     * @param record 日志
+     */
+    private void drop(@NonNull LogRecord record) {
+        FileTarget target = record.getTarget();
+        Drops drops = mDrops.get(target.getWriterKey());
+        if (drops == null) {
+            Drops created = new Drops();
+            drops = mDrops.putIfAbsent(target.getWriterKey(), created);
+            if (drops == null) {
+                drops = created;
+            }
+        }
+        drops.mTarget = target;
+        drops.mCount.incrementAndGet();
+        mMetrics.onDropped(record.getPriority());
+    }
+
+    private void loop() {
+        List<LogRecord> batch = new ArrayList<>();
+        long waitNanos = -1;
+        while (true) {
+            if (mQueue.drainTo(batch, MAX_DRAIN) == 0) {
+                park(waitNanos);
+                mQueue.drainTo(batch, MAX_DRAIN);
+            }
+            long start = System.nanoTime();
+            long weight = 0;
+            for (int i = 0, size = batch.size(); i < size; i++) {
+                LogRecord record = batch.get(i);
+                weight += record.getWeight();
+                writeRecord(record);
+            }
+            mQueuedBytes.addAndGet(-weight);
+            mProcessed.addAndGet(batch.size());
+            batch.clear();
+            boolean idle = mQueue.isEmpty();
+            if (idle) {
+                writeDrops();
+            }
+            waitNanos = flushIfNeeded(idle);
+            if (weight > 0) {
+                mMetrics.onBatchWritten(System.nanoTime() - start);
+            }
+            if (mFlushRequested) {
+                mFlushRequested = false;
+                flushAll();
+            }
+        }
+    }
+
+    /**
+     * 强制刷新所有写入器，需要时关闭它们，再通知等待刷新的线程.
+     */
+    private void flushAll() {
+        long processed = mProcessed.get();
+        for (Map.Entry<SegmentWriter, FileTarget> entry : mTargets.entrySet()) {
+            SegmentWriter writer = entry.getKey();
+            if (writer.isDrained()) {
+                continue;
+            }
+            try {
+                flush(writer, entry.getValue(), true);
+            } catch (IOException | RuntimeException e) {
+                LogUtils.logError(TAG, "刷新日志异常", e);
+                writer.close();
+            }
+        }
+        boolean closed = mCloseRequested;
+        try {
+            if (closed) {
+                mCloseRequested = false;
+                for (SegmentWriter writer : mWriters.values()) {
+                    writer.close();
+                }
+                mWriters.clear();
+                mTargets.clear();
+            }
+        } finally {
+            synchronized (mFlushLock) {
+                mFlushed = processed;
+                if (closed) {
+                    mCloseCount++;
+                }
+                mFlushLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 队列清空后，把丢弃的条数写入对应的文件中.
+     */
+    private void writeDrops() {
+        if (mDrops.isEmpty()) {
+            return;
+        }
+        for (Drops drops : mDrops.values()) {
+            long count = drops.mCount.getAndSet(0);
+            if (count > 0) {
+                writeRecord(new LogRecord(drops.mTarget, LogPriority.WARN,
+                        count + " records dropped", DROP_ELEMENT, THREAD_NAME,
+                        Platform.getClock().currentTimeMillis()));
+            }
+        }
+    }
+
+    /**
+     * 队列为空时休眠，直到有新日志或者到达下一次刷新的时间.
+     *
+     * @param waitNanos 最多休眠的纳秒数，-1表示一直休眠
+     */
+    private void park(long waitNanos) {
+        mParked = true;
+        if (mQueue.isEmpty()) {
+            if (waitNanos < 0) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, waitNanos);
+            }
+        }
+        mParked = false;
+    }
+
+    /**
+     * 格式化并写入一条日志，未刷新的条数或字符数达到上限时立即刷新.
+     *
+     * @param record 日志
+     */
+    private void writeRecord(@NonNull LogRecord record) {
+        FileTarget target = record.getTarget();
+        SegmentWriter writer = null;
+        try {
+            writer = obtainWriter(target);
+            mTargets.put(writer, target);
+            mBuffer.setLength(0);
+            record.appendTo(mBuffer);
+            String content = mBuffer.toString();
+            writer.write(target.getDeviceInfo(),
+                    target.getSegmentClock().getFileName(record.getMillis()), content,
+                    record.getMillis(), record.getPriority());
+            mMetrics.onWritten(IOUtils.utf8Length(content));
+            if (writer.getPendingCount() >= target.getBatchSize()
+                    || writer.getPendingChars() >= MAX_PENDING_CHARS) {
+                flush(writer, target, false);
+            }
+        } catch (Throwable t) { // 布局或写入器的任何异常都不能让写文件的线程退出
+            LogUtils.logError(TAG, "写日志异常", t);
+            if (writer != null) {
+                writer.close(); // 下次写入时重新打开
+            }
+        }
+    }
+
+    /**
+     * 获取输出目标对应的写入器，写入方式改变时关闭原来的写入器，压缩级别和索引设置改变时更新写入器.
+     *
+     * @param target 输出目标
+     * @return 写入器
+     */
+    private SegmentWriter obtainWriter(@NonNull FileTarget target) {
+        SegmentWriter writer = mWriters.get(target.getWriterKey());
+        if (writer != null && writer.getWriteMode() != target.getWriteMode()) {
+            writer.close();
+            mTargets.remove(writer);
+            writer = null;
+        }
+        if (writer == null) {
+            SegmentClock clock = target.getSegmentClock();
+            switch (target.getWriteMode()) {
+                case WriteMode.MMAP:
+                    String prefix = clock.getLogPrefix();
+                    String cacheName = "." + (prefix == null || prefix.isEmpty() ? "jlog" : prefix)
+                            + MmapWriter.MMAP_EXT;
+                    writer = new MmapWriter(clock.getDirPath(), cacheName,
+                            MmapWriter.DEFAULT_SIZE);
+                    break;
+                case WriteMode.GZIP:
+                    writer = new GzipWriter(clock.getDirPath(), target.getCompressionLevel());
+                    break;
+                case WriteMode.STREAM:
+                default:
+                    writer = new SegmentWriter(clock.getDirPath());
+                    break;
+            }
+            mWriters.put(target.getWriterKey(), writer);
+        } else if (writer instanceof GzipWriter) {
+            ((GzipWriter) writer).setLevel(target.getCompressionLevel());
+        }
+        if (writer.getWriteMode() == WriteMode.STREAM) {
+            writer.setIndexParser(target.getRecordParser());
+        }
+        return writer;
+    }
+
+    /**
+     * 一批日志写完后，按刷新策略和linger时间刷新各个写入器，关闭空闲的写入器.
+     *
+     * @param idle 队列中是否已经没有日志
+     * @return 距离下一次需要刷新或关闭写入器的纳秒数，-1表示没有打开的写入器
+     */
+    private long flushIfNeeded(boolean idle) {
+        long now = System.nanoTime();
+        long waitNanos = -1;
+        Iterator<Map.Entry<SegmentWriter, FileTarget>> iterator = mTargets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<SegmentWriter, FileTarget> entry = iterator.next();
+            SegmentWriter writer = entry.getKey();
+            FileTarget target = entry.getValue();
+            long lingerNanos = TimeUnit.MILLISECONDS.toNanos(target.getLingerMillis());
+            long deadline;
+            if (writer.getPendingCount() == 0) {
+                deadline = writer.getLastWriteNanos() + Math.max(lingerNanos * IDLE_LINGERS,
+                        TimeUnit.MILLISECONDS.toNanos(MIN_IDLE_MILLIS));
+                if (now - deadline >= 0) {
+                    closeWriter(writer, target);
+                    iterator.remove();
+                    continue;
+                }
+            } else {
+                deadline = writer.getFirstPendingNanos() + lingerNanos;
+                @FlushPolicy int flushPolicy = target.getFlushPolicy();
+                if (flushPolicy == FlushPolicy.EVERY_RECORD
+                        || (flushPolicy == FlushPolicy.WHEN_IDLE && idle) || now - deadline >= 0) {
+                    try {
+                        flush(writer, target, false);
+                    } catch (IOException | RuntimeException e) {
+                        LogUtils.logError(TAG, "刷新日志异常", e);
+                        writer.close();
+                    }
+                    continue;
+                }
+            }
+            long remain = deadline - now;
+            waitNanos = waitNanos < 0 ? remain : Math.min(waitNanos, remain);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * 关闭空闲的写入器，写入器缓存的内容也写入日志文件.
+     *
+     * @param writer 写入器
+     * @param target 输出目标
+     */
+    private void closeWriter(@NonNull SegmentWriter writer, @NonNull FileTarget target) {
+        if (!writer.isDrained()) {
+            try {
+                flush(writer, target, true);
+            } catch (IOException | RuntimeException e) {
+                LogUtils.logError(TAG, "刷新日志异常", e);
+            }
+        }
+        writer.close();
+        if (mWriters.get(target.getWriterKey()) == writer) {
+            mWriters.remove(target.getWriterKey());
+        }
+    }
+
+    /**
+     * 刷新写入器，再按输出目标的保留策略清理日志目录.
+     *
+     * @param writer 写入器
+     * @param target 输出目标
+     * @param drain  是否显式刷新，写入器缓存的内容也要写入日志文件
+     * @throws IOException 刷新失败
+     */
+    private void flush(@NonNull SegmentWriter writer, @NonNull FileTarget target, boolean drain)
+            throws IOException {
+        if (drain) {
+            writer.drain();
+        } else {
+            writer.flush();
+        }
+        File file = writer.getFile();
+        if (file == null || (target.getMaxLogSize() <= 0 && target.getMaxLogAge() <= 0)) {
+            return;
+        }
+        RetentionManager retention = mRetentions.get(writer.getDirPath());
+        if (retention == null) {
+            retention = new RetentionManager(writer.getDirPath());
+            mRetentions.put(writer.getDirPath(), retention);
+        }
+        retention.update(target.getWriterKey(), file, target.getMaxLogSize(),
+                target.getMaxLogAge());
+    }
+
+    /**
+     * 某个文件被丢弃的日志.
+     */
+    private static final class Drops {
+        /** 被丢弃的条数. */
+        private final AtomicLong mCount = new AtomicLong();
+        /** 最近一次丢弃的日志的输出目标. */
+        private volatile FileTarget mTarget;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.FlushPolicy;
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.constant.LogSegment;
+import com.jiongbull.jlog.constant.OverflowPolicy;
+import com.jiongbull.jlog.constant.WriteMode;
+import com.jiongbull.jlog.platform.DeviceInfo;
+import com.jiongbull.jlog.platform.Platform;
+import com.jiongbull.jlog.util.RecordLayout;
+import com.jiongbull.jlog.util.RecordParser;
+import com.jiongbull.jlog.util.TimeFormatter;
+import com.jiongbull.jlog.util.TimeUtils;
+
+import java.io.File;
+import java.util.zip.Deflater;
+
+/**
+ * 日志文件的输出目标，包含写文件需要的全部配置.
+ *
+ * <p>创建后不可修改，Logger的配置改变时整体替换. 不使用Logger时可以用{@link Builder}创建，
+ * 没有设置的参数使用DEFAULT_开头的常量，Logger的默认配置也使用这些常量.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class FileTarget {
+
+    /** 默认的日志目录. */
+    public static final String DEFAULT_LOG_DIR = "jlog";
+    /** 默认的日志文件前缀. */
+    public static final String DEFAULT_LOG_PREFIX = "";
+    /** 默认的日志切片. */
+    @LogSegment
+    public static final int DEFAULT_LOG_SEGMENT = LogSegment.TWENTY_FOUR_HOURS;
+    /** 默认的时区偏移. */
+    @TimeUtils.ZoneOffset
+    public static final long DEFAULT_ZONE_OFFSET = TimeUtils.ZoneOffset.P0800;
+    /** 默认的时间格式. */
+    public static final String DEFAULT_TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    /** 默认的文件日志布局. */
+    public static final String DEFAULT_LAYOUT = RecordLayout.DEFAULT_FILE_PATTERN;
+    /** 默认的写入方式. */
+    @WriteMode
+    public static final int DEFAULT_WRITE_MODE = WriteMode.STREAM;
+    /** 默认的刷新策略. */
+    @FlushPolicy
+    public static final int DEFAULT_FLUSH_POLICY = FlushPolicy.EVERY_RECORD;
+    /** 默认累积多少条日志后刷新. */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    /** 默认日志在缓冲区中最多停留的时间，单位毫秒. */
+    public static final long DEFAULT_LINGER_MILLIS = 1000L;
+    /** 默认的队列已满时的处理策略. */
+    @OverflowPolicy
+    public static final int DEFAULT_OVERFLOW_POLICY = OverflowPolicy.BLOCK;
+    /** 默认的{@link OverflowPolicy#DROP_BELOW_LEVEL}的优先级. */
+    @LogPriority
+    public static final int DEFAULT_OVERFLOW_LEVEL = LogPriority.WARN;
+    /** 默认的压缩级别. */
+    public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+    /** 写在新文件开头的设备信息. */
+    private final DeviceInfo mDeviceInfo;
+    /** 日志切片时钟. */
+    private final SegmentClock mSegmentClock;
+    /** 时间格式化器. */
+    private final TimeFormatter mTimeFormatter;
+    /** 文件的日志布局. */
+    private final RecordLayout mLayout;
+    /** 写入方式. */
+    @WriteMode
+    private final int mWriteMode;
+    /** 刷新策略. */
+    @FlushPolicy
+    private final int mFlushPolicy;
+    /** 累积多少条日志后刷新. */
+    private final int mBatchSize;
+    /** 日志在缓冲区中最多停留的时间，单位毫秒. */
+    private final long mLingerMillis;
+    /** 队列已满时的处理策略. */
+    @OverflowPolicy
+    private final int mOverflowPolicy;
+    /** {@link OverflowPolicy#DROP_BELOW_LEVEL}时，低于该优先级的日志会被丢弃. */
+    @LogPriority
+    private final int mOverflowLevel;
+    /** 压缩级别. */
+    private final int mCompressionLevel;
+    /** 日志文件的总大小上限，单位byte，0表示不限制. */
+    private final long mMaxLogSize;
+    /** 日志文件的最长保留时间，单位毫秒，0表示不限制. */
+    private final long mMaxLogAge;
+    /** 是否写入索引. */
+    private final boolean mIndexEnabled;
+    /** 重建索引使用的解析器，不写索引时为null. */
+    private final RecordParser mRecordParser;
+    /** 写入器的键. */
+    private final String mWriterKey;
+
+    /**
+     * 创建输出目标.
+     *
+     * @param deviceInfo       写在新文件开头的设备信息
+     * @param segmentClock     日志切片时钟
+     * @param timeFormatter    时间格式化器
+     * @param layout           文件的日志布局
+     * @param writeMode        写入方式
+     * @param flushPolicy      刷新策略
+     * @param batchSize        累积多少条日志后刷新
+     * @param lingerMillis     日志在缓冲区中最多停留的时间，单位毫秒
+     * @param overflowPolicy   队列已满时的处理策略
+     * @param overflowLevel    {@link OverflowPolicy#DROP_BELOW_LEVEL}时，低于该优先级的日志会被丢弃
+     * @param compressionLevel 压缩级别，0-9，见{@link java.util.zip.Deflater}
+     * @param maxLogSize       日志文件的总大小上限，单位byte，0表示不限制
+     * @param maxLogAge        日志文件的最长保留时间，单位毫秒，0表示不限制
+     * @param indexEnabled     是否写入索引
+     */
+    public FileTarget(@NonNull DeviceInfo deviceInfo, @NonNull SegmentClock segmentClock,
+            @NonNull TimeFormatter timeFormatter, @NonNull RecordLayout layout,
+            @WriteMode int writeMode, @FlushPolicy int flushPolicy, int batchSize,
+            long lingerMillis, @OverflowPolicy int overflowPolicy,
+            @LogPriority int overflowLevel, int compressionLevel, long maxLogSize,
+            long maxLogAge, boolean indexEnabled) {
+        mDeviceInfo = deviceInfo;
+        mSegmentClock = segmentClock;
+        mTimeFormatter = timeFormatter;
+        mLayout = layout;
+        mWriteMode = writeMode;
+        mFlushPolicy = flushPolicy;
+        mBatchSize = batchSize;
+        mLingerMillis = lingerMillis;
+        mOverflowPolicy = overflowPolicy;
+        mOverflowLevel = overflowLevel;
+        mCompressionLevel = compressionLevel;
+        mMaxLogSize = maxLogSize;
+        mMaxLogAge = maxLogAge;
+        mIndexEnabled = indexEnabled;
+        mRecordParser = indexEnabled ? new RecordParser(layout, timeFormatter.getPattern(),
+                timeFormatter.getZoneOffset()) : null;
+        mWriterKey = segmentClock.getDirPath() + File.pathSeparator
+                + segmentClock.getLogPrefix();
+    }
+
+    public DeviceInfo getDeviceInfo() {
+        return mDeviceInfo;
+    }
+
+    public SegmentClock getSegmentClock() {
+        return mSegmentClock;
+    }
+
+    public TimeFormatter getTimeFormatter() {
+        return mTimeFormatter;
+    }
+
+    public RecordLayout getLayout() {
+        return mLayout;
+    }
+
+    @WriteMode
+    public int getWriteMode() {
+        return mWriteMode;
+    }
+
+    @FlushPolicy
+    public int getFlushPolicy() {
+        return mFlushPolicy;
+    }
+
+    public int getBatchSize() {
+        return mBatchSize;
+    }
+
+    public long getLingerMillis() {
+        return mLingerMillis;
+    }
+
+    @OverflowPolicy
+    public int getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    @LogPriority
+    public int getOverflowLevel() {
+        return mOverflowLevel;
+    }
+
+    public int getCompressionLevel() {
+        return mCompressionLevel;
+    }
+
+    public long getMaxLogSize() {
+        return mMaxLogSize;
+    }
+
+    public long getMaxLogAge() {
+        return mMaxLogAge;
+    }
+
+    public boolean isIndexEnabled() {
+        return mIndexEnabled;
+    }
+
+    /**
+     * 获取重建索引使用的解析器，非线程安全，只能在写日志的线程中使用.
+     *
+     * @return 解析器，不写索引时为null
+     */
+    public RecordParser getRecordParser() {
+        return mRecordParser;
+    }
+
+    /**
+     * 日志写入的文件所在的键，同一目录下同一前缀的日志共用一个写入器.
+     *
+     * @return 键
+     */
+    public String getWriterKey() {
+        return mWriterKey;
+    }
+
+    public static class Builder {
+        private DeviceInfo mDeviceInfo;
+        private String mLogDir;
+        private String mLogPrefix;
+        @LogSegment
+        private int mLogSegment;
+        @TimeUtils.ZoneOffset
+        private long mZoneOffset;
+        private String mTimeFormat;
+        private String mLayout;
+        @WriteMode
+        private int mWriteMode;
+        @FlushPolicy
+        private int mFlushPolicy;
+        private int mBatchSize;
+        private long mLingerMillis;
+        @OverflowPolicy
+        private int mOverflowPolicy;
+        @LogPriority
+        private int mOverflowLevel;
+        private int mCompressionLevel;
+        private long mMaxLogSize;
+        private long mMaxLogAge;
+        private boolean mIndexEnabled;
+
+        private Builder(String logDir) {
+            mLogDir = logDir;
+            mLogPrefix = DEFAULT_LOG_PREFIX;
+            mLogSegment = DEFAULT_LOG_SEGMENT;
+            mZoneOffset = DEFAULT_ZONE_OFFSET;
+            mTimeFormat = DEFAULT_TIME_FORMAT;
+            mLayout = DEFAULT_LAYOUT;
+            mWriteMode = DEFAULT_WRITE_MODE;
+            mFlushPolicy = DEFAULT_FLUSH_POLICY;
+            mBatchSize = DEFAULT_BATCH_SIZE;
+            mLingerMillis = DEFAULT_LINGER_MILLIS;
+            mOverflowPolicy = DEFAULT_OVERFLOW_POLICY;
+            mOverflowLevel = DEFAULT_OVERFLOW_LEVEL;
+            mCompressionLevel = DEFAULT_COMPRESSION_LEVEL;
+        }
+
+        /**
+         * 创建输出目标的构建器.
+         *
+         * @param logDir 日志目录，相对于{@link Platform#getStorageRoot()}
+         * @return 构建器
+         */
+        public static Builder newBuilder(@NonNull String logDir) {
+            return new Builder(logDir);
+        }
+
+        /**
+         * 设置写在新文件开头的设备信息，默认为{@link Platform#getDeviceInfo()}.
+         *
+         * @param deviceInfo 设备信息
+         * @return 构建器
+         */
+        public Builder setDeviceInfo(@NonNull DeviceInfo deviceInfo) {
+            mDeviceInfo = deviceInfo;
+            return this;
+        }
+
+        public Builder setLogPrefix(String logPrefix) {
+            mLogPrefix = logPrefix;
+            return this;
+        }
+
+        public Builder setLogSegment(@LogSegment int logSegment) {
+            mLogSegment = logSegment;
+            return this;
+        }
+
+        public Builder setZoneOffset(@TimeUtils.ZoneOffset long zoneOffset) {
+            mZoneOffset = zoneOffset;
+            return this;
+        }
+
+        public Builder setTimeFormat(@NonNull String timeFormat) {
+            mTimeFormat = timeFormat;
+            return this;
+        }
+
+        public Builder setLayout(@NonNull String layout) {
+            mLayout = layout;
+            return this;
+        }
+
+        public Builder setWriteMode(@WriteMode int writeMode) {
+            mWriteMode = writeMode;
+            return this;
+        }
+
+        public Builder setFlushPolicy(@FlushPolicy int flushPolicy) {
+            mFlushPolicy = flushPolicy;
+            return this;
+        }
+
+        public Builder setBatchSize(int batchSize) {
+            mBatchSize = batchSize;
+            return this;
+        }
+
+        public Builder setLingerMillis(long lingerMillis) {
+            mLingerMillis = lingerMillis;
+            return this;
+        }
+
+        public Builder setOverflowPolicy(@OverflowPolicy int overflowPolicy) {
+            mOverflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public Builder setOverflowLevel(@LogPriority int priority) {
+            mOverflowLevel = priority;
+            return this;
+        }
+
+        public Builder setCompressionLevel(int level) {
+            mCompressionLevel = level;
+            return this;
+        }
+
+        public Builder setMaxLogSize(long maxLogSize) {
+            mMaxLogSize = maxLogSize;
+            return this;
+        }
+
+        public Builder setMaxLogAge(long maxLogAge) {
+            mMaxLogAge = maxLogAge;
+            return this;
+        }
+
+        public Builder setIndexEnabled(boolean indexEnabled) {
+            mIndexEnabled = indexEnabled;
+            return this;
+        }
+
+        public FileTarget build() {
+            DeviceInfo deviceInfo = mDeviceInfo != null ? mDeviceInfo : Platform.getDeviceInfo();
+            return new FileTarget(deviceInfo,
+                    new SegmentClock(mLogDir, mLogPrefix, mLogSegment, mZoneOffset),
+                    new TimeFormatter(mTimeFormat, mZoneOffset), new RecordLayout(mLayout),
+                    mWriteMode, mFlushPolicy, mBatchSize, mLingerMillis, mOverflowPolicy,
+                    mOverflowLevel, mCompressionLevel, mMaxLogSize, mMaxLogAge, mIndexEnabled);
+        }
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.WriteMode;
+import com.jiongbull.jlog.platform.DeviceInfo;
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import okio.BufferedSink;
+
+/**
+ * 直接写入gzip压缩文件的写入器，文件名为时间切片的文件名加上“.gz”.
+ *
+ * <p>每次刷新都用{@link Deflater#SYNC_FLUSH}把已压缩的数据对齐到字节边界后写入文件，
+ * 当前成员压缩前超过{@link #MEMBER_SIZE}时改为结束该成员，之后的日志开始新的成员，
+ * 显式刷新({@link #drain()})和关闭时也会结束当前成员.
+ * 所以文件是多个gzip成员的拼接，gunzip和{@link java.util.zip.GZIPInputStream}都能直接读取.
+ * 不支持{@link Deflater#SYNC_FLUSH}时(Android API 19以下)，每次刷新都结束当前成员.</p>
+ *
+ * <p>进程崩溃时只会丢失最后一次刷新之后的日志，重新打开已有的文件时从末尾往前找到最后一个成员，
+ * 截掉最后一个同步点之后的数据，再补上结束块和尾部.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class GzipWriter extends SegmentWriter {
+
+    /** gzip成员的头部：魔数、deflate算法、无标志、无时间、无额外标志、未知系统. */
+    private static final byte[] GZIP_HEADER = {
+            (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    /** gzip成员尾部的长度：CRC32和原始长度. */
+    private static final int GZIP_TRAILER_SIZE = 8;
+    /** 成员压缩前的字节数超过该值时，在下次刷新时结束该成员. */
+    public static final int MEMBER_SIZE = 64 * 1024;
+    /** 从末尾往前查找成员头部时每次读取的字节数. */
+    private static final int SCAN_SIZE = 8 * 1024;
+    /** 恢复未结束的成员时最多读取的字节数. */
+    private static final int RECOVER_SIZE = 64 * MEMBER_SIZE;
+    /** {@link Deflater#SYNC_FLUSH}在输出末尾留下的空stored块. */
+    private static final byte[] SYNC_MARKER = {0, 0, (byte) 0xff, (byte) 0xff};
+    /** 空的最后一个deflate块，用来结束截断在同步点的成员. */
+    private static final byte[] FINAL_BLOCK = {3, 0};
+    /** 是否支持{@link Deflater#SYNC_FLUSH}，Android API 19才有带flush参数的deflate方法. */
+    private static final boolean SYNC_FLUSH_SUPPORTED = isSyncFlushSupported();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** 压缩级别. */
+    private int mLevel;
+    /** 刷新时是否使用{@link Deflater#SYNC_FLUSH}. */
+    private final boolean mSyncFlush;
+    private final CRC32 mCrc = new CRC32();
+    /** 压缩输出的缓冲区. */
+    private final byte[] mOutput = new byte[8 * 1024];
+    private Deflater mDeflater;
+    /** 当前成员是否已经开始. */
+    private boolean mInMember;
+    /** 当前成员压缩前的字节数. */
+    private long mMemberSize;
+
+    /**
+     * 创建写入器.
+     *
+     * @param dirPath 日志目录路径
+     * @param level   压缩级别，0-9，见{@link Deflater}
+     */
+    public GzipWriter(@NonNull String dirPath, int level) {
+        this(dirPath, level, SYNC_FLUSH_SUPPORTED);
+    }
+
+    /**
+     * 创建写入器.
+     *
+     * @param dirPath   日志目录路径
+     * @param level     压缩级别，0-9，见{@link Deflater}
+     * @param syncFlush 刷新时是否使用{@link Deflater#SYNC_FLUSH}，否则每次刷新都结束当前成员
+     */
+    GzipWriter(@NonNull String dirPath, int level, boolean syncFlush) {
+        super(dirPath);
+        mLevel = level;
+        mSyncFlush = syncFlush;
+    }
+
+    /**
+     * 设置压缩级别，从下一个gzip成员开始生效.
+     *
+     * @param level 压缩级别，0-9，见{@link Deflater}
+     */
+    public void setLevel(int level) {
+        mLevel = level;
+    }
+
+    @WriteMode
+    @Override
+    public int getWriteMode() {
+        return WriteMode.GZIP;
+    }
+
+    @Override
+    public void write(@NonNull DeviceInfo deviceInfo, @NonNull String fileName,
+            @NonNull String content) throws IOException {
+        BufferedSink sink = obtainSink(deviceInfo, fileName + FileUtils.GZIP_EXT);
+        deflate(sink, content.getBytes(UTF_8));
+        onWritten(content.length());
+    }
+
+    /**
+     * 同步刷新当前成员，当前成员压缩前超过{@link #MEMBER_SIZE}或者不支持同步刷新时结束该成员.
+     *
+     * @throws IOException 刷新失败
+     */
+    @Override
+    public void flush() throws IOException {
+        BufferedSink sink = getSink();
+        if (sink != null && mInMember) {
+            if (mSyncFlush && mMemberSize < MEMBER_SIZE) {
+                syncFlush(sink);
+            } else {
+                finishMember(sink);
+            }
+        }
+        super.flush();
+    }
+
+    /**
+     * 结束当前的gzip成员并刷新到文件中.
+     *
+     * @throws IOException 刷新失败
+     */
+    @Override
+    public void drain() throws IOException {
+        BufferedSink sink = getSink();
+        if (sink != null) {
+            finishMember(sink);
+        }
+        super.flush();
+    }
+
+    @Override
+    public boolean isDrained() {
+        return super.isDrained() && !mInMember;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (mDeflater != null) {
+            mDeflater.end();
+            mDeflater = null;
+        }
+    }
+
+    @Override
+    protected void onOpen(@NonNull DeviceInfo deviceInfo, @NonNull BufferedSink sink,
+            boolean isNew) throws IOException {
+        mInMember = false;
+        if (isNew || truncateIncompleteMember(getFile()) == 0) {
+            deflate(sink, deviceInfo.getHeader().getBytes(UTF_8));
+        }
+    }
+
+    @Override
+    protected void onClose(@NonNull BufferedSink sink) throws IOException {
+        finishMember(sink);
+    }
+
+    /**
+     * 压缩数据并写入，当前没有未结束的成员时先写入成员头部.
+     *
+     * @param sink  输出流
+     * @param bytes 待压缩的数据
+     * @throws IOException 写入失败
+     */
+    private void deflate(@NonNull BufferedSink sink, @NonNull byte[] bytes) throws IOException {
+        if (!mInMember) {
+            if (mDeflater == null) {
+                mDeflater = new Deflater(mLevel, true);
+            } else {
+                mDeflater.reset();
+                mDeflater.setLevel(mLevel);
+            }
+            mCrc.reset();
+            mMemberSize = 0;
+            sink.write(GZIP_HEADER);
+            mInMember = true;
+        }
+        mCrc.update(bytes, 0, bytes.length);
+        mMemberSize += bytes.length;
+        mDeflater.setInput(bytes);
+        while (!mDeflater.needsInput()) {
+            int count = mDeflater.deflate(mOutput);
+            if (count > 0) {
+                sink.write(mOutput, 0, count);
+            }
+        }
+    }
+
+    /**
+     * 把已压缩的数据对齐到字节边界后全部输出，成员保持未结束.
+     *
+     * @param sink 输出流
+     * @throws IOException 写入失败
+     */
+    private void syncFlush(@NonNull BufferedSink sink) throws IOException {
+        int count;
+        do {
+            count = mDeflater.deflate(mOutput, 0, mOutput.length, Deflater.SYNC_FLUSH);
+            if (count > 0) {
+                sink.write(mOutput, 0, count);
+            }
+        } while (count == mOutput.length);
+    }
+
+    /**
+     * 结束当前的gzip成员，写入剩余的压缩数据和尾部（CRC32和原始长度）.
+     *
+     * @param sink 输出流
+     * @throws IOException 写入失败
+     */
+    private void finishMember(@NonNull BufferedSink sink) throws IOException {
+        if (!mInMember) {
+            return;
+        }
+        mDeflater.finish();
+        while (!mDeflater.finished()) {
+            int count = mDeflater.deflate(mOutput);
+            if (count > 0) {
+                sink.write(mOutput, 0, count);
+            }
+        }
+        sink.writeIntLe((int) mCrc.getValue());
+        sink.writeIntLe((int) mMemberSize);
+        mInMember = false;
+    }
+
+    /**
+     * 修复文件末尾不完整的gzip成员，比如进程崩溃时只写了一半的成员，否则之后追加的成员无法读取.
+     *
+     * <p>从末尾往前查找成员头部，第一个能完整解压且尾部校验通过的成员就是最后一个完整的成员，
+     * 未结束的成员保留到最后一个同步点并补上结束块和尾部，只需要读取文件末尾的一两个成员.</p>
+     *
+     * @param file gzip文件
+     * @return 修复后的文件长度，0表示没有可以保留的数据
+     * @throws IOException 读写失败
+     */
+    private static long truncateIncompleteMember(@NonNull File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        Inflater inflater = new Inflater(true);
+        try {
+            long length = raf.length();
+            long complete = 0;
+            byte[] chunk = new byte[SCAN_SIZE + GZIP_HEADER.length - 1];
+            long pos = length;
+            search:
+            while (pos > 0) {
+                long start = Math.max(0, pos - SCAN_SIZE);
+                int count = (int) Math.min(chunk.length, length - start);
+                raf.seek(start);
+                raf.readFully(chunk, 0, count);
+                for (int i = (int) (pos - start) - 1; i >= 0; i--) {
+                    if (!isHeader(chunk, i, count)) {
+                        continue;
+                    }
+                    long end = getMemberEnd(raf, start + i, length, inflater);
+                    if (end == -1) {
+                        end = finishSyncedMember(raf, start + i, length, inflater);
+                    }
+                    if (end != -1) {
+                        complete = end;
+                        break search;
+                    }
+                }
+                pos = start;
+            }
+            if (complete != raf.length()) {
+                raf.setLength(complete);
+            }
+            return complete;
+        } finally {
+            inflater.end();
+            IOUtils.closeQuietly(raf);
+        }
+    }
+
+    /**
+     * 数据中指定位置开始的是否是本类写入的成员头部.
+     *
+     * @param data   数据
+     * @param offset 开始位置
+     * @param count  数据的有效长度
+     * @return true - 是成员头部
+     */
+    private static boolean isHeader(@NonNull byte[] data, int offset, int count) {
+        if (offset + GZIP_HEADER.length > count) {
+            return false;
+        }
+        for (int i = 0; i < GZIP_HEADER.length; i++) {
+            if (data[offset + i] != GZIP_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解压指定位置开始的成员，并校验尾部的CRC32和原始长度.
+     *
+     * @param raf      gzip文件
+     * @param offset   成员头部的位置
+     * @param length   文件长度
+     * @param inflater 解压器
+     * @return 成员结束的位置，成员不完整或者校验失败时返回-1
+     * @throws IOException 读取失败
+     */
+    private static long getMemberEnd(@NonNull RandomAccessFile raf, long offset, long length,
+            @NonNull Inflater inflater) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] input = new byte[8 * 1024];
+        byte[] output = new byte[8 * 1024];
+        inflater.reset();
+        raf.seek(offset + GZIP_HEADER.length);
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    int count = raf.read(input);
+                    if (count == -1) {
+                        return -1;
+                    }
+                    inflater.setInput(input, 0, count);
+                }
+                int count = inflater.inflate(output);
+                crc.update(output, 0, count);
+            }
+        } catch (DataFormatException e) {
+            return -1;
+        }
+        long trailer = offset + GZIP_HEADER.length + inflater.getBytesRead();
+        if (trailer + GZIP_TRAILER_SIZE > length) {
+            return -1;
+        }
+        raf.seek(trailer);
+        if (Integer.reverseBytes(raf.readInt()) != (int) crc.getValue()
+                || Integer.reverseBytes(raf.readInt()) != (int) inflater.getBytesWritten()) {
+            return -1;
+        }
+        return trailer + GZIP_TRAILER_SIZE;
+    }
+
+    /**
+     * 把指定位置开始的未结束成员截到最后一个能解压的同步点，再写入结束块和尾部.
+     *
+     * @param raf      gzip文件
+     * @param offset   成员头部的位置
+     * @param length   文件长度
+     * @param inflater 解压器
+     * @return 成员结束的位置，没有能解压的同步点时返回-1
+     * @throws IOException 读写失败
+     */
+    private static long finishSyncedMember(@NonNull RandomAccessFile raf, long offset,
+            long length, @NonNull Inflater inflater) throws IOException {
+        long start = offset + GZIP_HEADER.length;
+        if (length - start > RECOVER_SIZE) {
+            return -1;
+        }
+        byte[] data = new byte[(int) (length - start)];
+        raf.seek(start);
+        raf.readFully(data);
+        CRC32 crc = new CRC32();
+        for (int end = lastSyncMarker(data, data.length); end != -1;
+                end = lastSyncMarker(data, end - 1)) {
+            if (!inflateSynced(data, end, inflater, crc)) {
+                continue;
+            }
+            raf.seek(start + end);
+            raf.write(FINAL_BLOCK);
+            raf.writeInt(Integer.reverseBytes((int) crc.getValue()));
+            raf.writeInt(Integer.reverseBytes((int) inflater.getBytesWritten()));
+            return raf.getFilePointer();
+        }
+        return -1;
+    }
+
+    /**
+     * 查找数据中最后一个同步点.
+     *
+     * @param data  数据
+     * @param count 查找范围的长度
+     * @return 同步点标记结束的位置，没有时返回-1
+     */
+    private static int lastSyncMarker(@NonNull byte[] data, int count) {
+        search:
+        for (int end = count; end >= SYNC_MARKER.length; end--) {
+            for (int i = 0; i < SYNC_MARKER.length; i++) {
+                if (data[end - SYNC_MARKER.length + i] != SYNC_MARKER[i]) {
+                    continue search;
+                }
+            }
+            return end;
+        }
+        return -1;
+    }
+
+    /**
+     * 解压截到同步点的数据加上结束块，计算原始数据的CRC32.
+     *
+     * @param data     成员头部之后的数据
+     * @param count    截到同步点的长度
+     * @param inflater 解压器，之后可以取到原始长度
+     * @param crc      原始数据的CRC32
+     * @return true - 同步点有效，数据加上结束块正好是完整的deflate流
+     */
+    private static boolean inflateSynced(@NonNull byte[] data, int count,
+            @NonNull Inflater inflater, @NonNull CRC32 crc) {
+        byte[] output = new byte[8 * 1024];
+        boolean finalBlock = false;
+        inflater.reset();
+        inflater.setInput(data, 0, count);
+        crc.reset();
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (finalBlock) {
+                        return false;
+                    }
+                    inflater.setInput(FINAL_BLOCK);
+                    finalBlock = true;
+                } else if (inflater.needsDictionary()) {
+                    return false;
+                }
+                int n = inflater.inflate(output);
+                crc.update(output, 0, n);
+            }
+        } catch (DataFormatException e) {
+            return false;
+        }
+        return finalBlock && inflater.getRemaining() == 0;
+    }
+
+    /**
+     * 是否支持{@link Deflater#SYNC_FLUSH}.
+     *
+     * @return true - 有带flush参数的deflate方法
+     */
+    private static boolean isSyncFlushSupported() {
+        try {
+            Deflater.class.getMethod("deflate", byte[].class, int.class, int.class, int.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+
+/**
+ * 待写入文件的一条日志.
+ *
+ * <p>只保存原始信息，时间格式化和布局都在写文件的线程中完成.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class LogRecord {
+
+    /** 每条日志除信息以外大约占用的字节数. */
+    private static final int RECORD_OVERHEAD = 64;
+
+    /** 输出目标. */
+    private final FileTarget mTarget;
+    /** 优先级. */
+    @LogPriority
+    private final int mPriority;
+    /** 信息. */
+    private final String mMessage;
+    /** 堆栈元素. */
+    private final StackTraceElement mElement;
+    /** 打印日志的线程名. */
+    private final String mThreadName;
+    /** 打印日志时的UTC时间戳. */
+    private final long mMillis;
+    /** 在队列中大约占用的字节数. */
+    private final int mWeight;
+
+    /**
+     * 创建日志记录.
+     *
+     * @param target     输出目标
+     * @param priority   优先级
+     * @param message    信息
+     * @param element    堆栈元素
+     * @param threadName 打印日志的线程名
+     * @param millis     打印日志时的UTC时间戳
+     */
+    public LogRecord(@NonNull FileTarget target, @LogPriority int priority,
+            @NonNull String message, @NonNull StackTraceElement element,
+            @NonNull String threadName, long millis) {
+        mTarget = target;
+        mPriority = priority;
+        mMessage = message;
+        mElement = element;
+        mThreadName = threadName;
+        mMillis = millis;
+        mWeight = RECORD_OVERHEAD + message.length() * 2;
+    }
+
+    public FileTarget getTarget() {
+        return mTarget;
+    }
+
+    @LogPriority
+    public int getPriority() {
+        return mPriority;
+    }
+
+    public String getMessage() {
+        return mMessage;
+    }
+
+    public StackTraceElement getElement() {
+        return mElement;
+    }
+
+    public String getThreadName() {
+        return mThreadName;
+    }
+
+    public long getMillis() {
+        return mMillis;
+    }
+
+    /**
+     * 获取日志在队列中大约占用的字节数.
+     *
+     * @return 字节数
+     */
+    public int getWeight() {
+        return mWeight;
+    }
+
+    /**
+     * 按输出目标的布局把日志追加到sb中.
+     *
+     * @param sb 目标StringBuilder
+     */
+    public void appendTo(@NonNull StringBuilder sb) {
+        mTarget.getLayout().appendTo(sb, mMillis, mTarget.getTimeFormatter(), mPriority,
+                mMessage, mElement, mThreadName);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.WriteMode;
+import com.jiongbull.jlog.platform.DeviceInfo;
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import okio.BufferedSink;
+
+/**
+ * 使用内存映射缓存的日志文件写入器.
+ *
+ * <p>日志先写入日志目录下固定大小的缓存文件（内存映射），写入只是内存拷贝，
+ * 进程被杀或者native崩溃时数据仍由系统写回缓存文件，所以不受刷新策略的影响.
+ * 只有缓存写满、切换时间切片、显式刷新({@link #drain()})或关闭时，
+ * 才把缓存中的内容整体移到{@link com.jiongbull.jlog.util.LogUtils#genFileName}对应的日志文件中.
+ * 下次打开时会先恢复缓存文件中残留的日志.</p>
+ *
+ * <p>缓存文件的格式：魔数(4字节) + 数据长度(4字节) + 文件名长度(2字节) + 文件名，
+ * 头部共{@link #HEADER_SIZE}字节，之后是UTF-8编码的日志. 每条日志写完后才更新数据长度，
+ * 所以不会恢复出半条日志.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class MmapWriter extends SegmentWriter {
+
+    /** 缓存文件的默认大小. */
+    public static final int DEFAULT_SIZE = 256 * 1024;
+    /** 缓存文件的扩展名. */
+    public static final String MMAP_EXT = ".mmap";
+
+    private static final int MAGIC = 0x4A4C4F47;
+    private static final int LENGTH_OFFSET = 4;
+    private static final int NAME_LENGTH_OFFSET = 8;
+    private static final int NAME_OFFSET = 10;
+    private static final int HEADER_SIZE = 128;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** 缓存文件. */
+    private final File mCacheFile;
+    /** 缓存文件的大小. */
+    private final int mSize;
+    private final CharsetEncoder mEncoder = UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    /** 移动日志时使用的缓冲区. */
+    private final byte[] mCopyBuffer = new byte[8 * 1024];
+    private MappedByteBuffer mBuffer;
+    /** 缓存中的日志所属的文件名. */
+    private String mMappedName;
+    private DeviceInfo mDeviceInfo;
+
+    /**
+     * 创建写入器.
+     *
+     * @param dirPath   日志目录路径
+     * @param cacheName 缓存文件名
+     * @param size      缓存文件的大小
+     */
+    public MmapWriter(@NonNull String dirPath, @NonNull String cacheName, int size) {
+        super(dirPath);
+        mCacheFile = new File(dirPath, cacheName);
+        mSize = size;
+    }
+
+    @WriteMode
+    @Override
+    public int getWriteMode() {
+        return WriteMode.MMAP;
+    }
+
+    @Override
+    public void write(@NonNull DeviceInfo deviceInfo, @NonNull String fileName,
+            @NonNull String content) throws IOException {
+        mDeviceInfo = deviceInfo;
+        ensureMapped();
+        if (!fileName.equals(mMappedName)) {
+            moveToFile();
+            setMappedName(fileName);
+        }
+        if (!encode(content)) {
+            moveToFile();
+            if (!encode(content)) {
+                // 比整个缓存还大，直接写入日志文件
+                BufferedSink sink = obtainSink(deviceInfo, fileName);
+                sink.writeUtf8(content);
+                sink.flush();
+                return;
+            }
+        }
+        onWritten(content.length());
+    }
+
+    /**
+     * 缓存中的日志已经可以在崩溃后恢复，按刷新策略刷新时不再移到日志文件中.
+     */
+    @Override
+    public void flush() {
+        resetPending();
+    }
+
+    /**
+     * 把缓存中的日志移到日志文件中.
+     *
+     * @throws IOException 写入日志文件失败
+     */
+    @Override
+    public void drain() throws IOException {
+        moveToFile();
+    }
+
+    @Override
+    public boolean isDrained() {
+        return super.isDrained() && (mBuffer == null || mBuffer.position() <= HEADER_SIZE);
+    }
+
+    @Override
+    public void close() {
+        try {
+            moveToFile();
+        } catch (IOException e) {
+            // 留在缓存文件中，下次打开时恢复
+        }
+        mBuffer = null;
+        mMappedName = null;
+        super.close();
+    }
+
+    /**
+     * 映射缓存文件，并恢复上次残留的日志.
+     *
+     * @throws IOException 映射失败
+     */
+    private void ensureMapped() throws IOException {
+        if (mBuffer != null) {
+            return;
+        }
+        if (!FileUtils.createDir(getDirPath())) {
+            throw new IOException("create dir failed: " + getDirPath());
+        }
+        RandomAccessFile raf = new RandomAccessFile(mCacheFile, "rw");
+        try {
+            raf.setLength(mSize);
+            // 映射建立后关闭文件也不影响映射
+            mBuffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, mSize);
+        } finally {
+            IOUtils.closeQuietly(raf);
+        }
+        if (mBuffer.getInt(0) == MAGIC) {
+            int length = mBuffer.getInt(LENGTH_OFFSET);
+            int nameLength = mBuffer.getShort(NAME_LENGTH_OFFSET);
+            if (length > 0 && length <= mSize - HEADER_SIZE && nameLength > 0
+                    && nameLength <= HEADER_SIZE - NAME_OFFSET) {
+                byte[] name = new byte[nameLength];
+                mBuffer.position(NAME_OFFSET);
+                mBuffer.get(name);
+                mMappedName = new String(name, UTF_8);
+                mBuffer.position(HEADER_SIZE + length);
+                moveToFile();
+            }
+        }
+        mBuffer.putInt(0, MAGIC);
+        mBuffer.putInt(LENGTH_OFFSET, 0);
+        mBuffer.position(HEADER_SIZE);
+    }
+
+    /**
+     * 记录缓存中的日志所属的文件名.
+     *
+     * @param fileName 文件名
+     * @throws IOException 文件名过长
+     */
+    private void setMappedName(@NonNull String fileName) throws IOException {
+        byte[] name = fileName.getBytes(UTF_8);
+        if (name.length > HEADER_SIZE - NAME_OFFSET) {
+            throw new IOException("file name too long: " + fileName);
+        }
+        int position = mBuffer.position();
+        mBuffer.putShort(NAME_LENGTH_OFFSET, (short) name.length);
+        mBuffer.position(NAME_OFFSET);
+        mBuffer.put(name);
+        mBuffer.position(position);
+        mMappedName = fileName;
+    }
+
+    /**
+     * 把日志编码后写入缓存.
+     *
+     * @param content 日志
+     * @return true - 写入成功，false - 缓存剩余空间不足
+     */
+    private boolean encode(@NonNull String content) {
+        int start = mBuffer.position();
+        mEncoder.reset();
+        CoderResult result = mEncoder.encode(CharBuffer.wrap(content), mBuffer, true);
+        if (result.isUnderflow()) {
+            result = mEncoder.flush(mBuffer);
+        }
+        if (!result.isUnderflow()) {
+            mBuffer.position(start);
+            return false;
+        }
+        mBuffer.putInt(LENGTH_OFFSET, mBuffer.position() - HEADER_SIZE);
+        return true;
+    }
+
+    /**
+     * 把缓存中的日志追加到所属的日志文件中，然后清空缓存.
+     *
+     * @throws IOException 写入日志文件失败
+     */
+    private void moveToFile() throws IOException {
+        if (mBuffer == null) {
+            return;
+        }
+        int end = mBuffer.position();
+        if (end > HEADER_SIZE && mMappedName != null) {
+            BufferedSink sink = obtainSink(mDeviceInfo, mMappedName);
+            // 使用副本读取，写入失败时缓存保持原样
+            ByteBuffer src = mBuffer.duplicate();
+            src.position(HEADER_SIZE);
+            src.limit(end);
+            while (src.hasRemaining()) {
+                int count = Math.min(mCopyBuffer.length, src.remaining());
+                src.get(mCopyBuffer, 0, count);
+                sink.write(mCopyBuffer, 0, count);
+            }
+            sink.flush();
+        }
+        mBuffer.putInt(LENGTH_OFFSET, 0);
+        mBuffer.position(HEADER_SIZE);
+        resetPending();
+    }
+}
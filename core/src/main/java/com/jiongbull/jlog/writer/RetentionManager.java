@@ -0,0 +1,249 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.platform.Platform;
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.LogUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 日志目录的保留策略，总大小或文件的存在时间超过上限时，从最早的日志文件开始删除.
+ *
+ * <p>第一次使用时扫描一次目录，之后由写入器在每次刷新后更新当前文件的大小，不再重复遍历目录.
+ * 目录的修改时间改变（比如日志被压缩或清理）时重新扫描，最多每分钟检查一次.
+ * 正在写入的文件不会被删除. 非线程安全，只能在写日志的线程中使用.</p>
+ *
+ * <p>日志文件的大小包括它的索引和上传进度文件，删除日志文件时一起删除，
+ * 扫描时也会删除日志文件已经不存在的索引和上传进度文件.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RetentionManager {
+
+    /** 检查目录是否被修改、文件是否过期的间隔，单位毫秒. */
+    private static final long CHECK_INTERVAL = 60 * 1000L;
+
+    /** 日志目录. */
+    private final File mDir;
+    /** 目录下的日志文件，越早的越靠前. */
+    private final List<Entry> mEntries = new ArrayList<>();
+    /** 文件名和日志文件的对应关系. */
+    private final Map<String, Entry> mEntryMap = new HashMap<>();
+    /** 每个写入器正在写入的文件名. */
+    private final Map<String, String> mActive = new HashMap<>();
+    /** 日志文件的总大小，单位byte. */
+    private long mTotalBytes;
+    /** 是否已经扫描过目录. */
+    private boolean mScanned;
+    /** 最近一次扫描或修改后目录的修改时间. */
+    private long mDirModified;
+    /** 下次检查的时间. */
+    private long mNextCheckMillis;
+
+    public RetentionManager(@NonNull String dirPath) {
+        mDir = new File(dirPath);
+    }
+
+    /**
+     * 获取日志文件的总大小.
+     *
+     * @return 总大小，单位byte
+     */
+    public long getTotalBytes() {
+        return mTotalBytes;
+    }
+
+    /**
+     * 写入器刷新后更新当前文件的大小，再按保留策略删除旧文件.
+     *
+     * @param writerKey    写入器的键
+     * @param file         写入器正在写入的文件
+     * @param maxBytes     日志文件的总大小上限，单位byte，0表示不限制
+     * @param maxAgeMillis 日志文件的最长保留时间，单位毫秒，0表示不限制
+     */
+    public void update(@NonNull String writerKey, @NonNull File file, long maxBytes,
+            long maxAgeMillis) {
+        long now = Platform.getClock().currentTimeMillis();
+        boolean check = now >= mNextCheckMillis;
+        if (check) {
+            mNextCheckMillis = now + CHECK_INTERVAL;
+        }
+        if (!mScanned || (check && mDir.lastModified() != mDirModified)) {
+            scan();
+        }
+
+        String name = file.getName();
+        mActive.put(writerKey, name);
+        long length = getLength(file);
+        Entry entry = mEntryMap.get(name);
+        if (entry == null) {
+            entry = new Entry(name, length, now);
+            mEntries.add(entry);
+            mEntryMap.put(name, entry);
+            mTotalBytes += length;
+            mDirModified = mDir.lastModified();
+        } else {
+            mTotalBytes += length - entry.mLength;
+            entry.mLength = length;
+            entry.mModified = now;
+        }
+
+        boolean deleted = false;
+        if (check && maxAgeMillis > 0) {
+            long expire = now - maxAgeMillis;
+            for (int i = 0; i < mEntries.size(); ) {
+                Entry e = mEntries.get(i);
+                if (e.mModified < expire && !mActive.containsValue(e.mName)) {
+                    delete(i);
+                    deleted = true;
+                } else {
+                    i++;
+                }
+            }
+        }
+        if (maxBytes > 0) {
+            for (int i = 0; mTotalBytes > maxBytes && i < mEntries.size(); ) {
+                if (mActive.containsValue(mEntries.get(i).mName)) {
+                    i++;
+                } else {
+                    delete(i);
+                    deleted = true;
+                }
+            }
+        }
+        if (deleted) {
+            mDirModified = mDir.lastModified();
+        }
+    }
+
+    /**
+     * 扫描目录，重建日志文件的列表，每个文件只读取一次修改时间.
+     */
+    private void scan() {
+        mEntries.clear();
+        mEntryMap.clear();
+        mTotalBytes = 0;
+        mScanned = true;
+        mDirModified = mDir.lastModified();
+        File[] files = mDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (isLogFile(name) && file.isFile()) {
+                Entry entry = new Entry(name, getLength(file), file.lastModified());
+                mEntries.add(entry);
+                mEntryMap.put(name, entry);
+                mTotalBytes += entry.mLength;
+            } else {
+                String logName = getLogName(name);
+                if (logName != null && !new File(mDir, logName).exists()) {
+                    FileUtils.delete(file);
+                }
+            }
+        }
+        Collections.sort(mEntries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry e1, Entry e2) {
+                return e1.mModified < e2.mModified ? -1
+                        : (e1.mModified == e2.mModified ? 0 : 1);
+            }
+        });
+    }
+
+    /**
+     * 删除日志文件和它的索引、上传进度，删除失败的文件也不再计入，下次扫描时重新计算.
+     *
+     * @param index 在列表中的位置
+     */
+    private void delete(int index) {
+        Entry entry = mEntries.remove(index);
+        mEntryMap.remove(entry.mName);
+        mTotalBytes -= entry.mLength;
+        File file = new File(mDir, entry.mName);
+        FileUtils.delete(file);
+        FileUtils.delete(SegmentIndex.getIndexFile(file));
+        FileUtils.delete(FileUtils.getUploadFile(file));
+    }
+
+    /**
+     * 获取日志文件的大小，包括它的索引和上传进度文件.
+     *
+     * @param file 日志文件
+     * @return 大小，单位byte
+     */
+    private static long getLength(@NonNull File file) {
+        return file.length() + SegmentIndex.getIndexFile(file).length()
+                + FileUtils.getUploadFile(file).length();
+    }
+
+    /**
+     * 获取索引或上传进度文件所属的日志文件名.
+     *
+     * @param name 文件名
+     * @return 日志文件名，不是索引或上传进度文件时返回null
+     */
+    private static String getLogName(@NonNull String name) {
+        if (name.startsWith(".") && name.endsWith(FileUtils.UPLOAD_EXT)) {
+            name = name.substring(1, name.length() - FileUtils.UPLOAD_EXT.length());
+        } else if (!name.startsWith(".") && name.endsWith(FileUtils.INDEX_EXT)) {
+            name = name.substring(0, name.length() - FileUtils.INDEX_EXT.length());
+        } else {
+            return null;
+        }
+        return isLogFile(name) ? name : null;
+    }
+
+    /**
+     * 是否由jlog写入或压缩的日志文件，不包括隐藏的缓存文件.
+     *
+     * @param name 文件名
+     * @return true - 是日志文件
+     */
+    private static boolean isLogFile(@NonNull String name) {
+        return !name.startsWith(".") && (name.endsWith(LogUtils.LOG_EXT)
+                || name.endsWith(FileUtils.ZIP_EXT) || name.endsWith(FileUtils.GZIP_EXT));
+    }
+
+    /**
+     * 目录下的一个日志文件.
+     */
+    private static final class Entry {
+        private final String mName;
+        /** 文件大小，单位byte. */
+        private long mLength;
+        /** 最后修改时间. */
+        private long mModified;
+
+        private Entry(String name, long length, long modified) {
+            mName = name;
+            mLength = length;
+            mModified = modified;
+        }
+    }
+}
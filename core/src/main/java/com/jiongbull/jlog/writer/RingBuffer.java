@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁的有界环形队列，支持多个生产者和多个消费者.
+ *
+ * <p>每个槽位带一个序号，生产者和消费者只通过CAS争抢队尾和队头的位置，不会互相阻塞.
+ * 参考 http://www.1024cores.net/home/lock-free-algorithms/queues/bounded-mpmc-queue</p>
+ *
+ * @param <E> 元素类型
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RingBuffer<E> {
+
+    /** 容量减1，用于计算槽位. */
+    private final int mMask;
+    private final AtomicReferenceArray<E> mElements;
+    /** 每个槽位的序号，等于位置时可写，等于位置+1时可读. */
+    private final AtomicLongArray mSequences;
+    /** 下一个写入的位置. */
+    private final AtomicLong mTail = new AtomicLong();
+    /** 下一个读取的位置. */
+    private final AtomicLong mHead = new AtomicLong();
+
+    /**
+     * 创建环形队列.
+     *
+     * @param capacity 容量，会向上取整为2的幂
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        mMask = size - 1;
+        mElements = new AtomicReferenceArray<>(size);
+        mSequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            mSequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * 放入元素，队列已满时直接返回.
+     *
+     * @param e 元素
+     * @return true - 放入成功，false - 队列已满
+     */
+    public boolean offer(@NonNull E e) {
+        long pos = mTail.get();
+        while (true) {
+            int index = (int) pos & mMask;
+            long diff = mSequences.get(index) - pos;
+            if (diff == 0) {
+                if (mTail.compareAndSet(pos, pos + 1)) {
+                    mElements.lazySet(index, e);
+                    mSequences.lazySet(index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            pos = mTail.get();
+        }
+    }
+
+    /**
+     * 取出元素.
+     *
+     * @return 元素，队列为空时返回null
+     */
+    public E poll() {
+        long pos = mHead.get();
+        while (true) {
+            int index = (int) pos & mMask;
+            long diff = mSequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (mHead.compareAndSet(pos, pos + 1)) {
+                    E e = mElements.get(index);
+                    mElements.lazySet(index, null);
+                    mSequences.lazySet(index, pos + mMask + 1);
+                    return e;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+            pos = mHead.get();
+        }
+    }
+
+    /**
+     * 取出多个元素.
+     *
+     * @param c   存放元素的集合
+     * @param max 最多取出的个数
+     * @return 实际取出的个数
+     */
+    public int drainTo(@NonNull Collection<? super E> c, int max) {
+        int count = 0;
+        while (count < max) {
+            E e = poll();
+            if (e == null) {
+                break;
+            }
+            c.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 队列中的元素个数，并发修改时只是近似值.
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        long head = mHead.get();
+        long size = mTail.get() - head;
+        return size < 0 ? 0 : (int) Math.min(size, mMask + 1);
+    }
+
+    /**
+     * 队列是否为空，已经占位但还没写完的元素也算在内.
+     *
+     * @return true - 为空
+     */
+    public boolean isEmpty() {
+        return mHead.get() == mTail.get();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogSegment;
+import com.jiongbull.jlog.platform.Platform;
+import com.jiongbull.jlog.util.LogUtils;
+import com.jiongbull.jlog.util.TimeUtils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * 日志切片时钟.
+ *
+ * <p>计算一次当前切片的文件名，并记下下一个切片边界的时间戳，
+ * 在到达边界之前直接返回缓存的文件名，不再每行都生成Calendar和格式化日期.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class SegmentClock {
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    /** 日志目录的完整路径. */
+    private final String mDirPath;
+    /** 日志前缀. */
+    private final String mLogPrefix;
+    /** 日志切片. */
+    @LogSegment
+    private final int mLogSegment;
+    /** 时区偏移. */
+    @TimeUtils.ZoneOffset
+    private final long mZoneOffset;
+    /** 当前切片，多线程访问时整体替换. */
+    private volatile Segment mSegment;
+
+    /**
+     * 创建切片时钟.
+     *
+     * @param logDir     日志目录
+     * @param logPrefix  日志前缀
+     * @param logSegment 日志切片
+     * @param zoneOffset 时区偏移
+     */
+    public SegmentClock(@NonNull String logDir, String logPrefix, @LogSegment int logSegment,
+            @TimeUtils.ZoneOffset long zoneOffset) {
+        mDirPath = LogUtils.genDirPath(logDir);
+        mLogPrefix = logPrefix;
+        mLogSegment = logSegment;
+        mZoneOffset = zoneOffset;
+    }
+
+    public String getDirPath() {
+        return mDirPath;
+    }
+
+    public String getLogPrefix() {
+        return mLogPrefix;
+    }
+
+    /**
+     * 获取当前时间对应的日志文件名.
+     *
+     * @return 日志文件名
+     */
+    public String getFileName() {
+        return getFileName(Platform.getClock().currentTimeMillis());
+    }
+
+    /**
+     * 获取指定时间对应的日志文件名.
+     *
+     * @param millis UTC时间戳
+     * @return 日志文件名
+     */
+    public String getFileName(long millis) {
+        Segment segment = mSegment;
+        if (segment == null || millis < segment.mStartMillis || millis >= segment.mEndMillis) {
+            segment = computeSegment(millis);
+            mSegment = segment;
+        }
+        return segment.mFileName;
+    }
+
+    /**
+     * 生成指定时间对应的日志文件名，只按UTC时间加上时区偏移计算，不受设备夏令时的影响.
+     *
+     * @param logPrefix  日志前缀
+     * @param logSegment 日志切片
+     * @param zoneOffset 时区偏移
+     * @param millis     UTC时间戳
+     * @return 日志文件名
+     */
+    public static String genFileName(String logPrefix, @LogSegment int logSegment,
+            @TimeUtils.ZoneOffset long zoneOffset, long millis) {
+        long local = millis + zoneOffset;
+        long dayStart = local - floorMod(local, DAY_MILLIS);
+        int hour = (int) ((local - dayStart) / HOUR_MILLIS);
+        return formatFileName(logPrefix, logSegment, dayStart, hour - hour % logSegment);
+    }
+
+    /**
+     * 计算时间戳所在的切片.
+     *
+     * @param millis UTC时间戳
+     * @return 切片
+     */
+    private Segment computeSegment(long millis) {
+        long local = millis + mZoneOffset;
+        long dayStart = local - floorMod(local, DAY_MILLIS);
+        int hour = (int) ((local - dayStart) / HOUR_MILLIS);
+        int start = hour - hour % mLogSegment;
+        int end = start + mLogSegment;
+
+        String fileName = formatFileName(mLogPrefix, mLogSegment, dayStart, start);
+        long startMillis = dayStart + start * HOUR_MILLIS - mZoneOffset;
+        long endMillis = dayStart + end * HOUR_MILLIS - mZoneOffset;
+        return new Segment(fileName, startMillis, endMillis);
+    }
+
+    /**
+     * 生成切片的文件名.
+     *
+     * @param logPrefix  日志前缀
+     * @param logSegment 日志切片
+     * @param dayStart   目标时区当天0点，按UTC表示
+     * @param start      切片开始的小时
+     * @return 日志文件名
+     */
+    private static String formatFileName(String logPrefix, @LogSegment int logSegment,
+            long dayStart, int start) {
+        int end = start + logSegment;
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+        calendar.setTimeInMillis(dayStart);
+        StringBuilder sb = new StringBuilder(32);
+        if (logPrefix != null && !logPrefix.isEmpty()) {
+            sb.append(logPrefix).append('_');
+        }
+        sb.append(calendar.get(Calendar.YEAR)).append('-');
+        appendDoubleNum(sb, calendar.get(Calendar.MONTH) + 1);
+        sb.append('-');
+        appendDoubleNum(sb, calendar.get(Calendar.DAY_OF_MONTH));
+        if (logSegment != LogSegment.TWENTY_FOUR_HOURS) {
+            sb.append('_');
+            appendDoubleNum(sb, start);
+            appendDoubleNum(sb, end == 24 ? 0 : end);
+        }
+        sb.append(LogUtils.LOG_EXT);
+        return sb.toString();
+    }
+
+    private static long floorMod(long x, long y) {
+        long mod = x % y;
+        return mod < 0 ? mod + y : mod;
+    }
+
+    private static void appendDoubleNum(StringBuilder sb, int num) {
+        if (num < 10) {
+            sb.append('0');
+        }
+        sb.append(num);
+    }
+
+    /**
+     * 切片，包含文件名和起止时间.
+     */
+    private static final class Segment {
+        private final String mFileName;
+        /** 切片开始的UTC时间戳（包含）. */
+        private final long mStartMillis;
+        /** 切片结束的UTC时间戳（不包含）. */
+        private final long mEndMillis;
+
+        private Segment(String fileName, long startMillis, long endMillis) {
+            mFileName = fileName;
+            mStartMillis = startMillis;
+            mEndMillis = endMillis;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.IOUtils;
+import com.jiongbull.jlog.util.LevelUtils;
+import com.jiongbull.jlog.util.RecordParser;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+
+/**
+ * 日志文件的稀疏索引，和日志文件放在一起，文件名为日志文件名加上“.idx”.
+ *
+ * <p>日志按写入顺序分成大约{@link #BLOCK_SIZE}字节的块，每块记录起始位置、长度、时间范围和出现过的日志级别，
+ * 读取时可以跳过时间或级别不匹配的块，直接定位到需要的位置.
+ * 索引和日志文件不一致（比如进程崩溃时索引没有写完）时，保留有效的部分，剩下的部分从日志文件中重建.</p>
+ *
+ * <p>文件格式：魔数和版本号各4字节，之后每块32字节，依次为起始位置(8)、长度(4)、级别掩码(4)、最早和最晚的时间(各8).</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class SegmentIndex implements Closeable {
+
+    /** 每块的大小，超过后开始新的块. */
+    public static final int BLOCK_SIZE = 16 * 1024;
+
+    /** 魔数，“JLIX”. */
+    private static final int MAGIC = 0x4A4C4958;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int ENTRY_SIZE = 32;
+    /** 重建时每行最多解析的字节数，日志的第一行通常很短. */
+    private static final int MAX_LINE_BYTES = 4 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** 索引文件. */
+    private final File mFile;
+    /** 已经结束的块. */
+    private final List<Block> mBlocks = new ArrayList<>();
+    /** 写入索引的输出流，只读时为null. */
+    private BufferedSink mSink;
+
+    /** 当前块的起始位置，-1表示当前没有块. */
+    private long mBlockOffset = -1;
+    /** 当前块的结束位置. */
+    private long mBlockEnd;
+    /** 当前块的级别掩码. */
+    private int mBlockMask;
+    /** 当前块中最早的时间. */
+    private long mBlockMin;
+    /** 当前块中最晚的时间. */
+    private long mBlockMax;
+
+    private SegmentIndex(@NonNull File file) {
+        mFile = file;
+    }
+
+    /**
+     * 获取日志文件对应的索引文件.
+     *
+     * @param logFile 日志文件
+     * @return 索引文件
+     */
+    @NonNull
+    public static File getIndexFile(@NonNull File logFile) {
+        return new File(logFile.getParentFile(), logFile.getName() + FileUtils.INDEX_EXT);
+    }
+
+    /**
+     * 读取日志文件的索引，索引缺失或不完整的部分从日志文件中重建，但不写回索引文件.
+     *
+     * @param logFile 日志文件
+     * @param parser  日志解析器，为null时不完整的部分作为一个任意时间、任意级别的块
+     * @return 覆盖整个日志文件的索引
+     * @throws IOException 读取日志文件失败
+     */
+    @NonNull
+    public static SegmentIndex load(@NonNull File logFile, RecordParser parser)
+            throws IOException {
+        long logLength = logFile.length();
+        SegmentIndex index = new SegmentIndex(getIndexFile(logFile));
+        long end = index.readBlocks(logLength);
+        if (end < logLength) {
+            if (parser != null) {
+                index.scan(logFile, end, logLength, parser);
+            } else {
+                index.mBlocks.add(new Block(end, logLength - end, LevelUtils.MASK_ALL,
+                        Long.MIN_VALUE, Long.MAX_VALUE));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 打开日志文件的索引用于追加，索引缺失或不完整的部分从日志文件中重建并写回.
+     *
+     * @param logFile 日志文件
+     * @param parser  日志解析器
+     * @return 索引
+     * @throws IOException 读写失败
+     */
+    @NonNull
+    static SegmentIndex open(@NonNull File logFile, @NonNull RecordParser parser)
+            throws IOException {
+        long logLength = logFile.length();
+        SegmentIndex index = new SegmentIndex(getIndexFile(logFile));
+        long end = index.readBlocks(logLength);
+        int valid = index.mBlocks.size();
+        if (end < logLength) {
+            index.scan(logFile, end, logLength, parser);
+        }
+        if (index.mFile.length() == HEADER_SIZE + (long) valid * ENTRY_SIZE && valid > 0
+                && valid == index.mBlocks.size()) {
+            index.mSink = Okio.buffer(Okio.appendingSink(index.mFile));
+        } else {
+            index.mSink = Okio.buffer(Okio.sink(index.mFile));
+            index.mSink.writeInt(MAGIC);
+            index.mSink.writeInt(VERSION);
+            for (Block block : index.mBlocks) {
+                index.writeBlock(block);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 获取所有的块.
+     *
+     * @return 按位置排列的块，不可修改
+     */
+    @NonNull
+    public List<Block> getBlocks() {
+        return Collections.unmodifiableList(mBlocks);
+    }
+
+    /**
+     * 查找可能包含指定时间范围和级别的日志的块，相邻的块会合并.
+     *
+     * @param fromMillis 开始时间，UTC时间戳
+     * @param toMillis   结束时间，UTC时间戳
+     * @param levelMask  级别掩码，见{@link LevelUtils}
+     * @return 按位置排列的块
+     */
+    @NonNull
+    public List<Block> find(long fromMillis, long toMillis, int levelMask) {
+        List<Block> result = new ArrayList<>();
+        Block last = null;
+        for (Block block : mBlocks) {
+            if (block.mMaxMillis < fromMillis || block.mMinMillis > toMillis
+                    || (block.mLevelMask & levelMask) == 0) {
+                continue;
+            }
+            if (last != null && last.getEnd() == block.mOffset) {
+                last = new Block(last.mOffset, last.mLength + block.mLength,
+                        last.mLevelMask | block.mLevelMask,
+                        Math.min(last.mMinMillis, block.mMinMillis),
+                        Math.max(last.mMaxMillis, block.mMaxMillis));
+                result.set(result.size() - 1, last);
+            } else {
+                last = block;
+                result.add(block);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 添加一条日志，当前块超过{@link #BLOCK_SIZE}时先结束当前块.
+     *
+     * @param offset   日志在文件中的位置
+     * @param length   日志的字节数
+     * @param millis   日志的UTC时间戳，未知时为-1
+     * @param priority 日志的优先级，未知时为-1
+     * @throws IOException 写入索引失败
+     */
+    void add(long offset, long length, long millis, int priority) throws IOException {
+        if (mBlockOffset >= 0 && (mBlockEnd - mBlockOffset >= BLOCK_SIZE
+                || offset != mBlockEnd)) {
+            finishBlock();
+        }
+        if (mBlockOffset < 0) {
+            mBlockOffset = offset;
+            mBlockMask = 0;
+            mBlockMin = Long.MAX_VALUE;
+            mBlockMax = Long.MIN_VALUE;
+        }
+        mBlockEnd = offset + length;
+        mBlockMask |= priority < 0 ? LevelUtils.MASK_ALL : LevelUtils.mask(priority);
+        if (millis < 0) {
+            mBlockMin = Long.MIN_VALUE;
+            mBlockMax = Long.MAX_VALUE;
+        } else {
+            mBlockMin = Math.min(mBlockMin, millis);
+            mBlockMax = Math.max(mBlockMax, millis);
+        }
+    }
+
+    /**
+     * 把已经结束的块刷新到索引文件中，未结束的块在下次打开时从日志文件中重建.
+     *
+     * @throws IOException 刷新失败
+     */
+    void flush() throws IOException {
+        if (mSink != null) {
+            mSink.flush();
+        }
+    }
+
+    /**
+     * 结束当前块并关闭索引文件.
+     */
+    @Override
+    public void close() {
+        try {
+            finishBlock();
+        } catch (IOException e) {
+            // 没写完的块下次打开时重建
+        }
+        IOUtils.closeQuietly(mSink);
+        mSink = null;
+    }
+
+    /**
+     * 结束当前块，写入索引文件.
+     *
+     * @throws IOException 写入失败
+     */
+    private void finishBlock() throws IOException {
+        if (mBlockOffset < 0) {
+            return;
+        }
+        Block block = new Block(mBlockOffset, mBlockEnd - mBlockOffset, mBlockMask, mBlockMin,
+                mBlockMax);
+        mBlockOffset = -1;
+        mBlocks.add(block);
+        if (mSink != null) {
+            writeBlock(block);
+        }
+    }
+
+    private void writeBlock(@NonNull Block block) throws IOException {
+        mSink.writeLong(block.mOffset);
+        mSink.writeInt((int) block.mLength);
+        mSink.writeInt(block.mLevelMask);
+        mSink.writeLong(block.mMinMillis);
+        mSink.writeLong(block.mMaxMillis);
+    }
+
+    /**
+     * 读取索引文件中有效的块，遇到超出日志文件或顺序错误的块时停止.
+     *
+     * @param logLength 日志文件的长度
+     * @return 最后一个有效块的结束位置，没有有效的块时为0
+     */
+    private long readBlocks(long logLength) {
+        if (!mFile.isFile()) {
+            return 0;
+        }
+        long end = 0;
+        BufferedSource source = null;
+        try {
+            source = Okio.buffer(Okio.source(mFile));
+            if (source.readInt() != MAGIC || source.readInt() != VERSION) {
+                return 0;
+            }
+            while (source.request(ENTRY_SIZE)) {
+                long offset = source.readLong();
+                long length = source.readInt();
+                int levelMask = source.readInt();
+                long minMillis = source.readLong();
+                long maxMillis = source.readLong();
+                if (offset < end || length <= 0 || offset + length > logLength) {
+                    break;
+                }
+                mBlocks.add(new Block(offset, length, levelMask, minMillis, maxMillis));
+                end = offset + length;
+            }
+        } catch (IOException e) {
+            // 损坏的部分忽略，从日志文件中重建
+        } finally {
+            IOUtils.closeQuietly(source);
+        }
+        return end;
+    }
+
+    /**
+     * 扫描日志文件，按每条日志的第一行重建块.
+     *
+     * @param logFile 日志文件
+     * @param start   开始位置，必须是一条日志的开头
+     * @param end     结束位置
+     * @param parser  日志解析器
+     * @throws IOException 读取失败
+     */
+    private void scan(@NonNull File logFile, long start, long end,
+            @NonNull RecordParser parser) throws IOException {
+        InputStream in = new FileInputStream(logFile);
+        try {
+            long skipped = 0;
+            while (skipped < start) {
+                long n = in.skip(start - skipped);
+                if (n <= 0) {
+                    return;
+                }
+                skipped += n;
+            }
+            byte[] buffer = new byte[64 * 1024];
+            byte[] line = new byte[MAX_LINE_BYTES];
+            int lineLength = 0;
+            long lineStart = start;
+            long recordStart = -1;
+            long recordMillis = -1;
+            int recordPriority = -1;
+            long pos = start;
+            while (pos < end) {
+                int count = in.read(buffer, 0, (int) Math.min(buffer.length, end - pos));
+                if (count < 0) {
+                    end = pos;
+                    break;
+                }
+                for (int i = 0; i < count; i++, pos++) {
+                    byte b = buffer[i];
+                    if (b != '\n') {
+                        if (lineLength < line.length) {
+                            line[lineLength++] = b;
+                        }
+                        continue;
+                    }
+                    if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                        lineLength--;
+                    }
+                    if (parser.parse(new String(line, 0, lineLength, UTF_8))) {
+                        if (recordStart >= 0) {
+                            add(recordStart, lineStart - recordStart, recordMillis,
+                                    recordPriority);
+                        }
+                        recordStart = lineStart;
+                        recordMillis = parser.getMillis();
+                        recordPriority = parser.getPriority();
+                    }
+                    lineLength = 0;
+                    lineStart = pos + 1;
+                }
+            }
+            if (recordStart >= 0) {
+                add(recordStart, end - recordStart, recordMillis, recordPriority);
+            }
+            finishBlock();
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * 索引中的一块.
+     */
+    public static final class Block {
+        /** 在日志文件中的起始位置. */
+        private final long mOffset;
+        /** 字节数. */
+        private final long mLength;
+        /** 出现过的日志级别的掩码. */
+        private final int mLevelMask;
+        /** 最早的UTC时间戳，未知时为Long.MIN_VALUE. */
+        private final long mMinMillis;
+        /** 最晚的UTC时间戳，未知时为Long.MAX_VALUE. */
+        private final long mMaxMillis;
+
+        private Block(long offset, long length, int levelMask, long minMillis, long maxMillis) {
+            mOffset = offset;
+            mLength = length;
+            mLevelMask = levelMask;
+            mMinMillis = minMillis;
+            mMaxMillis = maxMillis;
+        }
+
+        public long getOffset() {
+            return mOffset;
+        }
+
+        public long getLength() {
+            return mLength;
+        }
+
+        public long getEnd() {
+            return mOffset + mLength;
+        }
+
+        public int getLevelMask() {
+            return mLevelMask;
+        }
+
+        public long getMinMillis() {
+            return mMinMillis;
+        }
+
+        public long getMaxMillis() {
+            return mMaxMillis;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.writer;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.constant.WriteMode;
+import com.jiongbull.jlog.platform.DeviceInfo;
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.IOUtils;
+import com.jiongbull.jlog.util.LogUtils;
+import com.jiongbull.jlog.util.RecordParser;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * 日志文件的写入器，同一目录下同一前缀的日志共用一个.
+ *
+ * <p>文件打开后一直保持，只有切换到新的时间切片（文件名改变）时才重新打开，
+ * 非线程安全，只能在写日志的线程中使用.</p>
+ */
+public class SegmentWriter implements Closeable {
+
+    private static final String TAG = "log";
+    /** 检查文件是否被删除的间隔，单位毫秒. */
+    private static final long CHECK_INTERVAL = 1000L;
+
+    /** 日志目录路径. */
+    private final String mDirPath;
+    /** 当前写入的文件名. */
+    private String mFileName;
+    /** 当前写入的文件. */
+    private File mFile;
+    private BufferedSink mSink;
+    /** 下次检查文件是否存在的时间. */
+    private long mNextCheckMillis;
+    /** 还未刷新的日志条数. */
+    private int mPendingCount;
+    /** 还未刷新的字符数. */
+    private long mPendingChars;
+    /** 第一条还未刷新的日志的写入时间，见{@link System#nanoTime()}. */
+    private long mFirstPendingNanos;
+    /** 最近一条日志的写入时间，见{@link System#nanoTime()}. */
+    private long mLastWriteNanos;
+    /** 重建索引使用的解析器，为null时不写索引. */
+    private RecordParser mIndexParser;
+    /** 当前文件的索引. */
+    private SegmentIndex mIndex;
+    /** 当前文件已写入的字节数，只在写索引时计算. */
+    private long mOffset;
+
+    public SegmentWriter(@NonNull String dirPath) {
+        mDirPath = dirPath;
+    }
+
+    /**
+     * 写入日志，文件名改变时切换到新文件.
+     *
+     * @param deviceInfo 设备信息
+     * @param fileName   文件名
+     * @param content    待写内容
+     * @throws IOException 写入失败
+     */
+    public void write(@NonNull DeviceInfo deviceInfo, @NonNull String fileName,
+            @NonNull String content) throws IOException {
+        obtainSink(deviceInfo, fileName).writeUtf8(content);
+        onWritten(content.length());
+    }
+
+    /**
+     * 写入日志并记录到索引中，文件名改变时切换到新文件.
+     *
+     * @param deviceInfo 设备信息
+     * @param fileName   文件名
+     * @param content    待写内容
+     * @param millis     日志的UTC时间戳
+     * @param priority   日志的优先级
+     * @throws IOException 写入失败
+     */
+    public void write(@NonNull DeviceInfo deviceInfo, @NonNull String fileName,
+            @NonNull String content, long millis, @LogPriority int priority)
+            throws IOException {
+        write(deviceInfo, fileName, content);
+        if (mIndex != null) {
+            long length = IOUtils.utf8Length(content);
+            try {
+                mIndex.add(mOffset, length, millis, priority);
+            } catch (IOException e) {
+                closeIndex(e);
+            }
+            mOffset += length;
+        }
+    }
+
+    public String getDirPath() {
+        return mDirPath;
+    }
+
+    /**
+     * 设置重建索引使用的解析器，下次打开文件时生效，只有{@link WriteMode#STREAM}支持索引.
+     *
+     * @param parser 日志解析器，为null时不写索引
+     */
+    public void setIndexParser(RecordParser parser) {
+        mIndexParser = parser;
+    }
+
+    /**
+     * 获取写入方式.
+     *
+     * @return {@link WriteMode}
+     */
+    @WriteMode
+    public int getWriteMode() {
+        return WriteMode.STREAM;
+    }
+
+    /**
+     * 获取当前打开的文件.
+     *
+     * @return 文件，未打开时为null
+     */
+    protected File getFile() {
+        return mFile;
+    }
+
+    /**
+     * 获取当前打开的输出流.
+     *
+     * @return 输出流，未打开时为null
+     */
+    protected BufferedSink getSink() {
+        return mSink;
+    }
+
+    /**
+     * 获取文件名对应的输出流，文件名改变或文件被删除时重新打开.
+     *
+     * @param deviceInfo 设备信息
+     * @param fileName   文件名
+     * @return 输出流
+     * @throws IOException 打开失败
+     */
+    protected BufferedSink obtainSink(@NonNull DeviceInfo deviceInfo, @NonNull String fileName)
+            throws IOException {
+        if (mSink == null || !fileName.equals(mFileName) || isFileMissing()) {
+            open(deviceInfo, fileName);
+        }
+        return mSink;
+    }
+
+    /**
+     * 记录一条还未刷新的日志.
+     *
+     * @param chars 日志的字符数
+     */
+    protected void onWritten(int chars) {
+        long now = System.nanoTime();
+        if (mPendingCount == 0) {
+            mFirstPendingNanos = now;
+        }
+        mLastWriteNanos = now;
+        mPendingCount++;
+        mPendingChars += chars;
+    }
+
+    /**
+     * 清空还未刷新的日志计数.
+     */
+    protected void resetPending() {
+        mPendingCount = 0;
+        mPendingChars = 0;
+    }
+
+    /**
+     * 获取还未刷新的日志条数.
+     *
+     * @return 条数
+     */
+    public int getPendingCount() {
+        return mPendingCount;
+    }
+
+    /**
+     * 获取还未刷新的字符数.
+     *
+     * @return 字符数
+     */
+    public long getPendingChars() {
+        return mPendingChars;
+    }
+
+    /**
+     * 获取第一条还未刷新的日志的写入时间.
+     *
+     * @return {@link System#nanoTime()}的值，没有待刷新的日志时无意义
+     */
+    public long getFirstPendingNanos() {
+        return mFirstPendingNanos;
+    }
+
+    /**
+     * 获取最近一条日志的写入时间.
+     *
+     * @return {@link System#nanoTime()}的值，没有写入过日志时为0
+     */
+    public long getLastWriteNanos() {
+        return mLastWriteNanos;
+    }
+
+    /**
+     * 把缓冲区的内容刷新到文件中.
+     *
+     * @throws IOException 刷新失败
+     */
+    public void flush() throws IOException {
+        if (mSink != null) {
+            mSink.flush();
+        }
+        if (mIndex != null) {
+            try {
+                mIndex.flush();
+            } catch (IOException e) {
+                closeIndex(e);
+            }
+        }
+        resetPending();
+    }
+
+    /**
+     * 显式刷新或关闭前调用，把写入器自己缓存的内容也写入日志文件，默认同{@link #flush()}.
+     *
+     * @throws IOException 写入失败
+     */
+    public void drain() throws IOException {
+        flush();
+    }
+
+    /**
+     * 是否没有需要{@link #drain()}的内容.
+     *
+     * @return true - 没有需要写入日志文件的内容
+     */
+    public boolean isDrained() {
+        return mPendingCount == 0;
+    }
+
+    @Override
+    public void close() {
+        closeSink();
+        resetPending();
+    }
+
+    /**
+     * 关闭当前的输出流.
+     */
+    private void closeSink() {
+        if (mSink != null) {
+            try {
+                onClose(mSink);
+            } catch (IOException e) {
+                // 关闭时的异常忽略，和closeQuietly一致
+            }
+        }
+        IOUtils.closeQuietly(mSink);
+        IOUtils.closeQuietly(mIndex);
+        mSink = null;
+        mIndex = null;
+        mFile = null;
+        mFileName = null;
+    }
+
+    /**
+     * 打开日志文件，新建的文件会先写入系统相关的信息.
+     *
+     * @param deviceInfo 设备信息
+     * @param fileName   文件名
+     * @throws IOException 打开失败
+     */
+    private void open(@NonNull DeviceInfo deviceInfo, @NonNull String fileName) throws IOException {
+        closeSink(); // 关闭时会刷新缓冲区
+        resetPending();
+        if (!FileUtils.createDir(mDirPath)) {
+            throw new IOException("create dir failed: " + mDirPath);
+        }
+        File file = new File(mDirPath, fileName);
+        boolean isNew = !FileUtils.isExist(file);
+        if (mIndexParser != null) {
+            try {
+                mIndex = SegmentIndex.open(file, mIndexParser);
+            } catch (IOException e) {
+                LogUtils.logError(TAG, "打开日志索引异常", e);
+            }
+            mOffset = file.length();
+        }
+        mSink = Okio.buffer(Okio.appendingSink(file));
+        mFile = file;
+        mFileName = fileName;
+        mNextCheckMillis = System.currentTimeMillis() + CHECK_INTERVAL;
+        onOpen(deviceInfo, mSink, isNew);
+    }
+
+    /**
+     * 日志文件打开后调用，新建的文件会先写入系统相关的信息.
+     *
+     * @param deviceInfo 设备信息
+     * @param sink       输出流
+     * @param isNew      是否新建的文件
+     * @throws IOException 写入失败
+     */
+    protected void onOpen(@NonNull DeviceInfo deviceInfo, @NonNull BufferedSink sink,
+            boolean isNew) throws IOException {
+        if (isNew) {
+            String info = deviceInfo.getHeader();
+            sink.writeUtf8(info);
+            if (mIndex != null) {
+                mOffset += IOUtils.utf8Length(info);
+            }
+        }
+    }
+
+    /**
+     * 日志文件关闭前调用.
+     *
+     * @param sink 输出流
+     * @throws IOException 写入失败
+     */
+    protected void onClose(@NonNull BufferedSink sink) throws IOException {
+    }
+
+    /**
+     * 写索引失败时不再写入，不影响日志本身，下次打开文件时重建.
+     *
+     * @param e 异常
+     */
+    private void closeIndex(@NonNull IOException e) {
+        LogUtils.logError(TAG, "写日志索引异常", e);
+        IOUtils.closeQuietly(mIndex);
+        mIndex = null;
+    }
+
+    /**
+     * 文件在打开期间可能被删除（比如用户清理了日志目录），每隔一段时间检查一次.
+     *
+     * @return true - 文件已被删除，false - 文件存在或还未到检查时间
+     */
+    private boolean isFileMissing() {
+        long now = System.currentTimeMillis();
+        if (now < mNextCheckMillis) {
+            return false;
+        }
+        mNextCheckMillis = now + CHECK_INTERVAL;
+        return !FileUtils.isExist(mFile);
+    }
+}
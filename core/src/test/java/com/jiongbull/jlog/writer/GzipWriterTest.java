@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.writer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static com.jiongbull.jlog.writer.TestDeviceInfo.DEVICE_INFO;
+import static com.jiongbull.jlog.writer.TestDeviceInfo.HEADER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link GzipWriter}的成员边界和重新打开时的恢复.
+ */
+public class GzipWriterTest {
+
+    private static final String FILE_NAME = "2016-01-19.log";
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void routineFlushKeepsMemberOpenUntilDrained() throws IOException {
+        GzipWriter writer = new GzipWriter(mFolder.getRoot().getPath(), 6);
+        writer.write(DEVICE_INFO, FILE_NAME, "line\n");
+        writer.flush();
+        assertFalse(writer.isDrained());
+        writer.drain();
+        assertTrue(writer.isDrained());
+        assertEquals(HEADER + "line\n", read(getFile()));
+        writer.close();
+    }
+
+    @Test
+    public void largeInputIsSplitIntoReadableMembers() throws IOException {
+        GzipWriter writer = new GzipWriter(mFolder.getRoot().getPath(), 6);
+        StringBuilder expected = new StringBuilder(HEADER);
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            String line = "line " + i + " " + Long.toHexString(random.nextLong()) + "\n";
+            writer.write(DEVICE_INFO, FILE_NAME, line);
+            expected.append(line);
+            if (i % 10 == 0) {
+                writer.flush();
+            }
+        }
+        writer.close();
+        assertEquals(expected.toString(), read(getFile()));
+    }
+
+    @Test
+    public void reopenKeepsFlushedRecords() throws IOException {
+        assertFlushedRecordsSurviveCrash(true);
+    }
+
+    @Test
+    public void reopenKeepsFlushedRecordsWithoutSyncFlush() throws IOException {
+        assertFlushedRecordsSurviveCrash(false);
+    }
+
+    @Test
+    public void reopenRewritesHeaderWhenNothingWasFlushed() throws IOException {
+        GzipWriter crashed = new GzipWriter(mFolder.getRoot().getPath(), 6);
+        crashed.write(DEVICE_INFO, FILE_NAME, "lost\n");
+        crashed.getSink().emit();
+        assertTrue(getFile().length() > 0);
+        // 不关闭，模拟进程崩溃
+
+        GzipWriter writer = new GzipWriter(mFolder.getRoot().getPath(), 6);
+        writer.write(DEVICE_INFO, FILE_NAME, "after\n");
+        writer.close();
+        assertEquals(HEADER + "after\n", read(getFile()));
+    }
+
+    @Test
+    public void reopenTruncatesGarbageTail() throws IOException {
+        GzipWriter writer = new GzipWriter(mFolder.getRoot().getPath(), 6);
+        writer.write(DEVICE_INFO, FILE_NAME, "before\n");
+        writer.close();
+        byte[] garbage = new byte[3000];
+        new Random(3).nextBytes(garbage);
+        garbage[0] = (byte) 0x1f;
+        garbage[1] = (byte) 0x8b;
+        OutputStream out = new FileOutputStream(getFile(), true);
+        try {
+            out.write(garbage);
+        } finally {
+            out.close();
+        }
+
+        writer = new GzipWriter(mFolder.getRoot().getPath(), 6);
+        writer.write(DEVICE_INFO, FILE_NAME, "after\n");
+        writer.close();
+        assertEquals(HEADER + "before\nafter\n", read(getFile()));
+    }
+
+    /**
+     * 刷新过的日志在进程崩溃后重新打开时都还在，之后追加的日志也能读取.
+     *
+     * @param syncFlush 刷新时是否使用同步刷新
+     * @throws IOException 读写失败
+     */
+    private void assertFlushedRecordsSurviveCrash(boolean syncFlush) throws IOException {
+        GzipWriter crashed = new GzipWriter(mFolder.getRoot().getPath(), 6, syncFlush);
+        StringBuilder expected = new StringBuilder(HEADER);
+        Random random = new Random(2);
+        for (int i = 0; i < 5000; i++) {
+            String line = "line " + i + " " + random.nextLong() + "\n";
+            crashed.write(DEVICE_INFO, FILE_NAME, line);
+            expected.append(line);
+            if (i % 100 == 99) {
+                crashed.flush();
+            }
+        }
+        crashed.flush();
+        long flushed = getFile().length();
+        // 足够多的数据让压缩器有输出
+        for (int i = 0; i < 5000; i++) {
+            crashed.write(DEVICE_INFO, FILE_NAME, "lost " + random.nextLong() + "\n");
+        }
+        crashed.getSink().emit();
+        assertTrue(getFile().length() > flushed);
+        // 不关闭，模拟进程崩溃
+
+        GzipWriter writer = new GzipWriter(mFolder.getRoot().getPath(), 6, syncFlush);
+        writer.write(DEVICE_INFO, FILE_NAME, "after\n");
+        writer.close();
+        expected.append("after\n");
+        assertEquals(expected.toString(), read(getFile()));
+    }
+
+    private File getFile() {
+        return new File(mFolder.getRoot(), FILE_NAME + ".gz");
+    }
+
+    private static String read(File file) throws IOException {
+        InputStream in = new GZIPInputStream(new FileInputStream(file));
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8 * 1024];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
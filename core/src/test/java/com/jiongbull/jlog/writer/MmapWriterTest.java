@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.writer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import okio.BufferedSource;
+import okio.Okio;
+
+import static com.jiongbull.jlog.writer.TestDeviceInfo.DEVICE_INFO;
+import static com.jiongbull.jlog.writer.TestDeviceInfo.HEADER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link MmapWriter}的刷新和崩溃后的恢复.
+ */
+public class MmapWriterTest {
+
+    private static final String CACHE_NAME = ".jlog" + MmapWriter.MMAP_EXT;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void flushKeepsRecordsInCacheUntilDrained() throws IOException {
+        MmapWriter writer = newWriter();
+        writer.write(DEVICE_INFO, "a.log", "1\n");
+        writer.write(DEVICE_INFO, "a.log", "2\n");
+        writer.flush();
+        assertFalse(new File(mFolder.getRoot(), "a.log").exists());
+        assertFalse(writer.isDrained());
+
+        writer.drain();
+        assertTrue(writer.isDrained());
+        assertEquals(HEADER + "1\n2\n", read("a.log"));
+        writer.close();
+    }
+
+    @Test
+    public void segmentChangeMovesCacheToPreviousFile() throws IOException {
+        MmapWriter writer = newWriter();
+        writer.write(DEVICE_INFO, "a.log", "1\n");
+        writer.write(DEVICE_INFO, "b.log", "2\n");
+        assertEquals(HEADER + "1\n", read("a.log"));
+        writer.close();
+        assertEquals(HEADER + "2\n", read("b.log"));
+    }
+
+    @Test
+    public void reopenRecoversRecordsLeftByCrash() throws IOException {
+        MmapWriter crashed = newWriter();
+        crashed.write(DEVICE_INFO, "a.log", "1\n");
+        crashed.write(DEVICE_INFO, "a.log", "2\n");
+        crashed.flush();
+        // 不关闭，模拟进程被杀，缓存文件中的内容仍然保留
+
+        MmapWriter writer = newWriter();
+        writer.write(DEVICE_INFO, "b.log", "3\n");
+        assertEquals(HEADER + "1\n2\n", read("a.log"));
+        writer.close();
+        assertEquals(HEADER + "3\n", read("b.log"));
+    }
+
+    @Test
+    public void contentLargerThanCacheIsWrittenDirectly() throws IOException {
+        MmapWriter writer = new MmapWriter(mFolder.getRoot().getPath(), CACHE_NAME, 256);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            large.append("0123456789");
+        }
+        large.append('\n');
+        writer.write(DEVICE_INFO, "a.log", "1\n");
+        writer.write(DEVICE_INFO, "a.log", large.toString());
+        assertEquals(HEADER + "1\n" + large, read("a.log"));
+        writer.close();
+    }
+
+    private MmapWriter newWriter() {
+        return new MmapWriter(mFolder.getRoot().getPath(), CACHE_NAME, MmapWriter.DEFAULT_SIZE);
+    }
+
+    private String read(String fileName) throws IOException {
+        BufferedSource source = Okio.buffer(Okio.source(new File(mFolder.getRoot(), fileName)));
+        try {
+            return source.readUtf8();
+        } finally {
+            source.close();
+        }
+    }
+}
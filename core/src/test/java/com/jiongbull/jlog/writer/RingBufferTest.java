@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.writer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link RingBuffer}的多生产者、多消费者测试.
+ *
+ * <p>元素为生产者编号 * {@link #PER_PRODUCER} + 序号，每个元素只能被取出一次，
+ * 同一个线程取出的同一个生产者的元素必须按序号递增.</p>
+ */
+public class RingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int CONSUMERS = 4;
+    private static final int PER_PRODUCER = 200000;
+    private static final int CAPACITY = 64;
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new RingBuffer<Integer>(5).capacity());
+        assertEquals(8, new RingBuffer<Integer>(8).capacity());
+    }
+
+    @Test
+    public void offerFailsWhenFullAndPollKeepsOrder() {
+        RingBuffer<Integer> queue = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+        assertEquals(Integer.valueOf(0), queue.poll());
+        assertTrue(queue.offer(4));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, queue.drainTo(drained, 10));
+        assertEquals(Arrays.asList(1, 2, 3, 4), drained);
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void concurrentProducersAndConsumersLoseNothing() throws Exception {
+        RingBuffer<Long> queue = new RingBuffer<>(CAPACITY);
+        Result result = run(queue, false);
+        assertEquals(0, result.mDropped.get());
+        result.assertComplete();
+    }
+
+    /**
+     * 和{@link AsyncAppender}的{@link com.jiongbull.jlog.constant.OverflowPolicy#DROP_OLDEST}一样，
+     * 队列满时生产者取出最早的元素丢弃后重试，取出和丢弃的元素合起来不多不少.
+     */
+    @Test
+    public void dropOldestLosesNothingUncounted() throws Exception {
+        RingBuffer<Long> queue = new RingBuffer<>(CAPACITY);
+        Result result = run(queue, true);
+        assertTrue(result.mDropped.get() > 0);
+        result.assertComplete();
+    }
+
+    private static Result run(final RingBuffer<Long> queue, final boolean dropOldest)
+            throws InterruptedException {
+        final Result result = new Result();
+        final AtomicInteger running = new AtomicInteger(PRODUCERS);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    Tracker dropped = new Tracker();
+                    for (int i = 0; i < PER_PRODUCER; i++) {
+                        Long e = (long) producer * PER_PRODUCER + i;
+                        while (!queue.offer(e)) {
+                            if (dropOldest) {
+                                Long oldest = queue.poll();
+                                if (oldest != null) {
+                                    dropped.add(oldest);
+                                    result.mDropped.incrementAndGet();
+                                }
+                            } else {
+                                Thread.yield();
+                            }
+                        }
+                    }
+                    result.merge(dropped);
+                    running.decrementAndGet();
+                }
+            }));
+        }
+        for (int c = 0; c < CONSUMERS; c++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    Tracker consumed = new Tracker();
+                    List<Long> batch = new ArrayList<>();
+                    while (true) {
+                        boolean done = running.get() == 0;
+                        if (queue.drainTo(batch, 16) == 0) {
+                            if (done) {
+                                break;
+                            }
+                            Thread.yield();
+                            continue;
+                        }
+                        for (Long e : batch) {
+                            consumed.add(e);
+                        }
+                        batch.clear();
+                    }
+                    result.merge(consumed);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(60 * 1000L);
+            assertFalse("timeout", thread.isAlive());
+        }
+        assertTrue(queue.isEmpty());
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 一个线程取出的元素，检查同一个生产者的元素是否按序号递增.
+     */
+    private static final class Tracker {
+        private final long[] mLast = new long[PRODUCERS];
+        private final List<Long> mElements = new ArrayList<>();
+        private String mError;
+
+        private Tracker() {
+            Arrays.fill(mLast, -1);
+        }
+
+        private void add(Long e) {
+            int producer = (int) (e / PER_PRODUCER);
+            if (e <= mLast[producer] && mError == null) {
+                mError = "out of order: " + e + " after " + mLast[producer];
+            }
+            mLast[producer] = e;
+            mElements.add(e);
+        }
+    }
+
+    /**
+     * 所有线程取出的元素.
+     */
+    private static final class Result {
+        private final AtomicLong mDropped = new AtomicLong();
+        private final boolean[] mSeen = new boolean[PRODUCERS * PER_PRODUCER];
+        private final List<String> mErrors = new ArrayList<>();
+
+        private synchronized void merge(Tracker tracker) {
+            if (tracker.mError != null) {
+                mErrors.add(tracker.mError);
+            }
+            for (Long e : tracker.mElements) {
+                if (mSeen[e.intValue()]) {
+                    mErrors.add("duplicate: " + e);
+                }
+                mSeen[e.intValue()] = true;
+            }
+        }
+
+        private synchronized void assertComplete() {
+            if (!mErrors.isEmpty()) {
+                fail(mErrors.get(0));
+            }
+            for (int i = 0; i < mSeen.length; i++) {
+                if (!mSeen[i]) {
+                    fail("lost: " + i);
+                }
+            }
+        }
+    }
+}
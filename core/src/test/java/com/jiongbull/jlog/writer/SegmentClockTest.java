@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.writer;
+
+import com.jiongbull.jlog.constant.LogSegment;
+import com.jiongbull.jlog.platform.Clock;
+import com.jiongbull.jlog.platform.Platform;
+import com.jiongbull.jlog.util.LogUtils;
+import com.jiongbull.jlog.util.TimeUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link SegmentClock}和{@link LogUtils#genFileName}、{@link LogUtils#filterLogFiles}在设备时区切换夏令时前后
+ * 必须得到相同的文件名，否则上传时会把正在写入的文件当作已经结束的文件.
+ */
+public class SegmentClockTest {
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    /** 2016-03-13 07:00 UTC，纽约切换到夏令时. */
+    private static final long DST_START = 1457852400000L;
+    /** 2016-11-06 06:00 UTC，纽约结束夏令时. */
+    private static final long DST_END = 1478412000000L;
+    private static final int[] SEGMENTS = {LogSegment.ONE_HOUR, LogSegment.TWO_HOURS,
+            LogSegment.SIX_HOURS, LogSegment.TWELVE_HOURS, LogSegment.TWENTY_FOUR_HOURS};
+    private static final long[] ZONE_OFFSETS = {TimeUtils.ZoneOffset.N0500,
+            TimeUtils.ZoneOffset.P0800};
+
+    private TimeZone mDefaultZone;
+    private long mNow;
+
+    @Before
+    public void setUp() {
+        mDefaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        Platform.setClock(new Clock() {
+            @Override
+            public long currentTimeMillis() {
+                return mNow;
+            }
+
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        Platform.setClock(Clock.SYSTEM);
+        TimeZone.setDefault(mDefaultZone);
+    }
+
+    @Test
+    public void fileNameUsesFixedOffsetAcrossDst() {
+        mNow = DST_START + HOUR_MILLIS / 2;
+        // 固定的UTC-5是02:30，设备时区已经是夏令时的03:30
+        assertEquals("2016-03-13_0203.log", new SegmentClock("jlog", "",
+                LogSegment.ONE_HOUR, TimeUtils.ZoneOffset.N0500).getFileName(mNow));
+        assertEquals("2016-03-13_0203.log",
+                LogUtils.genFileName("", LogSegment.ONE_HOUR, TimeUtils.ZoneOffset.N0500));
+    }
+
+    @Test
+    public void genFileNameMatchesSegmentClockAroundDstStart() {
+        checkAround(DST_START);
+    }
+
+    @Test
+    public void genFileNameMatchesSegmentClockAroundDstEnd() {
+        checkAround(DST_END);
+    }
+
+    /**
+     * 检查切换时间前后一天内每半小时的文件名，以及过滤出的已经结束的文件.
+     *
+     * @param switchMillis 切换夏令时的UTC时间戳
+     */
+    private void checkAround(long switchMillis) {
+        for (int segment : SEGMENTS) {
+            for (long zoneOffset : ZONE_OFFSETS) {
+                //noinspection WrongConstant
+                SegmentClock clock = new SegmentClock("jlog", "app", segment, zoneOffset);
+                for (long millis = switchMillis - 24 * HOUR_MILLIS;
+                        millis <= switchMillis + 24 * HOUR_MILLIS; millis += HOUR_MILLIS / 2) {
+                    mNow = millis;
+                    String current = clock.getFileName(millis);
+                    String message = segment + "h " + zoneOffset + " at " + millis;
+                    //noinspection WrongConstant
+                    assertEquals(message, current,
+                            LogUtils.genFileName("app", segment, zoneOffset));
+
+                    File previous = new File(clock.getFileName(millis - segment * HOUR_MILLIS));
+                    File next = new File(clock.getFileName(millis + segment * HOUR_MILLIS));
+                    File[] files = {previous, new File(current), next};
+                    //noinspection WrongConstant
+                    assertArrayEquals(message, new File[]{previous},
+                            LogUtils.filterLogFiles(files, zoneOffset, "app", segment));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.writer;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.util.IOUtils;
+import com.jiongbull.jlog.util.LevelUtils;
+import com.jiongbull.jlog.util.RecordParser;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static com.jiongbull.jlog.writer.TestDeviceInfo.DEVICE_INFO;
+import static com.jiongbull.jlog.writer.TestDeviceInfo.HEADER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link SegmentIndex}的写入、查找和从日志文件重建.
+ */
+public class SegmentIndexTest {
+
+    private static final String FILE_NAME = "2016-01-19.log";
+    private static final int[] PRIORITIES = {LogPriority.VERBOSE, LogPriority.DEBUG,
+            LogPriority.INFO, LogPriority.WARN, LogPriority.ERROR};
+    private static final StackTraceElement ELEMENT = new StackTraceElement(
+            SegmentIndexTest.class.getName(), "write", "SegmentIndexTest.java", 42);
+    /** 2016-01-19 00:00:00 UTC+8. */
+    private static final long START_MILLIS = 1453132800000L;
+    private static final int RECORDS = 2000;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private FileTarget mTarget;
+    private RecordParser mParser;
+    private File mFile;
+    /** 每条日志在文件中的位置. */
+    private final long[] mOffsets = new long[RECORDS];
+
+    @Before
+    public void setUp() throws IOException {
+        mTarget = FileTarget.Builder.newBuilder("jlog").setIndexEnabled(true).build();
+        mParser = mTarget.getRecordParser();
+        mFile = new File(mFolder.getRoot(), FILE_NAME);
+        SegmentWriter writer = new SegmentWriter(mFolder.getRoot().getPath());
+        writer.setIndexParser(mParser);
+        write(writer, 0, RECORDS / 2);
+        writer.close();
+        // 重新打开后追加
+        writer = new SegmentWriter(mFolder.getRoot().getPath());
+        writer.setIndexParser(mParser);
+        write(writer, RECORDS / 2, RECORDS);
+        writer.close();
+    }
+
+    @Test
+    public void indexCoversWholeFile() throws IOException {
+        assertCovers(SegmentIndex.load(mFile, mParser));
+    }
+
+    @Test
+    public void findReturnsBlocksOfMatchingRecords() throws IOException {
+        SegmentIndex index = SegmentIndex.load(mFile, mParser);
+        for (int i = 0; i < RECORDS; i += 97) {
+            List<SegmentIndex.Block> blocks = index.find(getMillis(i), getMillis(i),
+                    LevelUtils.mask(getPriority(i)));
+            assertContains(blocks, mOffsets[i]);
+            assertTrue(blocks.size() < index.getBlocks().size());
+        }
+        assertTrue(index.find(getMillis(RECORDS) + 1000L, Long.MAX_VALUE,
+                LevelUtils.MASK_ALL).isEmpty());
+    }
+
+    @Test
+    public void missingIndexIsRebuiltFromLogFile() throws IOException {
+        assertTrue(SegmentIndex.getIndexFile(mFile).delete());
+        SegmentIndex index = SegmentIndex.load(mFile, mParser);
+        assertCovers(index);
+        int i = RECORDS / 3;
+        assertContains(index.find(getMillis(i), getMillis(i), LevelUtils.mask(getPriority(i))),
+                mOffsets[i]);
+    }
+
+    @Test
+    public void truncatedIndexIsCompletedFromLogFile() throws IOException {
+        File indexFile = SegmentIndex.getIndexFile(mFile);
+        RandomAccessFile raf = new RandomAccessFile(indexFile, "rw");
+        try {
+            raf.setLength(raf.length() / 2 + 3);
+        } finally {
+            IOUtils.closeQuietly(raf);
+        }
+        SegmentIndex index = SegmentIndex.load(mFile, mParser);
+        assertCovers(index);
+        int i = RECORDS - 1;
+        assertContains(index.find(getMillis(i), getMillis(i), LevelUtils.mask(getPriority(i))),
+                mOffsets[i]);
+    }
+
+    private void write(SegmentWriter writer, int from, int to) throws IOException {
+        StringBuilder buffer = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            buffer.setLength(0);
+            new LogRecord(mTarget, getPriority(i), "record " + i, ELEMENT, "main", getMillis(i))
+                    .appendTo(buffer);
+            mOffsets[i] = mFile.exists() ? mFile.length() : HEADER.length();
+            writer.write(DEVICE_INFO, FILE_NAME, buffer.toString(), getMillis(i),
+                    getPriority(i));
+            writer.flush();
+        }
+    }
+
+    private static long getMillis(int i) {
+        return START_MILLIS + i * 1000L;
+    }
+
+    private static int getPriority(int i) {
+        return PRIORITIES[i % PRIORITIES.length];
+    }
+
+    /**
+     * 块从文件头之后开始，首尾相连直到文件末尾.
+     *
+     * @param index 索引
+     */
+    private void assertCovers(SegmentIndex index) {
+        List<SegmentIndex.Block> blocks = index.getBlocks();
+        assertTrue(blocks.size() > 1);
+        long end = HEADER.length();
+        for (SegmentIndex.Block block : blocks) {
+            assertEquals(end, block.getOffset());
+            end = block.getEnd();
+        }
+        assertEquals(mFile.length(), end);
+    }
+
+    private static void assertContains(List<SegmentIndex.Block> blocks, long offset) {
+        for (SegmentIndex.Block block : blocks) {
+            if (offset >= block.getOffset() && offset < block.getEnd()) {
+                return;
+            }
+        }
+        throw new AssertionError("offset " + offset + " not in " + blocks.size() + " blocks");
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.writer;
+
+import com.jiongbull.jlog.platform.DeviceInfo;
+
+/**
+ * 测试用的设备信息，文件头部固定为{@link #HEADER}.
+ */
+final class TestDeviceInfo implements DeviceInfo {
+
+    /** 每个新文件开头的头部. */
+    static final String HEADER = "header\n\n\n";
+    static final DeviceInfo DEVICE_INFO = new TestDeviceInfo();
+
+    private TestDeviceInfo() {
+    }
+
+    @Override
+    public String getHeader() {
+        return HEADER;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.platform.Platform;
+import com.jiongbull.jlog.printer.Printer;
+import com.jiongbull.jlog.writer.AsyncAppender;
+import com.jiongbull.jlog.writer.LogRecord;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 未捕获异常的处理器.
+ *
+ * <p>崩溃时把异常作为{@link LogPriority#WTF}日志写入文件（不受文件日志级别的限制），
+ * 在限定的时间内等待队列中的日志全部写入并刷新，再交给之前的处理器.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class CrashHandler implements Thread.UncaughtExceptionHandler {
+
+    /** 默认最多等待的时间，单位毫秒. */
+    public static final long DEFAULT_TIMEOUT = 2000L;
+
+    /** 异常没有堆栈时使用的堆栈元素. */
+    private static final StackTraceElement CRASH_ELEMENT = new StackTraceElement(
+            CrashHandler.class.getName(), "uncaughtException", "CrashHandler.java", -1);
+
+    /** 记录崩溃的日志实例. */
+    private final Logger mLogger;
+    /** 最多等待的时间，单位毫秒. */
+    private final long mTimeout;
+    /** 之前的处理器. */
+    private final Thread.UncaughtExceptionHandler mPrevious;
+
+    private CrashHandler(@NonNull Logger logger, long timeout,
+            Thread.UncaughtExceptionHandler previous) {
+        mLogger = logger;
+        mTimeout = timeout;
+        mPrevious = previous;
+    }
+
+    /**
+     * 安装为默认的未捕获异常处理器，最多等待{@link #DEFAULT_TIMEOUT}.
+     *
+     * @param logger 记录崩溃的日志实例
+     * @return 处理器
+     */
+    public static CrashHandler install(@NonNull Logger logger) {
+        return install(logger, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * 安装为默认的未捕获异常处理器.
+     *
+     * @param logger  记录崩溃的日志实例
+     * @param timeout 写入崩溃日志和刷新队列最多等待的时间，单位毫秒
+     * @return 处理器
+     */
+    public static CrashHandler install(@NonNull Logger logger, long timeout) {
+        CrashHandler handler = new CrashHandler(logger, timeout,
+                Thread.getDefaultUncaughtExceptionHandler());
+        Thread.setDefaultUncaughtExceptionHandler(handler);
+        return handler;
+    }
+
+    @Override
+    public void uncaughtException(Thread thread, Throwable ex) {
+        try {
+            writeCrash(thread, ex);
+        } catch (Throwable t) {
+            // 记录崩溃失败也要交给之前的处理器
+        } finally {
+            if (mPrevious != null) {
+                mPrevious.uncaughtException(thread, ex);
+            } else {
+                System.err.print("Exception in thread \"" + thread.getName() + "\" ");
+                ex.printStackTrace(System.err);
+            }
+        }
+    }
+
+    /**
+     * 写入崩溃日志，等待队列中的日志全部写入并刷新.
+     *
+     * @param thread 崩溃的线程
+     * @param ex     未捕获的异常
+     */
+    private void writeCrash(@NonNull Thread thread, @NonNull Throwable ex) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(mTimeout);
+        AsyncAppender appender = AsyncAppender.getInstance();
+        if (mLogger.isWriteToFile()) {
+            StackTraceElement[] elements = ex.getStackTrace();
+            StackTraceElement element = elements.length > 0 ? elements[0] : CRASH_ELEMENT;
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+            ex.printStackTrace(pw);
+            pw.flush();
+            String message = "Uncaught exception in thread " + thread.getName()
+                    + Printer.LINE_SEPARATOR + sw.toString();
+            appender.append(new LogRecord(mLogger.getFileTarget(), LogPriority.WTF, message,
+                    element, thread.getName(), Platform.getClock().currentTimeMillis()), mTimeout);
+        }
+        long remain = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        appender.flush(Math.max(remain, 0));
+    }
+
+    public Logger getLogger() {
+        return mLogger;
+    }
+
+    public Thread.UncaughtExceptionHandler getPrevious() {
+        return mPrevious;
+    }
+}
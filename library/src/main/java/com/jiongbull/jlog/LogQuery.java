@@ -0,0 +1,561 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog;
+
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.IOUtils;
+import com.jiongbull.jlog.util.LevelUtils;
+import com.jiongbull.jlog.util.LogUtils;
+import com.jiongbull.jlog.util.RecordLayout;
+import com.jiongbull.jlog.util.RecordParser;
+import com.jiongbull.jlog.util.TimeUtils;
+import com.jiongbull.jlog.writer.FileTarget;
+import com.jiongbull.jlog.writer.SegmentIndex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 查询本地的日志文件.
+ *
+ * <p>按文件名的顺序依次读取日志目录下的.log文件以及压缩后的.zip、.gz文件，每次只读取一条日志，
+ * 不会把整个文件读进内存. .log文件有索引（见{@link Logger#setIndexEnabled}）时只读取可能匹配的块，
+ * 最后修改时间早于开始时间的文件直接跳过. 查询在调用线程中进行，不要在主线程中使用.</p>
+ *
+ * <pre>
+ * LogQuery.Cursor cursor = LogQuery.from(logger).between(from, to)
+ *         .levels(LogPriority.ERROR).tags("MainActivity").stream();
+ * try {
+ *     while (cursor.hasNext()) {
+ *         LogEntry entry = cursor.next();
+ *     }
+ * } finally {
+ *     cursor.close();
+ * }
+ * </pre>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class LogQuery {
+
+    private static final String TAG = "log";
+    /** 时间只解析到秒，按结束时间查找索引时放宽的毫秒数. */
+    private static final long TIME_SLACK = 999L;
+
+    /** 日志目录. */
+    private final File mLogDir;
+    /** 日志前缀. */
+    private final String mLogPrefix;
+    /** 文件的日志布局. */
+    private final RecordLayout mLayout;
+    /** 时间格式. */
+    private final String mTimeFormat;
+    /** 时区偏移. */
+    @TimeUtils.ZoneOffset
+    private final long mZoneOffset;
+    /** 开始时间，UTC时间戳. */
+    private long mFromMillis = Long.MIN_VALUE;
+    /** 结束时间，UTC时间戳. */
+    private long mToMillis = Long.MAX_VALUE;
+    /** 日志级别的掩码. */
+    private int mLevelMask = LevelUtils.MASK_ALL;
+    /** 标签，为null时不限制. */
+    private Set<String> mTags;
+
+    private LogQuery(@NonNull File logDir, @NonNull String logPrefix, @NonNull RecordLayout layout,
+            @NonNull String timeFormat, @TimeUtils.ZoneOffset long zoneOffset) {
+        mLogDir = logDir;
+        mLogPrefix = logPrefix;
+        mLayout = layout;
+        mTimeFormat = timeFormat;
+        mZoneOffset = zoneOffset;
+    }
+
+    /**
+     * 查询日志实例当前配置的日志目录.
+     *
+     * @param logger 日志实例
+     * @return 查询
+     */
+    public static LogQuery from(@NonNull Logger logger) {
+        FileTarget target = logger.getFileTarget();
+        return new LogQuery(new File(target.getSegmentClock().getDirPath()),
+                target.getSegmentClock().getLogPrefix(), target.getLayout(),
+                target.getTimeFormatter().getPattern(), target.getTimeFormatter().getZoneOffset());
+    }
+
+    /**
+     * 查询任意目录中的日志，比如从设备上导出的日志.
+     *
+     * @param logDir     日志目录
+     * @param logPrefix  日志前缀
+     * @param fileLayout 写入时的日志布局
+     * @param timeFormat 写入时的时间格式
+     * @param zoneOffset 写入时的时区偏移
+     * @return 查询
+     */
+    public static LogQuery from(@NonNull File logDir, @NonNull String logPrefix,
+            @NonNull String fileLayout, @NonNull String timeFormat,
+            @TimeUtils.ZoneOffset long zoneOffset) {
+        return new LogQuery(logDir, logPrefix, new RecordLayout(fileLayout), timeFormat,
+                zoneOffset);
+    }
+
+    /**
+     * 只查询时间范围内的日志，包括两端.
+     *
+     * @param fromMillis 开始时间，UTC时间戳
+     * @param toMillis   结束时间，UTC时间戳
+     * @return 查询
+     */
+    public LogQuery between(long fromMillis, long toMillis) {
+        mFromMillis = fromMillis;
+        mToMillis = toMillis;
+        return this;
+    }
+
+    /**
+     * 只查询这些级别的日志.
+     *
+     * @param priorities {@link LogPriority}，优先级
+     * @return 查询
+     */
+    public LogQuery levels(@LogPriority int... priorities) {
+        int mask = LevelUtils.MASK_NONE;
+        for (int priority : priorities) {
+            mask |= LevelUtils.mask(priority);
+        }
+        mLevelMask = mask;
+        return this;
+    }
+
+    /**
+     * 只查询这些标签的日志，标签见{@link LogEntry#getTag()}.
+     *
+     * @param tags 标签
+     * @return 查询
+     */
+    public LogQuery tags(@NonNull String... tags) {
+        mTags = new HashSet<>(Arrays.asList(tags));
+        return this;
+    }
+
+    /**
+     * 开始查询，按文件顺序逐条返回匹配的日志.
+     *
+     * @return 游标，用完后需要关闭
+     */
+    public Cursor stream() {
+        return new Cursor(this, listFiles());
+    }
+
+    /**
+     * 获取日志目录下这个前缀的日志文件和压缩文件，按文件名排序.
+     *
+     * @return 文件
+     */
+    @NonNull
+    private List<File> listFiles() {
+        final String prefix = TextUtils.isEmpty(mLogPrefix) ? "" : mLogPrefix + "_";
+        File[] files = mLogDir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String filename) {
+                if (!filename.startsWith(prefix) || filename.length() == prefix.length()
+                        || !Character.isDigit(filename.charAt(prefix.length()))) {
+                    return false;
+                }
+                return filename.endsWith(LogUtils.LOG_EXT) || filename.endsWith(FileUtils.ZIP_EXT)
+                        || filename.endsWith(FileUtils.GZIP_EXT);
+            }
+        });
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files);
+        return new ArrayList<>(Arrays.asList(files));
+    }
+
+    /**
+     * 查询结果的游标，非线程安全.
+     *
+     * <p>读取失败的文件会被跳过.</p>
+     */
+    public static final class Cursor implements Iterator<LogEntry>, Closeable {
+
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+        /** 日志第一行的最大字节数，超过的行不会被当作日志的开头. */
+        private static final int MAX_HEADER_BYTES = 4 * 1024;
+
+        private final long mFromMillis;
+        private final long mToMillis;
+        private final int mLevelMask;
+        private final Set<String> mTags;
+        private final RecordParser mParser;
+        /** 第一行开头文本的UTF-8编码. */
+        private final byte[] mHeaderPrefix;
+        /** 待读取的文件. */
+        private final List<File> mFiles;
+        private int mFileIndex;
+
+        /** 正在读取的压缩文件. */
+        private ZipInputStream mZip;
+        /** 正在读取的.log文件. */
+        private File mRangeFile;
+        /** 正在读取的.log文件中需要读取的块. */
+        private List<SegmentIndex.Block> mRanges;
+        private int mRangeIndex;
+
+        /** 正在读取的输入流. */
+        private InputStream mIn;
+        /** 关闭当前输入流时是否需要关闭底层的流，压缩文件中的条目不需要. */
+        private boolean mCloseIn;
+        /** 当前输入流还可以读取的字节数. */
+        private long mRemaining;
+        private final byte[] mBuffer = new byte[64 * 1024];
+        private int mBufferPos;
+        private int mBufferLength;
+        /** 当前行，不包括换行符. */
+        private byte[] mLine = new byte[256];
+        private int mLineLength;
+        /** 当前行是否以换行符结束. */
+        private boolean mLineEnded;
+        /** 当前日志第一行之后的内容. */
+        private final ByteArrayOutputStream mBody = new ByteArrayOutputStream();
+
+        /** 是否有已经读取第一行、还未处理的日志. */
+        private boolean mHasPending;
+        private long mPendingMillis;
+        private int mPendingPriority;
+        private String mPendingFileName;
+        private int mPendingLineNumber;
+        private String mPendingMethodName;
+        private String mPendingClassName;
+        private String mPendingThreadName;
+        private String mPendingMessage;
+
+        /** 下一条匹配的日志. */
+        private LogEntry mNext;
+
+        private Cursor(@NonNull LogQuery query, @NonNull List<File> files) {
+            mFromMillis = query.mFromMillis;
+            mToMillis = query.mToMillis;
+            mLevelMask = query.mLevelMask;
+            mTags = query.mTags;
+            mParser = new RecordParser(query.mLayout, query.mTimeFormat, query.mZoneOffset);
+            mHeaderPrefix = mParser.getHeaderPrefix().getBytes(UTF_8);
+            mFiles = files;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (mNext == null) {
+                if (mIn == null && !openNext()) {
+                    return false;
+                }
+                try {
+                    mNext = readEntry();
+                } catch (IOException e) {
+                    Log.e(TAG, "读取日志异常", e);
+                    mNext = null;
+                }
+                if (mNext == null) {
+                    closeInput();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public LogEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LogEntry entry = mNext;
+            mNext = null;
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+
+        @Override
+        public void close() {
+            closeInput();
+            IOUtils.closeQuietly(mZip);
+            mZip = null;
+            mRanges = null;
+            mFileIndex = mFiles.size();
+        }
+
+        /**
+         * 打开下一个需要读取的输入流：当前.log文件的下一个块、当前压缩文件的下一个条目或者下一个文件.
+         *
+         * @return false - 没有更多的日志
+         */
+        private boolean openNext() {
+            while (true) {
+                try {
+                    if (mRanges != null) {
+                        if (mRangeIndex < mRanges.size()) {
+                            SegmentIndex.Block block = mRanges.get(mRangeIndex++);
+                            InputStream in = new FileInputStream(mRangeFile);
+                            openInput(in, true, block.getLength());
+                            skipFully(in, block.getOffset());
+                            return true;
+                        }
+                        mRanges = null;
+                        continue;
+                    }
+                    if (mZip != null) {
+                        ZipEntry entry;
+                        while ((entry = mZip.getNextEntry()) != null) {
+                            if (entry.getName().endsWith(LogUtils.LOG_EXT)) {
+                                openInput(mZip, false, Long.MAX_VALUE);
+                                return true;
+                            }
+                        }
+                        IOUtils.closeQuietly(mZip);
+                        mZip = null;
+                        continue;
+                    }
+                    if (mFileIndex >= mFiles.size()) {
+                        return false;
+                    }
+                    File file = mFiles.get(mFileIndex++);
+                    if (file.lastModified() < mFromMillis) {
+                        continue; // 文件中的日志都早于最后修改时间
+                    }
+                    String name = file.getName();
+                    if (name.endsWith(FileUtils.ZIP_EXT)) {
+                        mZip = new ZipInputStream(new FileInputStream(file));
+                    } else if (name.endsWith(FileUtils.GZIP_EXT)) {
+                        openInput(new GZIPInputStream(new FileInputStream(file)), true,
+                                Long.MAX_VALUE);
+                        return true;
+                    } else if (SegmentIndex.getIndexFile(file).isFile()) {
+                        mRangeFile = file;
+                        mRanges = SegmentIndex.load(file, mParser).find(mFromMillis,
+                                mToMillis >= Long.MAX_VALUE - TIME_SLACK ? Long.MAX_VALUE
+                                        : mToMillis + TIME_SLACK, mLevelMask);
+                        mRangeIndex = 0;
+                    } else {
+                        // 只读取打开时的长度，正在写入的部分等下次查询
+                        openInput(new FileInputStream(file), true, file.length());
+                        return true;
+                    }
+                } catch (IOException e) {
+                    Log.e(TAG, "打开日志异常", e);
+                    closeInput();
+                    IOUtils.closeQuietly(mZip);
+                    mZip = null;
+                    mRanges = null;
+                }
+            }
+        }
+
+        private void openInput(@NonNull InputStream in, boolean closeIn, long limit) {
+            mIn = in;
+            mCloseIn = closeIn;
+            mRemaining = limit;
+            mBufferPos = 0;
+            mBufferLength = 0;
+            mHasPending = false;
+        }
+
+        private void closeInput() {
+            if (mIn != null && mCloseIn) {
+                IOUtils.closeQuietly(mIn);
+            }
+            mIn = null;
+        }
+
+        private static void skipFully(@NonNull InputStream in, long count) throws IOException {
+            while (count > 0) {
+                long skipped = in.skip(count);
+                if (skipped <= 0) {
+                    throw new IOException("unexpected end of log");
+                }
+                count -= skipped;
+            }
+        }
+
+        /**
+         * 读取当前输入流中下一条匹配的日志，不匹配的日志不解码信息.
+         *
+         * @return 日志，输入流结束时为null
+         * @throws IOException 读取失败
+         */
+        private LogEntry readEntry() throws IOException {
+            while (true) {
+                if (!mHasPending) {
+                    if (!readLine()) {
+                        return null;
+                    }
+                    if (isHeader()) {
+                        capturePending();
+                    }
+                    continue;
+                }
+                boolean match = matches();
+                mBody.reset();
+                boolean end = false;
+                while (true) {
+                    if (!readLine()) {
+                        end = true;
+                        break;
+                    }
+                    if (isHeader()) {
+                        break;
+                    }
+                    if (match) {
+                        mBody.write(mLine, 0, mLineLength);
+                        if (mLineEnded) {
+                            mBody.write('\n');
+                        }
+                    }
+                }
+                LogEntry entry = null;
+                if (match) {
+                    String body = new String(mBody.toByteArray(), UTF_8);
+                    entry = new LogEntry(mPendingMillis, mPendingPriority, mPendingFileName,
+                            mPendingLineNumber, mPendingMethodName, mPendingClassName,
+                            mPendingThreadName, mParser.extractMessage(mPendingMessage, body));
+                }
+                if (end) {
+                    mHasPending = false;
+                } else {
+                    capturePending();
+                }
+                if (entry != null || end) {
+                    return entry;
+                }
+            }
+        }
+
+        private boolean matches() {
+            if (mPendingMillis >= 0
+                    && (mPendingMillis < mFromMillis || mPendingMillis > mToMillis)) {
+                return false;
+            }
+            if (mPendingPriority >= 0 && (mLevelMask & LevelUtils.mask(mPendingPriority)) == 0) {
+                return false;
+            }
+            return mTags == null
+                    || mTags.contains(LogEntry.toTag(mPendingClassName, mPendingFileName));
+        }
+
+        private void capturePending() {
+            mHasPending = true;
+            mPendingMillis = mParser.getMillis();
+            mPendingPriority = mParser.getPriority();
+            mPendingFileName = mParser.getFileName();
+            mPendingLineNumber = mParser.getLineNumber();
+            mPendingMethodName = mParser.getMethodName();
+            mPendingClassName = mParser.getClassName();
+            mPendingThreadName = mParser.getThreadName();
+            mPendingMessage = mParser.getMessage();
+        }
+
+        /**
+         * 当前行是否是一条日志的第一行.
+         *
+         * @return true - 是
+         */
+        private boolean isHeader() {
+            if (mLineLength > MAX_HEADER_BYTES || mLineLength < mHeaderPrefix.length) {
+                return false;
+            }
+            for (int i = 0; i < mHeaderPrefix.length; i++) {
+                if (mLine[i] != mHeaderPrefix[i]) {
+                    return false;
+                }
+            }
+            int length = mLineLength;
+            if (length > 0 && mLine[length - 1] == '\r') {
+                length--;
+            }
+            return mParser.parse(new String(mLine, 0, length, UTF_8));
+        }
+
+        /**
+         * 读取一行.
+         *
+         * @return false - 输入流已经结束
+         * @throws IOException 读取失败
+         */
+        private boolean readLine() throws IOException {
+            mLineLength = 0;
+            mLineEnded = false;
+            while (true) {
+                if (mBufferPos == mBufferLength) {
+                    if (mRemaining <= 0) {
+                        return mLineLength > 0;
+                    }
+                    int count = mIn.read(mBuffer, 0, (int) Math.min(mBuffer.length, mRemaining));
+                    if (count < 0) {
+                        mRemaining = 0;
+                        return mLineLength > 0;
+                    }
+                    mRemaining -= count;
+                    mBufferPos = 0;
+                    mBufferLength = count;
+                }
+                int start = mBufferPos;
+                while (mBufferPos < mBufferLength && mBuffer[mBufferPos] != '\n') {
+                    mBufferPos++;
+                }
+                appendLine(start, mBufferPos - start);
+                if (mBufferPos < mBufferLength) {
+                    mBufferPos++;
+                    mLineEnded = true;
+                    return true;
+                }
+            }
+        }
+
+        private void appendLine(int start, int count) {
+            if (mLineLength + count > mLine.length) {
+                mLine = Arrays.copyOf(mLine, Math.max(mLine.length * 2, mLineLength + count));
+            }
+            System.arraycopy(mBuffer, start, mLine, mLineLength, count);
+            mLineLength += count;
+        }
+    }
+}
@@ -22,18 +22,32 @@ import android.support.annotation.NonNull;
 import android.text.TextUtils;
 import android.util.Log;
 
+import com.jiongbull.jlog.constant.FlushPolicy;
 import com.jiongbull.jlog.constant.LogLevel;
+import com.jiongbull.jlog.constant.LogPriority;
 import com.jiongbull.jlog.constant.LogSegment;
+import com.jiongbull.jlog.constant.OverflowPolicy;
+import com.jiongbull.jlog.constant.UploadNetwork;
+import com.jiongbull.jlog.constant.WriteMode;
+import com.jiongbull.jlog.metrics.LogMetrics;
+import com.jiongbull.jlog.platform.AndroidPlatform;
+import com.jiongbull.jlog.platform.Platform;
 import com.jiongbull.jlog.printer.DefaultPrinter;
 import com.jiongbull.jlog.printer.JsonPrinter;
 import com.jiongbull.jlog.printer.Printer;
+import com.jiongbull.jlog.util.LevelUtils;
 import com.jiongbull.jlog.util.LogUtils;
+import com.jiongbull.jlog.util.RecordLayout;
+import com.jiongbull.jlog.util.TimeFormatter;
 import com.jiongbull.jlog.util.TimeUtils;
+import com.jiongbull.jlog.writer.AsyncAppender;
+import com.jiongbull.jlog.writer.FileTarget;
+import com.jiongbull.jlog.writer.SegmentClock;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.Deflater;
 
 /**
  * 日志工具.
@@ -44,6 +58,8 @@ public class Logger {
     private static final String LOG_CLASS_NAME = Logger.class.getName();
     /** 日志的打印方法名. */
     private static final String LOG_PRINT_METHOD_NAME = "printLog";
+    /** 运行指标. */
+    private static final LogMetrics sMetrics = LogMetrics.getInstance();
 
     private final Context mContext;
     private final DefaultPrinter mDefaultPrinter;
@@ -62,8 +78,10 @@ public class Logger {
     /** 切片间隔，单位小时. */
     @LogSegment
     private int mLogSegment;
-    /** 写入文件的日志级别. */
-    private List<String> mLogLevelsForFile;
+    /** 输出到控制台的日志级别掩码，见{@link LevelUtils#mask(int)}. */
+    private int mConsoleLevelMask;
+    /** 写入文件的日志级别掩码，见{@link LevelUtils#mask(int)}. */
+    private int mFileLevelMask;
     /** 时区偏移时间. */
     @TimeUtils.ZoneOffset
     private long mZoneOffset;
@@ -74,6 +92,43 @@ public class Logger {
     private int mPackagedLevel;
     /** 云存储接口. */
     private IStorage mStorage;
+    /** 日志文件的写入方式. */
+    @WriteMode
+    private int mWriteMode;
+    /** 日志文件的刷新策略. */
+    @FlushPolicy
+    private int mFlushPolicy;
+    /** 累积多少条日志后刷新. */
+    private int mBatchSize;
+    /** 日志在缓冲区中最多停留的时间，单位毫秒. */
+    private long mLingerMillis;
+    /** 待写日志的队列已满时的处理策略. */
+    @OverflowPolicy
+    private int mOverflowPolicy;
+    /** {@link OverflowPolicy#DROP_BELOW_LEVEL}时，低于该优先级的日志会被丢弃. */
+    @LogPriority
+    private int mOverflowLevel;
+    /** 压缩级别. */
+    private int mCompressionLevel;
+    /** 日志文件的总大小上限，单位byte，0表示不限制. */
+    private long mMaxLogSize;
+    /** 日志文件的最长保留时间，单位毫秒，0表示不限制. */
+    private long mMaxLogAge;
+    /** 是否写入日志索引. */
+    private boolean mIndexEnabled;
+    /** 允许上传日志的网络. */
+    @UploadNetwork
+    private int mUploadNetwork;
+    /** 移动网络下一次最多上传的大小，单位byte，0表示不限制. */
+    private long mMaxMobileUploadSize;
+    /** 控制台的日志布局. */
+    private RecordLayout mConsoleLayout;
+    /** 文件的日志布局. */
+    private RecordLayout mFileLayout;
+    /** 日志文件的输出目标，写文件相关的配置改变时重建. */
+    private FileTarget mFileTarget;
+    /** 可输出的日志级别掩码（控制台或文件），为0的级别直接丢弃. */
+    private int mLoggableMask;
 
     private Logger(@NonNull Builder builder) {
         mContext = builder.mContext;
@@ -83,11 +138,28 @@ public class Logger {
         mLogDir = builder.mLogDir;
         mLogPrefix = builder.mLogPrefix;
         mLogSegment = builder.mLogSegment;
-        mLogLevelsForFile = builder.mLogLevelsForFile;
+        mConsoleLevelMask = builder.mConsoleLevelMask;
+        mFileLevelMask = builder.mFileLevelMask;
         mZoneOffset = builder.mZoneOffset;
         mTimeFormat = builder.mTimeFormat;
         mPackagedLevel = builder.mPackagedLevel;
         mStorage = builder.mStorage;
+        mWriteMode = builder.mWriteMode;
+        mFlushPolicy = builder.mFlushPolicy;
+        mConsoleLayout = new RecordLayout(builder.mConsoleLayout);
+        mFileLayout = new RecordLayout(builder.mFileLayout);
+        mBatchSize = builder.mBatchSize;
+        mLingerMillis = builder.mLingerMillis;
+        mOverflowPolicy = builder.mOverflowPolicy;
+        mOverflowLevel = builder.mOverflowLevel;
+        mCompressionLevel = builder.mCompressionLevel;
+        mMaxLogSize = builder.mMaxLogSize;
+        mMaxLogAge = builder.mMaxLogAge;
+        mIndexEnabled = builder.mIndexEnabled;
+        mUploadNetwork = builder.mUploadNetwork;
+        mMaxMobileUploadSize = builder.mMaxMobileUploadSize;
+        updateFileTarget();
+        updateLoggableMask();
 
         mDefaultPrinter = new DefaultPrinter();
         mJsonPrinter = new JsonPrinter();
@@ -100,7 +172,7 @@ public class Logger {
      * @param message 信息
      */
     public void v(@NonNull String tag, @NonNull String message) {
-        printLog(LogLevel.VERBOSE, tag, null, message);
+        printLog(LogPriority.VERBOSE, null, tag, null, message);
     }
 
     /**
@@ -109,7 +181,7 @@ public class Logger {
      * @param message 信息
      */
     public void v(@NonNull String message) {
-        printLog(LogLevel.VERBOSE, null, null, message);
+        printLog(LogPriority.VERBOSE, null, null, null, message);
     }
 
     /**
@@ -119,7 +191,7 @@ public class Logger {
      * @param message 信息
      */
     public void d(@NonNull String tag, @NonNull String message) {
-        printLog(LogLevel.DEBUG, tag, null, message);
+        printLog(LogPriority.DEBUG, null, tag, null, message);
     }
 
     /**
@@ -128,7 +200,7 @@ public class Logger {
      * @param message 信息
      */
     public void d(@NonNull String message) {
-        printLog(LogLevel.DEBUG, null, null, message);
+        printLog(LogPriority.DEBUG, null, null, null, message);
     }
 
     /**
@@ -138,7 +210,7 @@ public class Logger {
      * @param message 信息
      */
     public void i(@NonNull String tag, @NonNull String message) {
-        printLog(LogLevel.INFO, tag, null, message);
+        printLog(LogPriority.INFO, null, tag, null, message);
     }
 
     /**
@@ -147,7 +219,7 @@ public class Logger {
      * @param message 信息
      */
     public void i(@NonNull String message) {
-        printLog(LogLevel.INFO, null, null, message);
+        printLog(LogPriority.INFO, null, null, null, message);
     }
 
     /**
@@ -157,7 +229,7 @@ public class Logger {
      * @param json json
      */
     public void json(@NonNull String tag, @NonNull String json) {
-        printLog(LogLevel.JSON, tag, null, json);
+        printLog(LogPriority.JSON, null, tag, null, json);
     }
 
     /**
@@ -166,7 +238,7 @@ public class Logger {
      * @param json 信息
      */
     public void json(@NonNull String json) {
-        printLog(LogLevel.JSON, null, null, json);
+        printLog(LogPriority.JSON, null, null, null, json);
     }
 
     /**
@@ -176,7 +248,7 @@ public class Logger {
      * @param message 信息
      */
     public void w(@NonNull String tag, @NonNull String message) {
-        printLog(LogLevel.WARN, tag, null, message);
+        printLog(LogPriority.WARN, null, tag, null, message);
     }
 
     /**
@@ -185,7 +257,7 @@ public class Logger {
      * @param message 信息
      */
     public void w(@NonNull String message) {
-        printLog(LogLevel.WARN, null, null, message);
+        printLog(LogPriority.WARN, null, null, null, message);
     }
 
     /**
@@ -196,7 +268,7 @@ public class Logger {
      * @param message 信息
      */
     public void e(@NonNull String tag, @NonNull Throwable t, @NonNull String message) {
-        printLog(LogLevel.ERROR, tag, t, message);
+        printLog(LogPriority.ERROR, null, tag, t, message);
     }
 
     /**
@@ -206,7 +278,7 @@ public class Logger {
      * @param message 信息
      */
     public void e(@NonNull Throwable t, @NonNull String message) {
-        printLog(LogLevel.ERROR, null, t, message);
+        printLog(LogPriority.ERROR, null, null, t, message);
     }
 
     /**
@@ -216,7 +288,7 @@ public class Logger {
      * @param message 信息
      */
     public void e(@NonNull String tag, @NonNull String message) {
-        printLog(LogLevel.ERROR, tag, null, message);
+        printLog(LogPriority.ERROR, null, tag, null, message);
     }
 
     /**
@@ -225,7 +297,7 @@ public class Logger {
      * @param message 信息
      */
     public void e(@NonNull String message) {
-        printLog(LogLevel.ERROR, null, null, message);
+        printLog(LogPriority.ERROR, null, null, null, message);
     }
 
     /**
@@ -235,7 +307,7 @@ public class Logger {
      * @param t   {@link Throwable}
      */
     public void e(@NonNull String tag, @NonNull Throwable t) {
-        printLog(LogLevel.ERROR, tag, t, null);
+        printLog(LogPriority.ERROR, null, tag, t, (String) null);
     }
 
     /**
@@ -244,7 +316,7 @@ public class Logger {
      * @param t {@link Throwable}
      */
     public void e(@NonNull Throwable t) {
-        printLog(LogLevel.ERROR, null, t, null);
+        printLog(LogPriority.ERROR, null, null, t, (String) null);
     }
 
     /**
@@ -255,7 +327,7 @@ public class Logger {
      * @param message 信息
      */
     public void wtf(@NonNull String tag, @NonNull Throwable t, @NonNull String message) {
-        printLog(LogLevel.WTF, tag, t, message);
+        printLog(LogPriority.WTF, null, tag, t, message);
     }
 
     /**
@@ -265,7 +337,7 @@ public class Logger {
      * @param message 信息
      */
     public void wtf(@NonNull Throwable t, @NonNull String message) {
-        printLog(LogLevel.WTF, null, t, message);
+        printLog(LogPriority.WTF, null, null, t, message);
     }
 
     /**
@@ -275,7 +347,7 @@ public class Logger {
      * @param message 信息
      */
     public void wtf(@NonNull String tag, @NonNull String message) {
-        printLog(LogLevel.WTF, tag, null, message);
+        printLog(LogPriority.WTF, null, tag, null, message);
     }
 
     /**
@@ -284,7 +356,7 @@ public class Logger {
      * @param message 信息
      */
     public void wtf(@NonNull String message) {
-        printLog(LogLevel.WTF, null, null, message);
+        printLog(LogPriority.WTF, null, null, null, message);
     }
 
     /**
@@ -294,7 +366,7 @@ public class Logger {
      * @param t   {@link Throwable}
      */
     public void wtf(@NonNull String tag, @NonNull Throwable t) {
-        printLog(LogLevel.WTF, tag, t, null);
+        printLog(LogPriority.WTF, null, tag, t, (String) null);
     }
 
     /**
@@ -303,7 +375,815 @@ public class Logger {
      * @param t {@link Throwable}
      */
     public void wtf(@NonNull Throwable t) {
-        printLog(LogLevel.WTF, null, t, null);
+        printLog(LogPriority.WTF, null, null, t, (String) null);
+    }
+
+    /**
+     * 记录“verbose”类型的日志，确认输出后才格式化信息.
+     *
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void v(@NonNull String tag, @NonNull String pattern, Object... args) {
+        printLog(LogPriority.VERBOSE, null, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“verbose”类型的日志，确认输出后才生成信息.
+     *
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void v(@NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.VERBOSE, null, tag, null, supplier);
+    }
+
+    /**
+     * 记录“verbose”类型的日志（自动生成标签），确认输出后才生成信息.
+     *
+     * @param supplier 信息的提供者
+     */
+    public void v(@NonNull MessageSupplier supplier) {
+        printLog(LogPriority.VERBOSE, null, null, null, supplier);
+    }
+
+    /**
+     * 记录“debug”类型的日志，确认输出后才格式化信息.
+     *
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void d(@NonNull String tag, @NonNull String pattern, Object... args) {
+        printLog(LogPriority.DEBUG, null, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“debug”类型的日志，确认输出后才生成信息.
+     *
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void d(@NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.DEBUG, null, tag, null, supplier);
+    }
+
+    /**
+     * 记录“debug”类型的日志（自动生成标签），确认输出后才生成信息.
+     *
+     * @param supplier 信息的提供者
+     */
+    public void d(@NonNull MessageSupplier supplier) {
+        printLog(LogPriority.DEBUG, null, null, null, supplier);
+    }
+
+    /**
+     * 记录“info”类型的日志，确认输出后才格式化信息.
+     *
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void i(@NonNull String tag, @NonNull String pattern, Object... args) {
+        printLog(LogPriority.INFO, null, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“info”类型的日志，确认输出后才生成信息.
+     *
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void i(@NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.INFO, null, tag, null, supplier);
+    }
+
+    /**
+     * 记录“info”类型的日志（自动生成标签），确认输出后才生成信息.
+     *
+     * @param supplier 信息的提供者
+     */
+    public void i(@NonNull MessageSupplier supplier) {
+        printLog(LogPriority.INFO, null, null, null, supplier);
+    }
+
+    /**
+     * 记录“json”类型的日志，确认输出后才生成信息.
+     *
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void json(@NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.JSON, null, tag, null, supplier);
+    }
+
+    /**
+     * 记录“json”类型的日志（自动生成标签），确认输出后才生成信息.
+     *
+     * @param supplier 信息的提供者
+     */
+    public void json(@NonNull MessageSupplier supplier) {
+        printLog(LogPriority.JSON, null, null, null, supplier);
+    }
+
+    /**
+     * 记录“warn”类型的日志，确认输出后才格式化信息.
+     *
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void w(@NonNull String tag, @NonNull String pattern, Object... args) {
+        printLog(LogPriority.WARN, null, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“warn”类型的日志，确认输出后才生成信息.
+     *
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void w(@NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WARN, null, tag, null, supplier);
+    }
+
+    /**
+     * 记录“warn”类型的日志（自动生成标签），确认输出后才生成信息.
+     *
+     * @param supplier 信息的提供者
+     */
+    public void w(@NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WARN, null, null, null, supplier);
+    }
+
+    /**
+     * 记录“error”类型的日志，确认输出后才格式化信息.
+     *
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void e(@NonNull String tag, @NonNull String pattern, Object... args) {
+        printLog(LogPriority.ERROR, null, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“error”类型的日志，确认输出后才格式化信息.
+     *
+     * @param tag     标签
+     * @param t       {@link Throwable}
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void e(@NonNull String tag, @NonNull Throwable t, @NonNull String pattern,
+            Object... args) {
+        printLog(LogPriority.ERROR, null, tag, t, pattern, args);
+    }
+
+    /**
+     * 记录“error”类型的日志，确认输出后才生成信息.
+     *
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void e(@NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.ERROR, null, tag, null, supplier);
+    }
+
+    /**
+     * 记录“error”类型的日志（自动生成标签），确认输出后才生成信息.
+     *
+     * @param supplier 信息的提供者
+     */
+    public void e(@NonNull MessageSupplier supplier) {
+        printLog(LogPriority.ERROR, null, null, null, supplier);
+    }
+
+    /**
+     * 记录“error”类型的日志，确认输出后才生成信息.
+     *
+     * @param tag      标签
+     * @param t        {@link Throwable}
+     * @param supplier 信息的提供者
+     */
+    public void e(@NonNull String tag, @NonNull Throwable t, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.ERROR, null, tag, t, supplier);
+    }
+
+    /**
+     * 记录“error”类型的日志（自动生成标签），确认输出后才生成信息.
+     *
+     * @param t        {@link Throwable}
+     * @param supplier 信息的提供者
+     */
+    public void e(@NonNull Throwable t, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.ERROR, null, null, t, supplier);
+    }
+
+    /**
+     * 记录“wtf”类型的日志，确认输出后才格式化信息.
+     *
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void wtf(@NonNull String tag, @NonNull String pattern, Object... args) {
+        printLog(LogPriority.WTF, null, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“wtf”类型的日志，确认输出后才格式化信息.
+     *
+     * @param tag     标签
+     * @param t       {@link Throwable}
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void wtf(@NonNull String tag, @NonNull Throwable t, @NonNull String pattern,
+            Object... args) {
+        printLog(LogPriority.WTF, null, tag, t, pattern, args);
+    }
+
+    /**
+     * 记录“wtf”类型的日志，确认输出后才生成信息.
+     *
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void wtf(@NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WTF, null, tag, null, supplier);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（自动生成标签），确认输出后才生成信息.
+     *
+     * @param supplier 信息的提供者
+     */
+    public void wtf(@NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WTF, null, null, null, supplier);
+    }
+
+    /**
+     * 记录“wtf”类型的日志，确认输出后才生成信息.
+     *
+     * @param tag      标签
+     * @param t        {@link Throwable}
+     * @param supplier 信息的提供者
+     */
+    public void wtf(@NonNull String tag, @NonNull Throwable t, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WTF, null, tag, t, supplier);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（自动生成标签），确认输出后才生成信息.
+     *
+     * @param t        {@link Throwable}
+     * @param supplier 信息的提供者
+     */
+    public void wtf(@NonNull Throwable t, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WTF, null, null, t, supplier);
+    }
+
+    /**
+     * 记录“verbose”类型的日志（指定调用位置）.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param message 信息
+     */
+    public void v(@NonNull CallSite site, @NonNull String tag, @NonNull String message) {
+        printLog(LogPriority.VERBOSE, site, tag, null, message);
+    }
+
+    /**
+     * 记录“verbose”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site    调用位置
+     * @param message 信息
+     */
+    public void v(@NonNull CallSite site, @NonNull String message) {
+        printLog(LogPriority.VERBOSE, site, null, null, message);
+    }
+
+    /**
+     * 记录“debug”类型的日志（指定调用位置）.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param message 信息
+     */
+    public void d(@NonNull CallSite site, @NonNull String tag, @NonNull String message) {
+        printLog(LogPriority.DEBUG, site, tag, null, message);
+    }
+
+    /**
+     * 记录“debug”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site    调用位置
+     * @param message 信息
+     */
+    public void d(@NonNull CallSite site, @NonNull String message) {
+        printLog(LogPriority.DEBUG, site, null, null, message);
+    }
+
+    /**
+     * 记录“info”类型的日志（指定调用位置）.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param message 信息
+     */
+    public void i(@NonNull CallSite site, @NonNull String tag, @NonNull String message) {
+        printLog(LogPriority.INFO, site, tag, null, message);
+    }
+
+    /**
+     * 记录“info”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site    调用位置
+     * @param message 信息
+     */
+    public void i(@NonNull CallSite site, @NonNull String message) {
+        printLog(LogPriority.INFO, site, null, null, message);
+    }
+
+    /**
+     * 记录“json”类型的日志（指定调用位置）.
+     *
+     * @param site 调用位置
+     * @param tag  标签
+     * @param json json
+     */
+    public void json(@NonNull CallSite site, @NonNull String tag, @NonNull String json) {
+        printLog(LogPriority.JSON, site, tag, null, json);
+    }
+
+    /**
+     * 记录“json”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site 调用位置
+     * @param json 信息
+     */
+    public void json(@NonNull CallSite site, @NonNull String json) {
+        printLog(LogPriority.JSON, site, null, null, json);
+    }
+
+    /**
+     * 记录“warn”类型的日志（指定调用位置）.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param message 信息
+     */
+    public void w(@NonNull CallSite site, @NonNull String tag, @NonNull String message) {
+        printLog(LogPriority.WARN, site, tag, null, message);
+    }
+
+    /**
+     * 记录“warn”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site    调用位置
+     * @param message 信息
+     */
+    public void w(@NonNull CallSite site, @NonNull String message) {
+        printLog(LogPriority.WARN, site, null, null, message);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置）.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param t       {@link Throwable}
+     * @param message 信息
+     */
+    public void e(@NonNull CallSite site, @NonNull String tag, @NonNull Throwable t,
+            @NonNull String message) {
+        printLog(LogPriority.ERROR, site, tag, t, message);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site    调用位置
+     * @param t       {@link Throwable}
+     * @param message 信息
+     */
+    public void e(@NonNull CallSite site, @NonNull Throwable t, @NonNull String message) {
+        printLog(LogPriority.ERROR, site, null, t, message);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置）.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param message 信息
+     */
+    public void e(@NonNull CallSite site, @NonNull String tag, @NonNull String message) {
+        printLog(LogPriority.ERROR, site, tag, null, message);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site    调用位置
+     * @param message 信息
+     */
+    public void e(@NonNull CallSite site, @NonNull String message) {
+        printLog(LogPriority.ERROR, site, null, null, message);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置）.
+     *
+     * @param site 调用位置
+     * @param tag  标签
+     * @param t    {@link Throwable}
+     */
+    public void e(@NonNull CallSite site, @NonNull String tag, @NonNull Throwable t) {
+        printLog(LogPriority.ERROR, site, tag, t, (String) null);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site 调用位置
+     * @param t    {@link Throwable}
+     */
+    public void e(@NonNull CallSite site, @NonNull Throwable t) {
+        printLog(LogPriority.ERROR, site, null, t, (String) null);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置）.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param t       {@link Throwable}
+     * @param message 信息
+     */
+    public void wtf(@NonNull CallSite site, @NonNull String tag, @NonNull Throwable t,
+            @NonNull String message) {
+        printLog(LogPriority.WTF, site, tag, t, message);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site    调用位置
+     * @param t       {@link Throwable}
+     * @param message 信息
+     */
+    public void wtf(@NonNull CallSite site, @NonNull Throwable t, @NonNull String message) {
+        printLog(LogPriority.WTF, site, null, t, message);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置）.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param message 信息
+     */
+    public void wtf(@NonNull CallSite site, @NonNull String tag, @NonNull String message) {
+        printLog(LogPriority.WTF, site, tag, null, message);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site    调用位置
+     * @param message 信息
+     */
+    public void wtf(@NonNull CallSite site, @NonNull String message) {
+        printLog(LogPriority.WTF, site, null, null, message);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置）.
+     *
+     * @param site 调用位置
+     * @param tag  标签
+     * @param t    {@link Throwable}
+     */
+    public void wtf(@NonNull CallSite site, @NonNull String tag, @NonNull Throwable t) {
+        printLog(LogPriority.WTF, site, tag, t, (String) null);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置，自动生成标签）.
+     *
+     * @param site 调用位置
+     * @param t    {@link Throwable}
+     */
+    public void wtf(@NonNull CallSite site, @NonNull Throwable t) {
+        printLog(LogPriority.WTF, site, null, t, (String) null);
+    }
+
+    /**
+     * 记录“verbose”类型的日志（指定调用位置），确认输出后才格式化信息.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void v(@NonNull CallSite site, @NonNull String tag, @NonNull String pattern,
+            Object... args) {
+        printLog(LogPriority.VERBOSE, site, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“verbose”类型的日志（指定调用位置），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void v(@NonNull CallSite site, @NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.VERBOSE, site, tag, null, supplier);
+    }
+
+    /**
+     * 记录“verbose”类型的日志（指定调用位置，自动生成标签），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param supplier 信息的提供者
+     */
+    public void v(@NonNull CallSite site, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.VERBOSE, site, null, null, supplier);
+    }
+
+    /**
+     * 记录“debug”类型的日志（指定调用位置），确认输出后才格式化信息.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void d(@NonNull CallSite site, @NonNull String tag, @NonNull String pattern,
+            Object... args) {
+        printLog(LogPriority.DEBUG, site, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“debug”类型的日志（指定调用位置），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void d(@NonNull CallSite site, @NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.DEBUG, site, tag, null, supplier);
+    }
+
+    /**
+     * 记录“debug”类型的日志（指定调用位置，自动生成标签），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param supplier 信息的提供者
+     */
+    public void d(@NonNull CallSite site, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.DEBUG, site, null, null, supplier);
+    }
+
+    /**
+     * 记录“info”类型的日志（指定调用位置），确认输出后才格式化信息.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void i(@NonNull CallSite site, @NonNull String tag, @NonNull String pattern,
+            Object... args) {
+        printLog(LogPriority.INFO, site, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“info”类型的日志（指定调用位置），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void i(@NonNull CallSite site, @NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.INFO, site, tag, null, supplier);
+    }
+
+    /**
+     * 记录“info”类型的日志（指定调用位置，自动生成标签），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param supplier 信息的提供者
+     */
+    public void i(@NonNull CallSite site, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.INFO, site, null, null, supplier);
+    }
+
+    /**
+     * 记录“json”类型的日志（指定调用位置），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void json(@NonNull CallSite site, @NonNull String tag,
+            @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.JSON, site, tag, null, supplier);
+    }
+
+    /**
+     * 记录“json”类型的日志（指定调用位置，自动生成标签），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param supplier 信息的提供者
+     */
+    public void json(@NonNull CallSite site, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.JSON, site, null, null, supplier);
+    }
+
+    /**
+     * 记录“warn”类型的日志（指定调用位置），确认输出后才格式化信息.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void w(@NonNull CallSite site, @NonNull String tag, @NonNull String pattern,
+            Object... args) {
+        printLog(LogPriority.WARN, site, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“warn”类型的日志（指定调用位置），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void w(@NonNull CallSite site, @NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WARN, site, tag, null, supplier);
+    }
+
+    /**
+     * 记录“warn”类型的日志（指定调用位置，自动生成标签），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param supplier 信息的提供者
+     */
+    public void w(@NonNull CallSite site, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WARN, site, null, null, supplier);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置），确认输出后才格式化信息.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void e(@NonNull CallSite site, @NonNull String tag, @NonNull String pattern,
+            Object... args) {
+        printLog(LogPriority.ERROR, site, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置），确认输出后才格式化信息.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param t       {@link Throwable}
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void e(@NonNull CallSite site, @NonNull String tag, @NonNull Throwable t,
+            @NonNull String pattern, Object... args) {
+        printLog(LogPriority.ERROR, site, tag, t, pattern, args);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void e(@NonNull CallSite site, @NonNull String tag, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.ERROR, site, tag, null, supplier);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置，自动生成标签），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param supplier 信息的提供者
+     */
+    public void e(@NonNull CallSite site, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.ERROR, site, null, null, supplier);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param tag      标签
+     * @param t        {@link Throwable}
+     * @param supplier 信息的提供者
+     */
+    public void e(@NonNull CallSite site, @NonNull String tag, @NonNull Throwable t,
+            @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.ERROR, site, tag, t, supplier);
+    }
+
+    /**
+     * 记录“error”类型的日志（指定调用位置，自动生成标签），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param t        {@link Throwable}
+     * @param supplier 信息的提供者
+     */
+    public void e(@NonNull CallSite site, @NonNull Throwable t, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.ERROR, site, null, t, supplier);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置），确认输出后才格式化信息.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void wtf(@NonNull CallSite site, @NonNull String tag, @NonNull String pattern,
+            Object... args) {
+        printLog(LogPriority.WTF, site, tag, null, pattern, args);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置），确认输出后才格式化信息.
+     *
+     * @param site    调用位置
+     * @param tag     标签
+     * @param t       {@link Throwable}
+     * @param pattern 格式，同{@link String#format(String, Object...)}
+     * @param args    参数
+     */
+    public void wtf(@NonNull CallSite site, @NonNull String tag, @NonNull Throwable t,
+            @NonNull String pattern, Object... args) {
+        printLog(LogPriority.WTF, site, tag, t, pattern, args);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param tag      标签
+     * @param supplier 信息的提供者
+     */
+    public void wtf(@NonNull CallSite site, @NonNull String tag,
+            @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WTF, site, tag, null, supplier);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置，自动生成标签），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param supplier 信息的提供者
+     */
+    public void wtf(@NonNull CallSite site, @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WTF, site, null, null, supplier);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param tag      标签
+     * @param t        {@link Throwable}
+     * @param supplier 信息的提供者
+     */
+    public void wtf(@NonNull CallSite site, @NonNull String tag, @NonNull Throwable t,
+            @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WTF, site, tag, t, supplier);
+    }
+
+    /**
+     * 记录“wtf”类型的日志（指定调用位置，自动生成标签），确认输出后才生成信息.
+     *
+     * @param site     调用位置
+     * @param t        {@link Throwable}
+     * @param supplier 信息的提供者
+     */
+    public void wtf(@NonNull CallSite site, @NonNull Throwable t,
+            @NonNull MessageSupplier supplier) {
+        printLog(LogPriority.WTF, site, null, t, supplier);
     }
 
     public Context getContext() {
@@ -320,6 +1200,7 @@ public class Logger {
 
     public void setDebug(boolean debug) {
         mDebug = debug;
+        updateLoggableMask();
     }
 
     public boolean isWriteToFile() {
@@ -328,6 +1209,7 @@ public class Logger {
 
     public void setWriteToFile(boolean writeToFile) {
         mWriteToFile = writeToFile;
+        updateLoggableMask();
     }
 
     public String getLogDir() {
@@ -336,6 +1218,7 @@ public class Logger {
 
     public void setLogDir(@NonNull String logDir) {
         mLogDir = logDir;
+        updateFileTarget();
     }
 
     public String getLogPrefix() {
@@ -344,6 +1227,7 @@ public class Logger {
 
     public void setLogPrefix(String logPrefix) {
         mLogPrefix = logPrefix;
+        updateFileTarget();
     }
 
     @LogSegment
@@ -353,14 +1237,71 @@ public class Logger {
 
     public void setLogSegment(@LogSegment int logSegment) {
         mLogSegment = logSegment;
+        updateFileTarget();
     }
 
+    /**
+     * 获取写入文件的日志级别，由{@link #getFileLevelMask()}转换而来.
+     *
+     * @return {@link LogLevel}，日志级别列表
+     */
     public List<String> getLogLevelsForFile() {
-        return mLogLevelsForFile;
+        return LevelUtils.toLevels(mFileLevelMask);
     }
 
+    /**
+     * 设置写入文件的日志级别，之后再修改该列表不会生效，需重新调用此方法.
+     *
+     * @param logLevelsForFile {@link LogLevel}，日志级别列表
+     */
     public void setLogLevelsForFile(@NonNull List<String> logLevelsForFile) {
-        mLogLevelsForFile = logLevelsForFile;
+        setFileLevelMask(LevelUtils.maskOf(logLevelsForFile));
+    }
+
+    public int getFileLevelMask() {
+        return mFileLevelMask;
+    }
+
+    /**
+     * 设置写入文件的日志级别掩码.
+     *
+     * @param fileLevelMask 掩码，见{@link LevelUtils#mask(int)}
+     */
+    public void setFileLevelMask(int fileLevelMask) {
+        mFileLevelMask = fileLevelMask;
+        updateLoggableMask();
+    }
+
+    /**
+     * 设置写入文件的最低优先级，不低于该优先级的日志都会写入文件.
+     *
+     * @param priority {@link LogPriority}，最低优先级
+     */
+    public void setFileLevel(@LogPriority int priority) {
+        setFileLevelMask(LevelUtils.maskAtLeast(priority));
+    }
+
+    public int getConsoleLevelMask() {
+        return mConsoleLevelMask;
+    }
+
+    /**
+     * 设置输出到控制台的日志级别掩码，仅在DEBUG模式下生效.
+     *
+     * @param consoleLevelMask 掩码，见{@link LevelUtils#mask(int)}
+     */
+    public void setConsoleLevelMask(int consoleLevelMask) {
+        mConsoleLevelMask = consoleLevelMask;
+        updateLoggableMask();
+    }
+
+    /**
+     * 设置输出到控制台的最低优先级，仅在DEBUG模式下生效.
+     *
+     * @param priority {@link LogPriority}，最低优先级
+     */
+    public void setConsoleLevel(@LogPriority int priority) {
+        setConsoleLevelMask(LevelUtils.maskAtLeast(priority));
     }
 
     @TimeUtils.ZoneOffset
@@ -370,6 +1311,7 @@ public class Logger {
 
     public void setZoneOffset(@TimeUtils.ZoneOffset long zoneOffset) {
         mZoneOffset = zoneOffset;
+        updateFileTarget();
     }
 
     public String getTimeFormat() {
@@ -378,6 +1320,7 @@ public class Logger {
 
     public void setTimeFormat(@NonNull String timeFormat) {
         mTimeFormat = timeFormat;
+        updateFileTarget();
     }
 
     public int getPackagedLevel() {
@@ -396,15 +1339,328 @@ public class Logger {
         mStorage = storage;
     }
 
+    @WriteMode
+    public int getWriteMode() {
+        return mWriteMode;
+    }
+
+    /**
+     * 设置日志文件的写入方式.
+     *
+     * @param writeMode {@link WriteMode}
+     */
+    public void setWriteMode(@WriteMode int writeMode) {
+        mWriteMode = writeMode;
+        updateFileTarget();
+    }
+
+    @FlushPolicy
+    public int getFlushPolicy() {
+        return mFlushPolicy;
+    }
+
+    public void setFlushPolicy(@FlushPolicy int flushPolicy) {
+        mFlushPolicy = flushPolicy;
+        updateFileTarget();
+    }
+
+    public String getConsoleLayout() {
+        return mConsoleLayout.getPattern();
+    }
+
+    /**
+     * 设置控制台的日志布局，占位符见{@link RecordLayout}.
+     *
+     * @param pattern 布局
+     */
+    public void setConsoleLayout(@NonNull String pattern) {
+        mConsoleLayout = new RecordLayout(pattern);
+    }
+
+    public String getFileLayout() {
+        return mFileLayout.getPattern();
+    }
+
+    /**
+     * 设置文件的日志布局，占位符见{@link RecordLayout}.
+     *
+     * @param pattern 布局
+     */
+    public void setFileLayout(@NonNull String pattern) {
+        mFileLayout = new RecordLayout(pattern);
+        updateFileTarget();
+    }
+
+    public int getBatchSize() {
+        return mBatchSize;
+    }
+
+    /**
+     * 设置批量写入的条数，未刷新的日志达到该条数时立即刷新.
+     *
+     * @param batchSize 条数
+     */
+    public void setBatchSize(int batchSize) {
+        mBatchSize = batchSize;
+        updateFileTarget();
+    }
+
+    public long getLingerMillis() {
+        return mLingerMillis;
+    }
+
+    /**
+     * 设置日志在缓冲区中最多停留的时间，超过后刷新到文件.
+     *
+     * @param lingerMillis 时间，单位毫秒
+     */
+    public void setLingerMillis(long lingerMillis) {
+        mLingerMillis = lingerMillis;
+        updateFileTarget();
+    }
+
+    @OverflowPolicy
+    public int getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    /**
+     * 设置待写日志的队列已满时的处理策略.
+     *
+     * @param overflowPolicy {@link OverflowPolicy}
+     */
+    public void setOverflowPolicy(@OverflowPolicy int overflowPolicy) {
+        mOverflowPolicy = overflowPolicy;
+        updateFileTarget();
+    }
+
+    @LogPriority
+    public int getOverflowLevel() {
+        return mOverflowLevel;
+    }
+
+    /**
+     * 设置{@link OverflowPolicy#DROP_BELOW_LEVEL}时保留的最低优先级.
+     *
+     * @param priority 优先级，低于它的日志在队列已满时被丢弃
+     */
+    public void setOverflowLevel(@LogPriority int priority) {
+        mOverflowLevel = priority;
+        updateFileTarget();
+    }
+
+    public int getCompressionLevel() {
+        return mCompressionLevel;
+    }
+
+    /**
+     * 设置{@link WriteMode#GZIP}写入和压缩日志文件时的压缩级别.
+     *
+     * @param level 压缩级别，0-9，见{@link Deflater}
+     */
+    public void setCompressionLevel(@IntRange(from = -1, to = 9) int level) {
+        mCompressionLevel = level;
+        updateFileTarget();
+    }
+
+    public long getMaxLogSize() {
+        return mMaxLogSize;
+    }
+
+    /**
+     * 设置日志目录中日志文件的总大小上限，超过时从最早的文件开始删除.
+     *
+     * @param maxLogSize 总大小上限，单位byte，0表示不限制
+     */
+    public void setMaxLogSize(long maxLogSize) {
+        mMaxLogSize = maxLogSize;
+        updateFileTarget();
+    }
+
+    public long getMaxLogAge() {
+        return mMaxLogAge;
+    }
+
+    /**
+     * 设置日志文件的最长保留时间，最后修改时间早于它的文件会被删除.
+     *
+     * @param maxLogAge 最长保留时间，单位毫秒，0表示不限制
+     */
+    public void setMaxLogAge(long maxLogAge) {
+        mMaxLogAge = maxLogAge;
+        updateFileTarget();
+    }
+
+    public boolean isIndexEnabled() {
+        return mIndexEnabled;
+    }
+
+    /**
+     * 获取当前日志文件的输出目标.
+     *
+     * @return 输出目标
+     */
+    FileTarget getFileTarget() {
+        return mFileTarget;
+    }
+
+    /**
+     * 设置是否为每个日志文件写入索引，只在{@link WriteMode#STREAM}时有效，
+     * 见{@link com.jiongbull.jlog.writer.SegmentIndex}.
+     *
+     * @param indexEnabled true - 写入索引
+     */
+    public void setIndexEnabled(boolean indexEnabled) {
+        mIndexEnabled = indexEnabled;
+        updateFileTarget();
+    }
+
+    @UploadNetwork
+    public int getUploadNetwork() {
+        return mUploadNetwork;
+    }
+
+    /**
+     * 设置允许上传日志的网络，见{@link com.jiongbull.jlog.service.UploadScheduler}.
+     *
+     * @param uploadNetwork {@link UploadNetwork}
+     */
+    public void setUploadNetwork(@UploadNetwork int uploadNetwork) {
+        mUploadNetwork = uploadNetwork;
+    }
+
+    public long getMaxMobileUploadSize() {
+        return mMaxMobileUploadSize;
+    }
+
+    /**
+     * 设置移动网络下一次最多上传的大小，待上传的日志超过时等到wifi下再上传.
+     *
+     * @param maxMobileUploadSize 最多上传的大小，单位byte，0表示不限制
+     */
+    public void setMaxMobileUploadSize(long maxMobileUploadSize) {
+        mMaxMobileUploadSize = maxMobileUploadSize;
+    }
+
+    /**
+     * 等待已经打印的日志全部写入文件并刷新，不受刷新策略的影响.
+     *
+     * <p>所有日志实例共用一个写文件的线程，其他日志实例的日志也会被刷新.</p>
+     *
+     * @param timeoutMillis 最多等待的毫秒数
+     * @return true - 刷新完成，false - 超时
+     */
+    public boolean flush(long timeoutMillis) {
+        return AsyncAppender.getInstance().flush(timeoutMillis);
+    }
+
+    /**
+     * 获取日志管道的运行指标，所有日志实例共用.
+     *
+     * @return 运行指标
+     */
+    @NonNull
+    public LogMetrics getMetrics() {
+        return sMetrics;
+    }
+
+    /**
+     * 判断该级别的日志是否会被输出（控制台或文件）.
+     *
+     * <p>可用于在拼接耗时的日志信息前先行判断.</p>
+     *
+     * @param priority {@link LogPriority}，优先级
+     * @return true - 会输出，false - 会被丢弃
+     */
+    public boolean isLoggable(@LogPriority int priority) {
+        return (mLoggableMask & LevelUtils.mask(priority)) != 0;
+    }
+
+    /**
+     * 判断该级别的日志是否会被输出（控制台或文件）.
+     *
+     * @param level {@link LogLevel}，日志级别
+     * @return true - 会输出，false - 会被丢弃
+     */
+    public boolean isLoggable(@LogLevel String level) {
+        int priority = LevelUtils.toPriority(level);
+        return priority >= 0 && isLoggable(priority);
+    }
+
     /**
      * 打印日志.
      *
-     * @param level   {@link LogLevel}，日志级别
-     * @param tag     标签
-     * @param t       {@link Throwable}
-     * @param message 信息
+     * @param priority {@link LogPriority}，优先级
+     * @param site     调用位置，为null时通过异常栈查找
+     * @param tag      标签
+     * @param t        {@link Throwable}
+     * @param message  信息
+     */
+    private void printLog(@LogPriority int priority, CallSite site, String tag, Throwable t,
+            String message) {
+        int mask = 1 << priority;
+        if ((mLoggableMask & mask) == 0) {
+            sMetrics.onFiltered(priority);
+            return; // 控制台和文件都不输出，不必获取堆栈
+        }
+        printMessage(priority, mask, site, tag, t, message, System.nanoTime());
+    }
+
+    /**
+     * 打印日志，确认输出后才格式化信息.
+     *
+     * @param priority {@link LogPriority}，优先级
+     * @param site     调用位置，为null时通过异常栈查找
+     * @param tag      标签
+     * @param t        {@link Throwable}
+     * @param pattern  格式
+     * @param args     参数
+     */
+    private void printLog(@LogPriority int priority, CallSite site, String tag, Throwable t,
+            String pattern, Object[] args) {
+        int mask = 1 << priority;
+        if ((mLoggableMask & mask) == 0) {
+            sMetrics.onFiltered(priority);
+            return; // 不输出的日志不必格式化
+        }
+        long start = System.nanoTime();
+        printMessage(priority, mask, site, tag, t, LogUtils.format(pattern, args), start);
+    }
+
+    /**
+     * 打印日志，确认输出后才生成信息.
+     *
+     * @param priority {@link LogPriority}，优先级
+     * @param site     调用位置，为null时通过异常栈查找
+     * @param tag      标签
+     * @param t        {@link Throwable}
+     * @param supplier 信息的提供者
+     */
+    private void printLog(@LogPriority int priority, CallSite site, String tag, Throwable t,
+            MessageSupplier supplier) {
+        int mask = 1 << priority;
+        if ((mLoggableMask & mask) == 0) {
+            sMetrics.onFiltered(priority);
+            return; // 不输出的日志不必生成信息
+        }
+        long start = System.nanoTime();
+        printMessage(priority, mask, site, tag, t, supplier == null ? null : supplier.get(),
+                start);
+    }
+
+    /**
+     * 输出日志，只能由printLog调用，以保证查找调用者时的堆栈层级一致.
+     *
+     * @param priority {@link LogPriority}，优先级
+     * @param mask     日志级别的掩码
+     * @param site     调用位置，为null时通过异常栈查找
+     * @param tag      标签
+     * @param t        {@link Throwable}
+     * @param message  信息
+     * @param start    确认输出时的{@link System#nanoTime()}，格式化和生成信息的时间也计入调用方耗时
      */
-    private void printLog(@LogLevel String level, String tag, Throwable t, String message) {
+    private void printMessage(@LogPriority int priority, int mask, CallSite site, String tag,
+            Throwable t, String message, long start) {
         if (TextUtils.isEmpty(message)) {
             message = null;
         }
@@ -418,45 +1674,56 @@ public class Logger {
                 message += Printer.LINE_SEPARATOR + getStackTraceString(t);
             }
         }
-        StackTraceElement[] elements = new Throwable().getStackTrace();
-        int index = getStackIndex(elements);
-        if (index == -1) {
-            throw new IllegalStateException(
-                    "pls reduce packageLevel");
+        StackTraceElement element;
+        if (site != null) {
+            element = site.getElement();
+        } else {
+            StackTraceElement[] elements = new Throwable().getStackTrace();
+            int index = getStackIndex(elements);
+            if (index == -1) {
+                throw new IllegalStateException(
+                        "pls reduce packageLevel");
+            }
+            element = elements[index];
         }
-        StackTraceElement element = elements[index];
         if (TextUtils.isEmpty(tag)) {
             tag = getTag(element);
         }
-        boolean isOutputToConsole = mDebug;
-        boolean isOutputToFile = mWriteToFile && mLogLevelsForFile.contains(level);
-        switch (level) {
-            case LogLevel.VERBOSE:
-            case LogLevel.DEBUG:
-            case LogLevel.INFO:
-            case LogLevel.WARN:
-            case LogLevel.ERROR:
-            case LogLevel.WTF:
-                if (isOutputToConsole) {
-                    mDefaultPrinter.printConsole(level, tag, message, element);
-                }
-                if (isOutputToFile) {
-                    mDefaultPrinter.printFile(mContext, level, message, element, mZoneOffset,
-                            mTimeFormat, mLogDir, mLogPrefix, mLogSegment);
-                }
-                break;
-            case LogLevel.JSON:
-                if (isOutputToConsole) {
-                    mJsonPrinter.printConsole(level, tag, message, element);
-                }
-                if (isOutputToFile) {
-                    mJsonPrinter.printFile(mContext, level, message, element, mZoneOffset,
-                            mTimeFormat, mLogDir, mLogPrefix, mLogSegment);
-                }
-                break;
-            default:
-                break;
+        boolean isOutputToConsole = mDebug && (mConsoleLevelMask & mask) != 0;
+        boolean isOutputToFile = mWriteToFile && (mFileLevelMask & mask) != 0;
+        Printer printer = priority == LogPriority.JSON ? mJsonPrinter : mDefaultPrinter;
+        if (isOutputToConsole) {
+            printer.printConsole(priority, tag, message, element, mConsoleLayout);
+        }
+        if (isOutputToFile) {
+            printer.printFile(priority, message, element, mFileTarget);
         }
+        sMetrics.onAccepted(priority, System.nanoTime() - start);
+    }
+
+    /**
+     * 重建日志文件的输出目标.
+     */
+    private void updateFileTarget() {
+        mFileTarget = new FileTarget(Platform.getDeviceInfo(),
+                new SegmentClock(mLogDir, mLogPrefix, mLogSegment, mZoneOffset),
+                new TimeFormatter(mTimeFormat, mZoneOffset), mFileLayout, mWriteMode,
+                mFlushPolicy, mBatchSize, mLingerMillis, mOverflowPolicy, mOverflowLevel,
+                mCompressionLevel, mMaxLogSize, mMaxLogAge, mIndexEnabled);
+    }
+
+    /**
+     * 重新计算可输出的日志级别掩码.
+     */
+    private void updateLoggableMask() {
+        int mask = LevelUtils.MASK_NONE;
+        if (mDebug) {
+            mask |= mConsoleLevelMask;
+        }
+        if (mWriteToFile) {
+            mask |= mFileLevelMask;
+        }
+        mLoggableMask = mask;
     }
 
     /**
@@ -520,28 +1787,58 @@ public class Logger {
         @LogSegment
         private int mLogSegment;
         private boolean mWriteToFile;
-        private List<String> mLogLevelsForFile;
+        private int mConsoleLevelMask;
+        private int mFileLevelMask;
         @IntRange(from = 0, to = 10)
         private int mPackagedLevel;
         private IStorage mStorage;
+        @WriteMode
+        private int mWriteMode;
+        @FlushPolicy
+        private int mFlushPolicy;
+        private String mConsoleLayout;
+        private String mFileLayout;
+        private int mBatchSize;
+        private long mLingerMillis;
+        @OverflowPolicy
+        private int mOverflowPolicy;
+        @LogPriority
+        private int mOverflowLevel;
+        private int mCompressionLevel;
+        private long mMaxLogSize;
+        private long mMaxLogAge;
+        private boolean mIndexEnabled;
+        @UploadNetwork
+        private int mUploadNetwork;
+        private long mMaxMobileUploadSize;
 
         private Builder(Context context, String name) {
             mContext = context;
             mName = name;
             mDebug = true;
             mWriteToFile = false;
-            mLogDir = "jlog";
-            mLogPrefix = "";
-            mLogSegment = LogSegment.TWENTY_FOUR_HOURS;
-            mLogLevelsForFile = new ArrayList<>();
-            mLogLevelsForFile.add(LogLevel.ERROR);
-            mLogLevelsForFile.add(LogLevel.WTF);
-            mZoneOffset = TimeUtils.ZoneOffset.P0800;
-            mTimeFormat = "yyyy-MM-dd HH:mm:ss";
+            mLogDir = FileTarget.DEFAULT_LOG_DIR;
+            mLogPrefix = FileTarget.DEFAULT_LOG_PREFIX;
+            mLogSegment = FileTarget.DEFAULT_LOG_SEGMENT;
+            mConsoleLevelMask = LevelUtils.MASK_ALL;
+            mFileLevelMask = LevelUtils.maskAtLeast(LogPriority.ERROR);
+            mZoneOffset = FileTarget.DEFAULT_ZONE_OFFSET;
+            mTimeFormat = FileTarget.DEFAULT_TIME_FORMAT;
             mPackagedLevel = 0;
+            mWriteMode = FileTarget.DEFAULT_WRITE_MODE;
+            mFlushPolicy = FileTarget.DEFAULT_FLUSH_POLICY;
+            mConsoleLayout = RecordLayout.DEFAULT_CONSOLE_PATTERN;
+            mFileLayout = FileTarget.DEFAULT_LAYOUT;
+            mBatchSize = FileTarget.DEFAULT_BATCH_SIZE;
+            mLingerMillis = FileTarget.DEFAULT_LINGER_MILLIS;
+            mOverflowPolicy = FileTarget.DEFAULT_OVERFLOW_POLICY;
+            mOverflowLevel = FileTarget.DEFAULT_OVERFLOW_LEVEL;
+            mCompressionLevel = FileTarget.DEFAULT_COMPRESSION_LEVEL;
+            mUploadNetwork = UploadNetwork.ANY;
         }
 
         public static Builder newBuilder(@NonNull Context context, @NonNull String name) {
+            AndroidPlatform.install(context);
             return new Builder(context.getApplicationContext(), name);
         }
 
@@ -581,7 +1878,27 @@ public class Logger {
         }
 
         public Builder setLogLevelsForFile(@NonNull List<String> logLevelsForFile) {
-            mLogLevelsForFile = logLevelsForFile;
+            mFileLevelMask = LevelUtils.maskOf(logLevelsForFile);
+            return this;
+        }
+
+        public Builder setFileLevelMask(int fileLevelMask) {
+            mFileLevelMask = fileLevelMask;
+            return this;
+        }
+
+        public Builder setFileLevel(@LogPriority int priority) {
+            mFileLevelMask = LevelUtils.maskAtLeast(priority);
+            return this;
+        }
+
+        public Builder setConsoleLevelMask(int consoleLevelMask) {
+            mConsoleLevelMask = consoleLevelMask;
+            return this;
+        }
+
+        public Builder setConsoleLevel(@LogPriority int priority) {
+            mConsoleLevelMask = LevelUtils.maskAtLeast(priority);
             return this;
         }
 
@@ -595,6 +1912,76 @@ public class Logger {
             return this;
         }
 
+        public Builder setWriteMode(@WriteMode int writeMode) {
+            mWriteMode = writeMode;
+            return this;
+        }
+
+        public Builder setFlushPolicy(@FlushPolicy int flushPolicy) {
+            mFlushPolicy = flushPolicy;
+            return this;
+        }
+
+        public Builder setConsoleLayout(@NonNull String pattern) {
+            mConsoleLayout = pattern;
+            return this;
+        }
+
+        public Builder setFileLayout(@NonNull String pattern) {
+            mFileLayout = pattern;
+            return this;
+        }
+
+        public Builder setBatchSize(int batchSize) {
+            mBatchSize = batchSize;
+            return this;
+        }
+
+        public Builder setLingerMillis(long lingerMillis) {
+            mLingerMillis = lingerMillis;
+            return this;
+        }
+
+        public Builder setOverflowPolicy(@OverflowPolicy int overflowPolicy) {
+            mOverflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public Builder setOverflowLevel(@LogPriority int priority) {
+            mOverflowLevel = priority;
+            return this;
+        }
+
+        public Builder setCompressionLevel(@IntRange(from = -1, to = 9) int level) {
+            mCompressionLevel = level;
+            return this;
+        }
+
+        public Builder setMaxLogSize(long maxLogSize) {
+            mMaxLogSize = maxLogSize;
+            return this;
+        }
+
+        public Builder setMaxLogAge(long maxLogAge) {
+            mMaxLogAge = maxLogAge;
+            return this;
+        }
+
+        public Builder setIndexEnabled(boolean indexEnabled) {
+            mIndexEnabled = indexEnabled;
+            return this;
+        }
+
+        public Builder setUploadNetwork(@UploadNetwork int uploadNetwork) {
+            mUploadNetwork = uploadNetwork;
+            return this;
+        }
+
+        public Builder setMaxMobileUploadSize(long maxMobileUploadSize) {
+            mMaxMobileUploadSize = maxMobileUploadSize;
+            return this;
+        }
+
         public Logger build() {
             Logger logger = new Logger(this);
             LoggerGlobal.addLogger(logger);
@@ -17,40 +17,142 @@
 package com.jiongbull.jlog;
 
 import android.app.AlarmManager;
-import android.app.PendingIntent;
 import android.content.Context;
-import android.content.Intent;
-import android.os.SystemClock;
 import android.support.annotation.NonNull;
 
-import com.jiongbull.jlog.receiver.LogReceiver;
+import com.jiongbull.jlog.metrics.LogMetrics;
+import com.jiongbull.jlog.service.UploadScheduler;
+import com.jiongbull.jlog.writer.AsyncAppender;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Semaphore;
 
 /**
  * 日志的配置.
  */
 public class LoggerGlobal {
 
+    /** 关闭时默认最多等待的时间，单位毫秒. */
+    private static final long DEFAULT_SHUTDOWN_TIMEOUT = 3000L;
+
     /** 日志容器. */
     private static final Map<String, Logger> mLoggers = new HashMap<>();
     /** 定时任务是否开启. */
     private static boolean sAlarmStarted;
+    /** 每个云存储默认的并发上传数. */
+    private static final int DEFAULT_UPLOAD_CONCURRENCY = 1;
+    /** 每个云存储的上传许可. */
+    private static final Map<IStorage, Semaphore> sUploadPermits = new WeakHashMap<>();
+    /** 检查上传的间隔，单位毫秒. */
+    private static volatile long sUploadInterval = AlarmManager.INTERVAL_FIFTEEN_MINUTES;
+    /** 一次上传任务的超时时间，单位毫秒. */
+    private static volatile long sUploadTimeout = 10 * 60 * 1000L;
 
     /**
-     * 开启定时任务.
+     * 开启定时任务，设备唤醒时检查一次上传，之后由{@link UploadScheduler}调度.
      */
     public static void startAlarm(@NonNull Context context) {
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        Intent intent = new Intent(context, LogReceiver.class);
-        PendingIntent alarmIntent = PendingIntent.getBroadcast(context, 0, intent, 0);
-        alarmManager.cancel(alarmIntent);
-        alarmManager.setInexactRepeating(AlarmManager.ELAPSED_REALTIME_WAKEUP,
-                SystemClock.elapsedRealtime(), AlarmManager.INTERVAL_FIFTEEN_MINUTES, alarmIntent);
+        UploadScheduler.schedule(context, 0, false);
         sAlarmStarted = true;
     }
 
+    public static long getUploadInterval() {
+        return sUploadInterval;
+    }
+
+    /**
+     * 设置检查上传的间隔，没有日志可以上传时不会唤醒设备.
+     *
+     * @param interval 间隔，单位毫秒
+     */
+    public static void setUploadInterval(long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        sUploadInterval = interval;
+    }
+
+    /**
+     * 设置同一个云存储同时上传的日志实例数，默认为1，云存储的实现是线程安全的才能设置为大于1.
+     *
+     * @param storage       云存储
+     * @param maxConcurrent 同时上传的数量
+     */
+    public static void setUploadConcurrency(@NonNull IStorage storage, int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        synchronized (sUploadPermits) {
+            sUploadPermits.put(storage, new Semaphore(maxConcurrent));
+        }
+    }
+
+    /**
+     * 获取云存储的上传许可，供{@link com.jiongbull.jlog.service.LogService}使用.
+     *
+     * @param storage 云存储
+     * @return 上传许可
+     */
+    @NonNull
+    public static Semaphore getUploadPermits(@NonNull IStorage storage) {
+        synchronized (sUploadPermits) {
+            Semaphore permits = sUploadPermits.get(storage);
+            if (permits == null) {
+                permits = new Semaphore(DEFAULT_UPLOAD_CONCURRENCY);
+                sUploadPermits.put(storage, permits);
+            }
+            return permits;
+        }
+    }
+
+    public static long getUploadTimeout() {
+        return sUploadTimeout;
+    }
+
+    /**
+     * 设置一次上传任务的超时时间，超时后释放唤醒锁，还没开始的上传等下次再执行.
+     *
+     * @param timeout 超时时间，单位毫秒
+     */
+    public static void setUploadTimeout(long timeout) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        sUploadTimeout = timeout;
+    }
+
+    /**
+     * 等待所有日志写入文件并刷新，然后关闭日志文件，最多等待3秒.
+     *
+     * @return true - 完成，false - 超时
+     * @see #shutdown(long)
+     */
+    public static boolean shutdown() {
+        return shutdown(DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    /**
+     * 等待所有日志写入文件并刷新，然后关闭日志文件，适合在退出应用前调用. 之后仍然可以打印日志，写入时重新打开文件.
+     *
+     * @param timeoutMillis 最多等待的毫秒数
+     * @return true - 完成，false - 超时
+     */
+    public static boolean shutdown(long timeoutMillis) {
+        return AsyncAppender.getInstance().shutdown(timeoutMillis);
+    }
+
+    /**
+     * 获取日志管道的运行指标，可以定期调用{@link LogMetrics#snapshot()}上报.
+     *
+     * @return 运行指标
+     */
+    @NonNull
+    public static LogMetrics getMetrics() {
+        return LogMetrics.getInstance();
+    }
+
     public static Map<String, Logger> getLoggers() {
         return mLoggers;
     }
@@ -16,9 +16,12 @@
 
 package com.jiongbull.jlog;
 
-import android.os.SystemClock;
+import android.support.annotation.NonNull;
 
-import java.util.ArrayList;
+import com.jiongbull.jlog.platform.Clock;
+import com.jiongbull.jlog.platform.Platform;
+
+import java.util.Arrays;
 
 /**
  * A utility class to help log timings splits throughout a method call.
@@ -39,20 +42,33 @@ import java.util.ArrayList;
  *
  * <pre>
  *     I/TAG     ( 3459): methodA begin
- *     I/TAG     ( 3459): methodA 9 ms, work A
- *     I/TAG     ( 3459): methodA 1 ms, work B
- *     I/TAG     ( 3459): methodA 6 ms, work C
- *     I/TAG     ( 3459): methodA end, 16 ms
+ *     I/TAG     ( 3459): methodA 9.012 ms, work A
+ *     I/TAG     ( 3459): methodA 0.154 ms, work B
+ *     I/TAG     ( 3459): methodA 6.430 ms, work C
+ *     I/TAG     ( 3459): methodA end, 15.596 ms
  * </pre>
+ *
+ * <p>Splits are read from a monotonic nanosecond {@link Clock} and stored in
+ * preallocated arrays, so {@link #addSplit(String)} does not allocate unless the
+ * capacity is exceeded. An instance can be reused with {@link #reset()}. It is not
+ * thread safe.</p>
  */
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class TimingLogger {
 
     private static final String TAG = "timing";
-    /** Stores the time of each split. */
-    private ArrayList<Long> mSplits;
+    /** The number of splits preallocated, including the begin split. */
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    /** The clock used to read split times. */
+    private final Clock mClock;
+    /** Stores the time of each split in nanoseconds. */
+    private long[] mSplits;
     /** Stores the labels for each split. */
-    private ArrayList<String> mSplitLabels;
+    private String[] mSplitLabels;
+    /** The number of splits, including the begin split. */
+    private int mSize;
     /**
      * The Log tag.
      */
@@ -70,7 +86,7 @@ public class TimingLogger {
      * @param logger used for log
      */
     public TimingLogger(String label, Logger logger) {
-        reset(TAG, label, logger);
+        this(TAG, label, logger);
     }
 
     /**
@@ -82,6 +98,27 @@ public class TimingLogger {
      * @param logger used for log
      */
     public TimingLogger(String tag, String label, Logger logger) {
+        this(tag, label, logger, Platform.getClock(), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create and initialize a TimingLogger object that reads split times
+     * from the specific clock.
+     *
+     * @param tag      the log tag to use while logging the timings
+     * @param label    a string to be displayed with each log
+     * @param logger   used for log
+     * @param clock    the clock, only {@link Clock#nanoTime()} is used
+     * @param capacity the number of splits to preallocate, including the begin split
+     */
+    public TimingLogger(String tag, String label, Logger logger, @NonNull Clock clock,
+            int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        mClock = clock;
+        mSplits = new long[capacity];
+        mSplitLabels = new String[capacity];
         reset(tag, label, logger);
     }
 
@@ -93,7 +130,7 @@ public class TimingLogger {
      * @param label  a string to be displayed with each log
      * @param logger used for log
      */
-    private void reset(String tag, String label, Logger logger) {
+    public void reset(String tag, String label, Logger logger) {
         mTag = tag;
         mLabel = label;
         mLogger = logger;
@@ -103,16 +140,11 @@ public class TimingLogger {
     /**
      * Clear and initialize a TimingLogger object that will log using
      * the tag and label that was specified previously, either via
-     * the constructor or a call to reset(tag, label).
+     * the constructor or a call to reset(tag, label, logger).
      */
-    private void reset() {
-        if (mSplits == null) {
-            mSplits = new ArrayList<>();
-            mSplitLabels = new ArrayList<>();
-        } else {
-            mSplits.clear();
-            mSplitLabels.clear();
-        }
+    public void reset() {
+        Arrays.fill(mSplitLabels, 0, mSize, null);
+        mSize = 0;
         addSplit(null);
     }
 
@@ -121,11 +153,55 @@ public class TimingLogger {
      *
      * @param splitLabel a label to associate with this split.
      */
-    @SuppressWarnings("SameParameterValue")
-    private void addSplit(String splitLabel) {
-        long now = SystemClock.elapsedRealtime();
-        mSplits.add(now);
-        mSplitLabels.add(splitLabel);
+    public void addSplit(String splitLabel) {
+        long now = mClock.nanoTime();
+        if (mSize == mSplits.length) {
+            mSplits = Arrays.copyOf(mSplits, mSize * 2);
+            mSplitLabels = Arrays.copyOf(mSplitLabels, mSize * 2);
+        }
+        mSplits[mSize] = now;
+        mSplitLabels[mSize] = splitLabel;
+        mSize++;
+    }
+
+    /**
+     * Get the number of splits added since the last reset.
+     *
+     * @return the number of splits, not including the begin split
+     */
+    public int getSplitCount() {
+        return mSize - 1;
+    }
+
+    /**
+     * Get the label of a split.
+     *
+     * @param index the index of the split, from 0 to getSplitCount() - 1
+     * @return the label
+     */
+    public String getSplitLabel(int index) {
+        checkIndex(index);
+        return mSplitLabels[index + 1];
+    }
+
+    /**
+     * Get the time between a split and the previous one.
+     *
+     * @param index the index of the split, from 0 to getSplitCount() - 1
+     * @return the time in nanoseconds
+     */
+    public long getSplitNanos(int index) {
+        checkIndex(index);
+        return mSplits[index + 1] - mSplits[index];
+    }
+
+    /**
+     * Get the time between the begin and the last split.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return mSplits[mSize - 1] - mSplits[0];
     }
 
     /**
@@ -133,15 +209,43 @@ public class TimingLogger {
      */
     public void dumpToLog() {
         mLogger.i(mTag, mLabel + " begin");
-        final long first = mSplits.get(0);
-        long now = first;
-        for (int i = 1; i < mSplits.size(); i++) {
-            now = mSplits.get(i);
-            final String splitLabel = mSplitLabels.get(i);
-            final long prev = mSplits.get(i - 1);
-
-            mLogger.i(mTag, mLabel + " " + (now - prev) + " ms, " + splitLabel);
+        StringBuilder sb = new StringBuilder(mLabel.length() + 32);
+        for (int i = 1; i < mSize; i++) {
+            sb.setLength(0);
+            sb.append(mLabel).append(' ');
+            appendMillis(sb, mSplits[i] - mSplits[i - 1]);
+            sb.append(" ms, ").append(mSplitLabels[i]);
+            mLogger.i(mTag, sb.toString());
+        }
+        sb.setLength(0);
+        sb.append(mLabel).append(" end, ");
+        appendMillis(sb, getTotalNanos());
+        sb.append(" ms");
+        mLogger.i(mTag, sb.toString());
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize - 1) {
+            throw new IndexOutOfBoundsException("index " + index + ", count " + (mSize - 1));
+        }
+    }
+
+    /**
+     * Append nanoseconds as milliseconds with microsecond precision, e.g. 1.024.
+     *
+     * @param sb    the builder
+     * @param nanos the time in nanoseconds
+     */
+    private static void appendMillis(@NonNull StringBuilder sb, long nanos) {
+        long micros = nanos / NANOS_PER_MICRO;
+        long fraction = micros % 1000;
+        sb.append(micros / 1000).append('.');
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
         }
-        mLogger.i(mTag, mLabel + " end, " + (now - first) + " ms");
+        sb.append(fraction);
     }
 }
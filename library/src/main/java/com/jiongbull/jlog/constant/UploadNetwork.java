@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.constant;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static com.jiongbull.jlog.constant.UploadNetwork.ANY;
+import static com.jiongbull.jlog.constant.UploadNetwork.WIFI;
+
+/**
+ * 允许上传日志的网络.
+ */
+@IntDef({ANY, WIFI})
+@Retention(RetentionPolicy.SOURCE)
+public @interface UploadNetwork {
+    /** wifi和移动网络都可以上传，移动网络下受上传大小的限制. */
+    int ANY = 0;
+    /** 只在wifi（或有线网络）下上传. */
+    int WIFI = 1;
+}
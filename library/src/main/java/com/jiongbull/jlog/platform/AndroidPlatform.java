@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.platform;
+
+import android.content.Context;
+import android.os.Environment;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.jiongbull.jlog.R;
+import com.jiongbull.jlog.constant.LogPriority;
+import com.jiongbull.jlog.util.SysUtils;
+
+import java.io.File;
+
+/**
+ * Android平台，控制台是LogCat，存储的根目录是外部存储，设备信息包括应用和系统的版本.
+ *
+ * <p>创建日志实例时自动安装，时钟使用默认的{@link Clock#SYSTEM}.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class AndroidPlatform {
+
+    private static boolean sInstalled;
+
+    private AndroidPlatform() {
+    }
+
+    /**
+     * 安装Android平台，只有第一次调用生效.
+     *
+     * @param context {@link Context}
+     */
+    public static synchronized void install(@NonNull Context context) {
+        if (sInstalled) {
+            return;
+        }
+        sInstalled = true;
+        Platform.setConsole(new LogcatConsole());
+        Platform.setStorageRoot(new ExternalStorageRoot());
+        Platform.setDeviceInfo(new AppDeviceInfo(context.getApplicationContext()));
+    }
+
+    /**
+     * 使用LogCat输出日志.
+     */
+    private static final class LogcatConsole implements Console {
+
+        @Override
+        public void println(@LogPriority int priority, @NonNull String tag,
+                @NonNull String msg) {
+            switch (priority) {
+                case LogPriority.VERBOSE:
+                    Log.v(tag, msg);
+                    break;
+                case LogPriority.DEBUG:
+                    Log.d(tag, msg);
+                    break;
+                case LogPriority.INFO:
+                case LogPriority.JSON:
+                    Log.i(tag, msg);
+                    break;
+                case LogPriority.WARN:
+                    Log.w(tag, msg);
+                    break;
+                case LogPriority.ERROR:
+                    Log.e(tag, msg);
+                    break;
+                case LogPriority.WTF:
+                    Log.wtf(tag, msg);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 外部存储的根目录.
+     */
+    private static final class ExternalStorageRoot implements StorageRoot {
+
+        @NonNull
+        @Override
+        public File getRoot() {
+            return Environment.getExternalStorageDirectory();
+        }
+    }
+
+    /**
+     * 应用和系统的版本，以及设备的品牌和型号.
+     */
+    private static final class AppDeviceInfo implements DeviceInfo {
+
+        private final Context mContext;
+        /** 设备信息不会改变，第一次使用时生成. */
+        private volatile String mHeader;
+
+        AppDeviceInfo(@NonNull Context context) {
+            mContext = context;
+        }
+
+        @NonNull
+        @Override
+        public String getHeader() {
+            String header = mHeader;
+            if (header == null) {
+                header = genHeader();
+                mHeader = header;
+            }
+            return header;
+        }
+
+        private String genHeader() {
+            String lineSeparator = SysUtils.getLineSeparator();
+            return mContext.getString(R.string.app_version_name) + ": "
+                    + SysUtils.getAppVersionName(mContext) + lineSeparator
+                    + mContext.getString(R.string.app_version_code) + ": "
+                    + SysUtils.getAppVersionCode(mContext) + lineSeparator
+                    + mContext.getString(R.string.os_version_name) + ": "
+                    + SysUtils.getOsVersionName() + lineSeparator
+                    + mContext.getString(R.string.os_version_code) + ": "
+                    + SysUtils.getOsVersionCode() + lineSeparator
+                    + mContext.getString(R.string.os_display_name) + ": "
+                    + SysUtils.getOsVersionDisplayName() + lineSeparator
+                    + mContext.getString(R.string.brand_info) + ": "
+                    + SysUtils.getBrandInfo() + lineSeparator
+                    + mContext.getString(R.string.product_info) + ": "
+                    + SysUtils.getProductInfo() + lineSeparator
+                    + mContext.getString(R.string.model_info) + ": "
+                    + SysUtils.getModelInfo() + lineSeparator
+                    + mContext.getString(R.string.manufacturer_info) + ": "
+                    + SysUtils.getManufacturerInfo() + lineSeparator + lineSeparator
+                    + lineSeparator;
+        }
+    }
+}
@@ -14,39 +14,222 @@
  * limitations under the License.
  */
 
+
 package com.jiongbull.jlog.service;
 
 import android.app.IntentService;
 import android.content.Intent;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
 import android.support.v4.content.WakefulBroadcastReceiver;
+import android.util.Log;
 
 import com.jiongbull.jlog.IStorage;
 import com.jiongbull.jlog.Logger;
 import com.jiongbull.jlog.LoggerGlobal;
+import com.jiongbull.jlog.metrics.LogMetrics;
+import com.jiongbull.jlog.storage.ChunkedStorage;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 执行日志任务的服务.
+ *
+ * <p>只上传{@link UploadScheduler}判断可以上传的日志实例，结束后由它设置下一次检查.
+ * 各个日志实例在线程池中并行上传，同一个云存储同时上传的数量不超过
+ * {@link LoggerGlobal#setUploadConcurrency}的设置. 全部上传完成或者超过
+ * {@link LoggerGlobal#setUploadTimeout}的时间后释放唤醒锁，超时后还没开始的上传等下次再执行.</p>
  */
 public class LogService extends IntentService {
 
+    private static final String TAG = "log";
+    /** 上传日志的最大线程数. */
+    private static final int MAX_UPLOAD_THREADS = 4;
+
+    /** 正在上传的日志实例的名字，上一次的上传超时后还没结束时不重复上传. */
+    private static final Set<String> sUploading = Collections.newSetFromMap(
+            new ConcurrentHashMap<String, Boolean>());
+    /** 上传日志的线程池. */
+    private static ExecutorService sExecutor;
+
     public LogService() {
         super("LogService");
     }
 
     @Override
     protected void onHandleIntent(Intent intent) {
-        Map<String, Logger> loggersMap = LoggerGlobal.getLoggers();
-        Set<Map.Entry<String, Logger>> loggersSet = loggersMap.entrySet();
-        for (Map.Entry<String, Logger> entry : loggersSet) {
-            Logger logger = entry.getValue();
+        try {
+            uploadAll();
+        } finally {
+            UploadScheduler.scheduleNext(this);
+            WakefulBroadcastReceiver.completeWakefulIntent(intent); // 释放锁
+        }
+    }
+
+    /**
+     * 并行上传所有日志实例，直到全部完成或者超时.
+     *
+     * <p>日志实例按云存储分组，每个云存储只为立即获得的许可启动任务，依次上传组内的日志实例，
+     * 这样等待许可的日志实例不会占用线程池. 许可被上一次还没结束的上传占满时，这一组等下次再上传.</p>
+     */
+    private void uploadAll() {
+        Map<IStorage, Queue<Logger>> groups = new IdentityHashMap<>();
+        int count = 0;
+        for (Logger logger : new ArrayList<>(LoggerGlobal.getLoggers().values())) {
             IStorage storage = logger.getStorage();
-            if (storage != null) {
+            if (storage == null || !UploadScheduler.isReady(this, logger)
+                    || !sUploading.add(logger.getName())) {
+                continue;
+            }
+            Queue<Logger> group = groups.get(storage);
+            if (group == null) {
+                group = new ConcurrentLinkedQueue<>();
+                groups.put(storage, group);
+            }
+            group.add(logger);
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        final long deadline = SystemClock.elapsedRealtime() + LoggerGlobal.getUploadTimeout();
+        final CountDownLatch latch = new CountDownLatch(count);
+        ExecutorService executor = getExecutor();
+        for (Map.Entry<IStorage, Queue<Logger>> entry : groups.entrySet()) {
+            final Semaphore permits = LoggerGlobal.getUploadPermits(entry.getKey());
+            final Queue<Logger> group = entry.getValue();
+            int workers = 0;
+            while (workers < group.size() && permits.tryAcquire()) {
+                workers++;
+            }
+            if (workers == 0) {
+                skip(group, latch);
+                continue;
+            }
+            for (int i = 0; i < workers; i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        upload(group, permits, deadline, latch);
+                    }
+                });
+            }
+        }
+        try {
+            long remain = deadline - SystemClock.elapsedRealtime();
+            if (!latch.await(Math.max(remain, 0), TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, "上传日志超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 依次上传组内的日志实例，完成后释放已经获得的许可，超时后剩下的日志实例等下次再上传.
+     *
+     * @param group    同一个云存储的日志实例
+     * @param permits  云存储的上传许可，调用前已经获得一个
+     * @param deadline 超时时间，{@link SystemClock#elapsedRealtime()}
+     * @param latch    每处理一个日志实例减一
+     */
+    private static void upload(@NonNull Queue<Logger> group, @NonNull Semaphore permits,
+            long deadline, @NonNull CountDownLatch latch) {
+        try {
+            Logger logger;
+            while ((logger = group.poll()) != null) {
+                try {
+                    IStorage storage = logger.getStorage();
+                    if (storage != null && SystemClock.elapsedRealtime() < deadline) {
+                        if (upload(storage, logger)) {
+                            UploadScheduler.onSuccess(logger);
+                        } else {
+                            UploadScheduler.onFailure(logger);
+                        }
+                    }
+                } finally {
+                    sUploading.remove(logger.getName());
+                    latch.countDown();
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 跳过组内的日志实例，等下次再上传.
+     *
+     * @param group 同一个云存储的日志实例
+     * @param latch 每跳过一个日志实例减一
+     */
+    private static void skip(@NonNull Queue<Logger> group, @NonNull CountDownLatch latch) {
+        Logger logger;
+        while ((logger = group.poll()) != null) {
+            sUploading.remove(logger.getName());
+            latch.countDown();
+        }
+    }
+
+    /**
+     * 上传一个日志实例，{@link ChunkedStorage}上传失败时会抛出异常，其他云存储只能通过运行时异常判断.
+     *
+     * @param storage 云存储
+     * @param logger  日志实例
+     * @return true - 上传成功，false - 上传失败
+     */
+    private static boolean upload(@NonNull IStorage storage, @NonNull Logger logger) {
+        long start = System.nanoTime();
+        try {
+            if (storage instanceof ChunkedStorage) {
+                ((ChunkedStorage) storage).uploadAll(logger);
+            } else {
                 storage.upload(logger);
             }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "上传日志异常", e);
+            return false;
+        } finally {
+            LogMetrics.getInstance().onUploaded(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 获取上传日志的线程池，空闲时自动回收线程.
+     *
+     * @return 线程池
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_UPLOAD_THREADS,
+                    MAX_UPLOAD_THREADS, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(@NonNull Runnable r) {
+                            Thread thread = new Thread(r, "jlog-upload");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            sExecutor = executor;
         }
-        WakefulBroadcastReceiver.completeWakefulIntent(intent); // 释放锁
+        return sExecutor;
     }
-}
\ No newline at end of file
+}
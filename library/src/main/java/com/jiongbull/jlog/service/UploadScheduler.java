@@ -0,0 +1,249 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.service;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.IStorage;
+import com.jiongbull.jlog.Logger;
+import com.jiongbull.jlog.LoggerGlobal;
+import com.jiongbull.jlog.constant.UploadNetwork;
+import com.jiongbull.jlog.receiver.LogReceiver;
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.LogUtils;
+import com.jiongbull.jlog.util.NetUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 上传日志的调度.
+ *
+ * <p>只有日志目录中有待上传的文件（当前时间切片之前的日志、压缩文件），并且网络满足日志实例的
+ * {@link Logger#setUploadNetwork}和{@link Logger#setMaxMobileUploadSize}时才上传.
+ * 上传失败后按指数退避重试，退避结束前不再上传这个日志实例.</p>
+ *
+ * <p>调度使用一次性的定时任务，有日志可以上传时才唤醒设备，否则等设备被其他原因唤醒后再检查.
+ * 退避时间相近的日志实例在同一次唤醒中一起上传.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class UploadScheduler {
+
+    /** 第一次失败后的退避时间，单位毫秒. */
+    private static final long INITIAL_BACKOFF = 5 * 60 * 1000L;
+    /** 最长的退避时间，单位毫秒. */
+    private static final long MAX_BACKOFF = 6 * 60 * 60 * 1000L;
+    /** 批量上传的时间窗口，单位毫秒，退避在这个时间内结束的日志实例和本次一起上传. */
+    private static final long BATCH_WINDOW = 60 * 1000L;
+
+    /** 上传失败的日志实例，以名字为key. */
+    private static final Map<String, Backoff> sBackoffs = new HashMap<>();
+
+    private UploadScheduler() {
+    }
+
+    /**
+     * 设置下一次检查上传的定时任务，覆盖之前的设置.
+     *
+     * @param context Context
+     * @param delay   延迟，单位毫秒
+     * @param wakeup  true - 需要唤醒设备，false - 等设备唤醒后再执行
+     */
+    public static void schedule(@NonNull Context context, long delay, boolean wakeup) {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        Intent intent = new Intent(context, LogReceiver.class);
+        PendingIntent alarmIntent = PendingIntent.getBroadcast(context, 0, intent, 0);
+        int type = wakeup ? AlarmManager.ELAPSED_REALTIME_WAKEUP : AlarmManager.ELAPSED_REALTIME;
+        long triggerAt = SystemClock.elapsedRealtime() + Math.max(delay, 0);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            alarmManager.setWindow(type, triggerAt, BATCH_WINDOW, alarmIntent);
+        } else {
+            alarmManager.set(type, triggerAt, alarmIntent);
+        }
+    }
+
+    /**
+     * 根据各个日志实例的状态设置下一次检查.
+     *
+     * <p>有日志可以上传时，在最早的退避结束时唤醒设备，没有退避（本次超时没有上传）时一个上传间隔后
+     * 唤醒设备；没有日志可以上传或者网络不满足时，一个上传间隔后等设备唤醒再检查.</p>
+     *
+     * @param context Context
+     */
+    public static void scheduleNext(@NonNull Context context) {
+        long now = SystemClock.elapsedRealtime();
+        long interval = LoggerGlobal.getUploadInterval();
+        long wakeupAt = Long.MAX_VALUE;
+        for (Logger logger : new ArrayList<>(LoggerGlobal.getLoggers().values())) {
+            if (logger.getStorage() == null) {
+                continue;
+            }
+            long pendingSize = getPendingSize(logger);
+            if (pendingSize == 0) {
+                onSuccess(logger); // 待上传的文件已经被其他方式处理
+                continue;
+            }
+            if (!isNetworkAllowed(context, logger, pendingSize)) {
+                continue; // 网络不满足时不唤醒设备
+            }
+            long backoffEnd = getBackoffEnd(logger);
+            wakeupAt = Math.min(wakeupAt, backoffEnd > now ? backoffEnd : now + interval);
+        }
+        if (wakeupAt <= now + interval) {
+            schedule(context, wakeupAt - now, true);
+        } else {
+            schedule(context, interval, false);
+        }
+    }
+
+    /**
+     * 判断日志实例现在是否应该上传.
+     *
+     * @param context Context
+     * @param logger  日志实例
+     * @return true - 有待上传的文件，不在退避中，网络也满足要求
+     */
+    public static boolean isReady(@NonNull Context context, @NonNull Logger logger) {
+        IStorage storage = logger.getStorage();
+        if (storage == null
+                || getBackoffEnd(logger) > SystemClock.elapsedRealtime() + BATCH_WINDOW) {
+            return false;
+        }
+        long pendingSize = getPendingSize(logger);
+        return pendingSize > 0 && isNetworkAllowed(context, logger, pendingSize);
+    }
+
+    /**
+     * 判断当前网络是否允许上传日志实例的文件.
+     *
+     * @param context     Context
+     * @param logger      日志实例
+     * @param pendingSize 待上传的大小，单位byte
+     * @return true - 允许上传
+     */
+    public static boolean isNetworkAllowed(@NonNull Context context, @NonNull Logger logger,
+            long pendingSize) {
+        if (NetUtils.isWifiConnected(context) || NetUtils.isEthernetConnected(context)) {
+            return true;
+        }
+        if (logger.getUploadNetwork() == UploadNetwork.WIFI
+                || !NetUtils.isMobileConnected(context)) {
+            return false;
+        }
+        long maxSize = logger.getMaxMobileUploadSize();
+        return maxSize <= 0 || pendingSize <= maxSize;
+    }
+
+    /**
+     * 计算日志实例待上传的大小，包括当前时间切片之前的日志和压缩文件，未压缩的日志按原始大小计算.
+     *
+     * @param logger 日志实例
+     * @return 待上传的大小，单位byte，0表示没有待上传的文件
+     */
+    public static long getPendingSize(@NonNull Logger logger) {
+        File logDir = new File(LogUtils.genDirPath(logger.getLogDir()));
+        if (!logDir.isDirectory()) {
+            return 0;
+        }
+        long size = 0;
+        File[] logFiles = LogUtils.filterLogFiles(LogUtils.getLogFiles(logDir),
+                logger.getZoneOffset(), logger.getLogPrefix(), logger.getLogSegment());
+        for (File file : logFiles) {
+            size += file.length();
+        }
+        File[] zipFiles = FileUtils.getZipFiles(logDir);
+        if (zipFiles != null) {
+            for (File file : zipFiles) {
+                size += file.length();
+            }
+        }
+        File[] gzipFiles = FileUtils.getGzipFiles(logDir);
+        if (gzipFiles != null) {
+            String current = LogUtils.genFileName(logger.getLogPrefix(), logger.getLogSegment(),
+                    logger.getZoneOffset()) + FileUtils.GZIP_EXT;
+            for (File file : gzipFiles) {
+                if (!file.getName().equals(current)) {
+                    size += file.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 上传成功，清除退避状态.
+     *
+     * @param logger 日志实例
+     */
+    static void onSuccess(@NonNull Logger logger) {
+        synchronized (sBackoffs) {
+            sBackoffs.remove(logger.getName());
+        }
+    }
+
+    /**
+     * 上传失败，退避时间加倍.
+     *
+     * @param logger 日志实例
+     */
+    static void onFailure(@NonNull Logger logger) {
+        synchronized (sBackoffs) {
+            Backoff backoff = sBackoffs.get(logger.getName());
+            if (backoff == null) {
+                backoff = new Backoff();
+                sBackoffs.put(logger.getName(), backoff);
+            }
+            long delay = MAX_BACKOFF;
+            if (backoff.failures < Long.numberOfLeadingZeros(INITIAL_BACKOFF) - 1) {
+                delay = Math.min(INITIAL_BACKOFF << backoff.failures, MAX_BACKOFF);
+            }
+            backoff.failures++;
+            backoff.end = SystemClock.elapsedRealtime() + delay;
+        }
+    }
+
+    /**
+     * 获取日志实例的退避结束时间.
+     *
+     * @param logger 日志实例
+     * @return 退避结束时间，{@link SystemClock#elapsedRealtime()}，没有退避时为0
+     */
+    static long getBackoffEnd(@NonNull Logger logger) {
+        synchronized (sBackoffs) {
+            Backoff backoff = sBackoffs.get(logger.getName());
+            return backoff == null ? 0 : backoff.end;
+        }
+    }
+
+    /**
+     * 退避状态.
+     */
+    private static final class Backoff {
+        /** 连续失败的次数. */
+        int failures;
+        /** 退避结束时间，{@link SystemClock#elapsedRealtime()}. */
+        long end;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.storage;
+
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.jiongbull.jlog.IStorage;
+import com.jiongbull.jlog.Logger;
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.IOUtils;
+import com.jiongbull.jlog.util.LogUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 分块上传、支持断点续传的云存储.
+ *
+ * <p>每次上传时先压缩当前时间切片之前的日志，再把目录中的压缩文件（.zip和已经结束的.gz）
+ * 按固定大小分块上传. 每块被服务端确认后保存进度，失败后下次从最后确认的位置继续，
+ * 不会重新上传整个文件. 文件上传完成后默认删除.</p>
+ *
+ * <p>子类只需要实现{@link #begin}、{@link #uploadChunk}和{@link #complete}三个网络请求，
+ * 它们在上传线程中同步调用，失败时抛出{@link IOException}.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public abstract class ChunkedStorage implements IStorage {
+
+    /** 默认的块大小. */
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private static final String TAG = "log";
+
+    /** 块大小. */
+    private final int mChunkSize;
+
+    protected ChunkedStorage() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 创建云存储.
+     *
+     * @param chunkSize 块大小，单位byte
+     */
+    protected ChunkedStorage(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        mChunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return mChunkSize;
+    }
+
+    @Override
+    public void upload(@NonNull Logger logger) {
+        try {
+            uploadAll(logger);
+        } catch (IOException e) {
+            Log.e(TAG, "上传日志异常", e);
+        }
+    }
+
+    /**
+     * 压缩并上传日志实例的所有待上传文件，遇到失败时停止，剩下的文件下次再上传.
+     *
+     * @param logger 日志实例
+     * @throws IOException 压缩或上传失败
+     */
+    public void uploadAll(@NonNull Logger logger) throws IOException {
+        for (File file : getPendingFiles(logger)) {
+            uploadFile(file);
+        }
+    }
+
+    /**
+     * 压缩当前时间切片之前的日志，返回所有待上传的文件.
+     *
+     * @param logger 日志实例
+     * @return 待上传的文件，按文件名排序
+     * @throws IOException 压缩失败
+     */
+    @NonNull
+    public List<File> getPendingFiles(@NonNull Logger logger) throws IOException {
+        File logDir = new File(LogUtils.genDirPath(logger.getLogDir()));
+        List<File> result = new ArrayList<>();
+        if (!logDir.isDirectory()) {
+            return result;
+        }
+        File[] logFiles = LogUtils.filterLogFiles(LogUtils.getLogFiles(logDir),
+                logger.getZoneOffset(), logger.getLogPrefix(), logger.getLogSegment());
+        if (logFiles.length > 0) {
+            LogUtils.zipLogs(logFiles, logger.getCompressionLevel());
+        }
+        String current = LogUtils.genFileName(logger.getLogPrefix(), logger.getLogSegment(),
+                logger.getZoneOffset()) + FileUtils.GZIP_EXT;
+        File[] zipFiles = FileUtils.getZipFiles(logDir);
+        if (zipFiles != null) {
+            result.addAll(Arrays.asList(zipFiles));
+        }
+        File[] gzipFiles = FileUtils.getGzipFiles(logDir);
+        if (gzipFiles != null) {
+            for (File file : gzipFiles) {
+                if (!file.getName().equals(current)) {
+                    result.add(file); // 正在写入的gzip文件等结束后再上传
+                }
+            }
+        }
+        File[] files = result.toArray(new File[result.size()]);
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * 从上次确认的位置开始上传一个文件，完成后调用{@link #onUploaded}.
+     *
+     * @param file 待上传的文件
+     * @throws IOException 上传失败，已经确认的进度会保留
+     */
+    public void uploadFile(@NonNull File file) throws IOException {
+        long length = file.length();
+        UploadManifest manifest = UploadManifest.load(file);
+        String uploadId = manifest.getUploadId();
+        long offset = -1;
+        if (uploadId != null) {
+            offset = resume(uploadId, file.getName(), length, manifest.getOffset());
+        }
+        if (offset < 0 || offset > length) {
+            uploadId = begin(file.getName(), length);
+            offset = 0;
+            manifest.save(file, uploadId, offset);
+        }
+
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            byte[] chunk = new byte[(int) Math.min(mChunkSize, Math.max(length, 1))];
+            while (offset < length) {
+                int count = (int) Math.min(chunk.length, length - offset);
+                in.seek(offset);
+                in.readFully(chunk, 0, count);
+                uploadChunk(uploadId, offset, chunk, count);
+                offset += count;
+                manifest.save(file, uploadId, offset);
+            }
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        complete(uploadId, file.getName(), length);
+        manifest.delete();
+        onUploaded(file);
+    }
+
+    /**
+     * 开始上传一个文件.
+     *
+     * @param fileName 文件名
+     * @param length   文件长度
+     * @return 上传ID，用于之后的请求和断点续传
+     * @throws IOException 请求失败
+     */
+    @NonNull
+    protected abstract String begin(@NonNull String fileName, long length) throws IOException;
+
+    /**
+     * 上传一块，正常返回表示服务端已经确认. 同一块可能因为进度没有保存而被重复上传，服务端需要按位置覆盖.
+     *
+     * @param uploadId 上传ID
+     * @param offset   这一块在文件中的位置
+     * @param data     数据
+     * @param length   数据的长度
+     * @throws IOException 请求失败
+     */
+    protected abstract void uploadChunk(@NonNull String uploadId, long offset,
+            @NonNull byte[] data, int length) throws IOException;
+
+    /**
+     * 所有块都已确认，结束上传.
+     *
+     * @param uploadId 上传ID
+     * @param fileName 文件名
+     * @param length   文件长度
+     * @throws IOException 请求失败
+     */
+    protected abstract void complete(@NonNull String uploadId, @NonNull String fileName,
+            long length) throws IOException;
+
+    /**
+     * 继续之前的上传，默认信任本地保存的进度. 服务端可以查询实际进度的子类应该覆盖这个方法.
+     *
+     * @param uploadId    上传ID
+     * @param fileName    文件名
+     * @param length      文件长度
+     * @param localOffset 本地保存的已确认位置
+     * @return 继续上传的位置，-1表示上传已经失效，需要重新开始
+     * @throws IOException 请求失败
+     */
+    protected long resume(@NonNull String uploadId, @NonNull String fileName, long length,
+            long localOffset) throws IOException {
+        return localOffset;
+    }
+
+    /**
+     * 文件上传完成后调用，默认删除文件.
+     *
+     * @param file 上传完成的文件
+     */
+    protected void onUploaded(@NonNull File file) {
+        FileUtils.delete(file);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.storage;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * 把日志“上传”到本地目录的云存储，可以用来测试上传流程，或者把日志集中到另一个目录.
+ *
+ * <p>上传中的文件以“.part”结尾，上传ID就是它的路径，续传时以它的长度作为服务端确认的位置.</p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class LocalFileStorage extends ChunkedStorage {
+
+    private static final String PART_EXT = ".part";
+
+    /** 目标目录. */
+    private final File mTargetDir;
+
+    public LocalFileStorage(@NonNull File targetDir) {
+        this(targetDir, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 创建本地存储.
+     *
+     * @param targetDir 目标目录
+     * @param chunkSize 块大小，单位byte
+     */
+    public LocalFileStorage(@NonNull File targetDir, int chunkSize) {
+        super(chunkSize);
+        mTargetDir = targetDir;
+    }
+
+    public File getTargetDir() {
+        return mTargetDir;
+    }
+
+    @NonNull
+    @Override
+    protected String begin(@NonNull String fileName, long length) throws IOException {
+        if (!FileUtils.createDir(mTargetDir.getAbsolutePath())) {
+            throw new IOException("create dir failed: " + mTargetDir);
+        }
+        File part = new File(mTargetDir, fileName + PART_EXT);
+        RandomAccessFile out = new RandomAccessFile(part, "rw");
+        try {
+            out.setLength(0);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+        return part.getAbsolutePath();
+    }
+
+    @Override
+    protected void uploadChunk(@NonNull String uploadId, long offset, @NonNull byte[] data,
+            int length) throws IOException {
+        RandomAccessFile out = new RandomAccessFile(uploadId, "rw");
+        try {
+            out.seek(offset);
+            out.write(data, 0, length);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    @Override
+    protected void complete(@NonNull String uploadId, @NonNull String fileName, long length)
+            throws IOException {
+        File part = new File(uploadId);
+        if (part.length() != length) {
+            throw new IOException("incomplete upload: " + part);
+        }
+        File target = new File(mTargetDir, fileName);
+        if (!part.renameTo(target)) {
+            throw new IOException("rename failed: " + part);
+        }
+    }
+
+    @Override
+    protected long resume(@NonNull String uploadId, @NonNull String fileName, long length,
+            long localOffset) throws IOException {
+        File part = new File(uploadId);
+        if (!part.isFile()) {
+            return -1;
+        }
+        // 本地进度可能落后于实际写入的位置，以两者中较小的为准
+        return Math.min(part.length(), localOffset);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.storage;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.util.FileUtils;
+import com.jiongbull.jlog.util.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * 一个文件的上传进度，保存在文件旁边的隐藏文件中，见{@link FileUtils#getUploadFile(File)}.
+ *
+ * <p>记录上传ID、文件的长度和最后修改时间，以及服务端已经确认的位置. 文件改变后进度失效.</p>
+ */
+final class UploadManifest {
+
+    private static final String KEY_UPLOAD_ID = "uploadId";
+    private static final String KEY_LENGTH = "length";
+    private static final String KEY_MODIFIED = "modified";
+    private static final String KEY_OFFSET = "offset";
+
+    /** 进度文件. */
+    private final File mFile;
+    /** 上传ID，还未开始上传时为null. */
+    private String mUploadId;
+    /** 已经确认的位置. */
+    private long mOffset;
+
+    private UploadManifest(@NonNull File file) {
+        mFile = file;
+    }
+
+    /**
+     * 读取文件的上传进度，进度不存在、损坏或者文件已经改变时返回空的进度.
+     *
+     * @param file 待上传的文件
+     * @return 上传进度
+     */
+    @NonNull
+    static UploadManifest load(@NonNull File file) {
+        UploadManifest manifest = new UploadManifest(FileUtils.getUploadFile(file));
+        if (!manifest.mFile.isFile()) {
+            return manifest;
+        }
+        Properties properties = new Properties();
+        InputStream in = null;
+        try {
+            in = new FileInputStream(manifest.mFile);
+            properties.load(in);
+            long length = Long.parseLong(properties.getProperty(KEY_LENGTH));
+            long modified = Long.parseLong(properties.getProperty(KEY_MODIFIED));
+            long offset = Long.parseLong(properties.getProperty(KEY_OFFSET));
+            String uploadId = properties.getProperty(KEY_UPLOAD_ID);
+            if (uploadId != null && length == file.length() && modified == file.lastModified()
+                    && offset >= 0 && offset <= length) {
+                manifest.mUploadId = uploadId;
+                manifest.mOffset = offset;
+            }
+        } catch (IOException | RuntimeException e) {
+            // 无法读取的进度当作没有进度，重新上传
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        return manifest;
+    }
+
+    String getUploadId() {
+        return mUploadId;
+    }
+
+    long getOffset() {
+        return mOffset;
+    }
+
+    /**
+     * 保存进度，先写入临时文件再重命名，进程在写入时被杀也不会留下损坏的进度.
+     *
+     * @param file     待上传的文件
+     * @param uploadId 上传ID
+     * @param offset   已经确认的位置
+     * @throws IOException 保存失败
+     */
+    void save(@NonNull File file, @NonNull String uploadId, long offset) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(KEY_UPLOAD_ID, uploadId);
+        properties.setProperty(KEY_LENGTH, String.valueOf(file.length()));
+        properties.setProperty(KEY_MODIFIED, String.valueOf(file.lastModified()));
+        properties.setProperty(KEY_OFFSET, String.valueOf(offset));
+        File temp = new File(mFile.getPath() + ".tmp");
+        OutputStream out = new FileOutputStream(temp);
+        try {
+            properties.store(out, null);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+        if (!temp.renameTo(mFile)) {
+            throw new IOException("save upload manifest failed: " + mFile);
+        }
+        mUploadId = uploadId;
+        mOffset = offset;
+    }
+
+    /**
+     * 删除进度.
+     */
+    void delete() {
+        mFile.delete();
+        mUploadId = null;
+        mOffset = 0;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jiongbull.jlog.storage;
+
+import android.support.annotation.NonNull;
+
+import com.jiongbull.jlog.util.FileUtils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import okio.BufferedSource;
+import okio.Okio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 通过{@link LocalFileStorage}测试{@link UploadManifest}记录的进度和断点续传.
+ */
+public class LocalFileStorageTest {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void uploadCopiesFileAndCleansUp() throws IOException {
+        File file = newFile("2016-01-19.zip", 5 * CHUNK_SIZE + 100);
+        byte[] data = read(file);
+        FailingStorage storage = new FailingStorage(mFolder.newFolder("target"), -1);
+        storage.uploadFile(file);
+
+        assertArrayEquals(data, read(new File(storage.getTargetDir(), file.getName())));
+        assertFalse(file.exists());
+        assertFalse(FileUtils.getUploadFile(file).exists());
+    }
+
+    @Test
+    public void failedUploadResumesFromLastConfirmedChunk() throws IOException {
+        File file = newFile("2016-01-19.zip", 5 * CHUNK_SIZE + 100);
+        byte[] data = read(file);
+        File targetDir = mFolder.newFolder("target");
+        FailingStorage storage = new FailingStorage(targetDir, 3);
+        try {
+            storage.uploadFile(file);
+            fail("upload should fail");
+        } catch (IOException e) {
+            // 第4块失败
+        }
+        assertTrue(file.exists());
+        UploadManifest manifest = UploadManifest.load(file);
+        assertEquals(3 * CHUNK_SIZE, manifest.getOffset());
+
+        FailingStorage resumed = new FailingStorage(targetDir, -1);
+        resumed.uploadFile(file);
+        assertEquals(Arrays.asList(3L * CHUNK_SIZE, 4L * CHUNK_SIZE, 5L * CHUNK_SIZE),
+                resumed.mOffsets);
+        assertArrayEquals(data, read(new File(targetDir, file.getName())));
+        assertFalse(FileUtils.getUploadFile(file).exists());
+    }
+
+    @Test
+    public void changedFileStartsOver() throws IOException {
+        File file = newFile("2016-01-19.zip", 5 * CHUNK_SIZE);
+        File targetDir = mFolder.newFolder("target");
+        try {
+            new FailingStorage(targetDir, 2).uploadFile(file);
+            fail("upload should fail");
+        } catch (IOException e) {
+            // 第3块失败
+        }
+        byte[] data = new byte[4 * CHUNK_SIZE];
+        new Random(2).nextBytes(data);
+        write(file, data);
+
+        FailingStorage restarted = new FailingStorage(targetDir, -1);
+        restarted.uploadFile(file);
+        assertEquals(Long.valueOf(0), restarted.mOffsets.get(0));
+        assertArrayEquals(data, read(new File(targetDir, file.getName())));
+    }
+
+    private File newFile(String name, int length) throws IOException {
+        byte[] data = new byte[length];
+        new Random(1).nextBytes(data);
+        File file = new File(mFolder.getRoot(), name);
+        write(file, data);
+        return file;
+    }
+
+    private static void write(File file, byte[] data) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] read(File file) throws IOException {
+        BufferedSource source = Okio.buffer(Okio.source(file));
+        try {
+            return source.readByteArray();
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * 上传指定块数后失败的本地存储，记录每一块的位置.
+     */
+    private static final class FailingStorage extends LocalFileStorage {
+        /** 成功上传多少块后失败，-1表示不失败. */
+        private final int mFailAfter;
+        private final List<Long> mOffsets = new ArrayList<>();
+
+        private FailingStorage(File targetDir, int failAfter) {
+            super(targetDir, CHUNK_SIZE);
+            mFailAfter = failAfter;
+        }
+
+        @Override
+        protected void uploadChunk(@NonNull String uploadId, long offset, @NonNull byte[] data,
+                int length) throws IOException {
+            if (mOffsets.size() == mFailAfter) {
+                throw new IOException("network down");
+            }
+            mOffsets.add(offset);
+            super.uploadChunk(uploadId, offset, data, length);
+        }
+    }
+}
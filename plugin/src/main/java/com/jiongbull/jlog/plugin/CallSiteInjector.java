@@ -0,0 +1,324 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.plugin;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 为Logger的调用注入调用位置.
+ *
+ * <p>每个调用点会生成一个私有静态常量，在类初始化时创建{@code CallSite}.
+ * 调用被改写为“压入常量 + 调用私有静态桥接方法”，由桥接方法转调{@code Logger.x(CallSite, ...)}重载，
+ * 这样不需要调整操作数栈和局部变量，运行时也无需再获取异常栈.</p>
+ */
+final class CallSiteInjector {
+
+    /** Logger的内部类名. */
+    private static final String LOGGER_OWNER = "com/jiongbull/jlog/Logger";
+    /** CallSite的内部类名. */
+    private static final String CALL_SITE_OWNER = "com/jiongbull/jlog/CallSite";
+    /** CallSite的类型描述. */
+    private static final String CALL_SITE_DESC = "L" + CALL_SITE_OWNER + ";";
+    /** CallSite构造方法的描述. */
+    private static final String CALL_SITE_INIT_DESC =
+            "(Ljava/lang/String;Ljava/lang/String;Ljava/lang/String;I)V";
+    /** 生成的静态常量名前缀. */
+    private static final String FIELD_PREFIX = "jlog$site$";
+    /** 生成的桥接方法名前缀. */
+    private static final String BRIDGE_PREFIX = "jlog$log$";
+    /** 类初始化方法名. */
+    private static final String CLINIT = "<clinit>";
+    /** 需要处理的日志方法. */
+    private static final Set<String> LOG_METHODS = new HashSet<>(
+            Arrays.asList("v", "d", "i", "json", "w", "e", "wtf"));
+
+    private CallSiteInjector() {
+    }
+
+    /**
+     * 注入调用位置.
+     *
+     * @param classBytes 类文件内容
+     * @return 注入后的类文件内容，没有需要处理的调用时返回null
+     */
+    static byte[] inject(byte[] classBytes) {
+        ClassReader reader = new ClassReader(classBytes);
+        if ((reader.getAccess() & Opcodes.ACC_INTERFACE) != 0) {
+            return null; // 接口中的静态常量必须是public，不做处理
+        }
+        ScanVisitor scanner = new ScanVisitor();
+        reader.accept(scanner, ClassReader.SKIP_FRAMES);
+        if (scanner.mSites.isEmpty()) {
+            return null;
+        }
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        reader.accept(new InjectVisitor(writer, scanner.mSites), 0);
+        return writer.toByteArray();
+    }
+
+    /**
+     * 判断是否是需要注入调用位置的日志调用.
+     */
+    private static boolean isLogCall(int opcode, String owner, String name, String desc) {
+        return opcode == Opcodes.INVOKEVIRTUAL
+                && LOGGER_OWNER.equals(owner)
+                && LOG_METHODS.contains(name)
+                && !desc.startsWith("(" + CALL_SITE_DESC);
+    }
+
+    /**
+     * 调用点信息.
+     */
+    private static final class Site {
+        final String mClassName;
+        final String mMethodName;
+        final String mFileName;
+        final int mLineNumber;
+
+        Site(String className, String methodName, String fileName, int lineNumber) {
+            mClassName = className;
+            mMethodName = methodName;
+            mFileName = fileName;
+            mLineNumber = lineNumber;
+        }
+    }
+
+    /**
+     * 第一遍扫描，按访问顺序收集所有调用点.
+     */
+    private static final class ScanVisitor extends ClassVisitor {
+        private final List<Site> mSites = new ArrayList<>();
+        private String mClassName;
+        private String mFileName;
+
+        ScanVisitor() {
+            super(Opcodes.ASM5);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature,
+                String superName, String[] interfaces) {
+            mClassName = name.replace('/', '.');
+        }
+
+        @Override
+        public void visitSource(String source, String debug) {
+            mFileName = source;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, final String methodName, String desc,
+                String signature, String[] exceptions) {
+            return new MethodVisitor(Opcodes.ASM5) {
+                private int mLine = -1;
+
+                @Override
+                public void visitLineNumber(int line, Label start) {
+                    mLine = line;
+                }
+
+                @Override
+                public void visitMethodInsn(int opcode, String owner, String name, String desc,
+                        boolean itf) {
+                    if (isLogCall(opcode, owner, name, desc)) {
+                        mSites.add(new Site(mClassName, methodName, mFileName, mLine));
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * 第二遍改写，生成静态常量并替换日志调用.
+     */
+    private static final class InjectVisitor extends ClassVisitor {
+        private final List<Site> mSites;
+        /** 日志方法描述（方法名 + 参数描述）与桥接方法名的映射. */
+        private final Map<String, String> mBridges = new LinkedHashMap<>();
+        private String mOwner;
+        private boolean mHasClinit;
+        /** 已改写的调用点数量，与扫描顺序一致. */
+        private int mIndex;
+
+        InjectVisitor(ClassVisitor cv, List<Site> sites) {
+            super(Opcodes.ASM5, cv);
+            mSites = sites;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature,
+                String superName, String[] interfaces) {
+            mOwner = name;
+            super.visit(version, access, name, signature, superName, interfaces);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+                String[] exceptions) {
+            MethodVisitor visitor = super.visitMethod(access, name, desc, signature, exceptions);
+            if (CLINIT.equals(name)) {
+                mHasClinit = true;
+                visitor = new MethodVisitor(Opcodes.ASM5, visitor) {
+                    @Override
+                    public void visitCode() {
+                        super.visitCode();
+                        initSites(mv); // 在原有的类初始化代码之前创建
+                    }
+                };
+            }
+            return new RewriteVisitor(visitor);
+        }
+
+        @Override
+        public void visitEnd() {
+            int access = Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL
+                    | Opcodes.ACC_SYNTHETIC;
+            for (int i = 0; i < mSites.size(); i++) {
+                super.visitField(access, FIELD_PREFIX + i, CALL_SITE_DESC, null, null).visitEnd();
+            }
+            if (!mHasClinit) {
+                MethodVisitor mv = super.visitMethod(Opcodes.ACC_STATIC, CLINIT, "()V", null,
+                        null);
+                mv.visitCode();
+                initSites(mv);
+                mv.visitInsn(Opcodes.RETURN);
+                mv.visitMaxs(0, 0);
+                mv.visitEnd();
+            }
+            for (Map.Entry<String, String> entry : mBridges.entrySet()) {
+                String key = entry.getKey();
+                int index = key.indexOf('(');
+                generateBridge(entry.getValue(), key.substring(0, index), key.substring(index));
+            }
+            super.visitEnd();
+        }
+
+        /**
+         * 获取日志方法对应的桥接方法名，不存在时登记一个新的.
+         *
+         * @param name 日志方法名
+         * @param desc 日志方法描述
+         * @return 桥接方法名
+         */
+        private String bridgeFor(String name, String desc) {
+            String key = name + desc;
+            String bridge = mBridges.get(key);
+            if (bridge == null) {
+                bridge = BRIDGE_PREFIX + name + "$" + mBridges.size();
+                mBridges.put(key, bridge);
+            }
+            return bridge;
+        }
+
+        /**
+         * 桥接方法的描述，参数为Logger、日志方法的参数和CallSite.
+         */
+        private static String bridgeDesc(String desc) {
+            int end = desc.indexOf(')');
+            return "(L" + LOGGER_OWNER + ";" + desc.substring(1, end) + CALL_SITE_DESC + ")V";
+        }
+
+        /**
+         * 生成桥接方法：{@code logger.name(site, args...)}.
+         *
+         * @param bridge 桥接方法名
+         * @param name   日志方法名
+         * @param desc   日志方法描述
+         */
+        private void generateBridge(String bridge, String name, String desc) {
+            int access = Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC;
+            MethodVisitor mv = super.visitMethod(access, bridge, bridgeDesc(desc), null, null);
+            mv.visitCode();
+            Type[] argTypes = Type.getArgumentTypes(desc);
+            int siteSlot = 1;
+            for (Type argType : argTypes) {
+                siteSlot += argType.getSize();
+            }
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitVarInsn(Opcodes.ALOAD, siteSlot);
+            int slot = 1;
+            for (Type argType : argTypes) {
+                mv.visitVarInsn(argType.getOpcode(Opcodes.ILOAD), slot);
+                slot += argType.getSize();
+            }
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, LOGGER_OWNER, name,
+                    "(" + CALL_SITE_DESC + desc.substring(1), false);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        /**
+         * 生成初始化所有调用位置常量的指令.
+         */
+        private void initSites(MethodVisitor mv) {
+            for (int i = 0; i < mSites.size(); i++) {
+                Site site = mSites.get(i);
+                mv.visitTypeInsn(Opcodes.NEW, CALL_SITE_OWNER);
+                mv.visitInsn(Opcodes.DUP);
+                mv.visitLdcInsn(site.mClassName);
+                mv.visitLdcInsn(site.mMethodName);
+                if (site.mFileName == null) {
+                    mv.visitInsn(Opcodes.ACONST_NULL);
+                } else {
+                    mv.visitLdcInsn(site.mFileName);
+                }
+                mv.visitLdcInsn(site.mLineNumber);
+                mv.visitMethodInsn(Opcodes.INVOKESPECIAL, CALL_SITE_OWNER, "<init>",
+                        CALL_SITE_INIT_DESC, false);
+                mv.visitFieldInsn(Opcodes.PUTSTATIC, mOwner, FIELD_PREFIX + i, CALL_SITE_DESC);
+            }
+        }
+
+        /**
+         * 把日志调用改写为压入调用位置常量并调用桥接方法.
+         */
+        private final class RewriteVisitor extends MethodVisitor {
+
+            RewriteVisitor(MethodVisitor mv) {
+                super(Opcodes.ASM5, mv);
+            }
+
+            @Override
+            public void visitMethodInsn(int opcode, String owner, String name, String desc,
+                    boolean itf) {
+                if (!isLogCall(opcode, owner, name, desc)) {
+                    super.visitMethodInsn(opcode, owner, name, desc, itf);
+                    return;
+                }
+                super.visitFieldInsn(Opcodes.GETSTATIC, mOwner, FIELD_PREFIX + mIndex++,
+                        CALL_SITE_DESC);
+                super.visitMethodInsn(Opcodes.INVOKESTATIC, mOwner, bridgeFor(name, desc),
+                        bridgeDesc(desc), false);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.plugin;
+
+import com.android.build.api.transform.DirectoryInput;
+import com.android.build.api.transform.Format;
+import com.android.build.api.transform.JarInput;
+import com.android.build.api.transform.QualifiedContent;
+import com.android.build.api.transform.Transform;
+import com.android.build.api.transform.TransformException;
+import com.android.build.api.transform.TransformInput;
+import com.android.build.api.transform.TransformInvocation;
+import com.android.build.api.transform.TransformOutputProvider;
+import com.android.build.gradle.internal.pipeline.TransformManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+
+/**
+ * 在编译期为Logger的调用注入调用位置的Transform，只处理当前工程的类.
+ */
+class CallSiteTransform extends Transform {
+
+    /** 类文件的扩展名. */
+    private static final String CLASS_EXT = ".class";
+
+    private final JLogExtension mExtension;
+
+    CallSiteTransform(JLogExtension extension) {
+        mExtension = extension;
+    }
+
+    @Override
+    public String getName() {
+        return "jlogCallSite";
+    }
+
+    @Override
+    public Set<QualifiedContent.ContentType> getInputTypes() {
+        return TransformManager.CONTENT_CLASS;
+    }
+
+    @Override
+    public Set<QualifiedContent.Scope> getScopes() {
+        return EnumSet.of(QualifiedContent.Scope.PROJECT);
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return false;
+    }
+
+    @Override
+    public void transform(TransformInvocation invocation)
+            throws TransformException, InterruptedException, IOException {
+        TransformOutputProvider outputProvider = invocation.getOutputProvider();
+        outputProvider.deleteAll();
+        for (TransformInput input : invocation.getInputs()) {
+            for (DirectoryInput dirInput : input.getDirectoryInputs()) {
+                File dest = outputProvider.getContentLocation(dirInput.getName(),
+                        dirInput.getContentTypes(), dirInput.getScopes(), Format.DIRECTORY);
+                transformDir(dirInput.getFile(), dirInput.getFile(), dest);
+            }
+            for (JarInput jarInput : input.getJarInputs()) {
+                File dest = outputProvider.getContentLocation(jarInput.getName(),
+                        jarInput.getContentTypes(), jarInput.getScopes(), Format.JAR);
+                transformJar(jarInput.getFile(), dest);
+            }
+        }
+    }
+
+    /**
+     * 处理目录中的类文件.
+     *
+     * @param root   输入的根目录
+     * @param source 当前处理的文件或目录
+     * @param dest   输出的根目录
+     */
+    private void transformDir(File root, File source, File dest) throws IOException {
+        if (source.isDirectory()) {
+            File[] files = source.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    transformDir(root, file, dest);
+                }
+            }
+            return;
+        }
+        String relativePath = root.toURI().relativize(source.toURI()).getPath();
+        File target = new File(dest, relativePath);
+        File parent = target.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("mkdirs failed: " + parent);
+        }
+        InputStream is = new FileInputStream(source);
+        OutputStream os = new FileOutputStream(target);
+        try {
+            os.write(transformEntry(relativePath, readFully(is)));
+        } finally {
+            is.close();
+            os.close();
+        }
+    }
+
+    /**
+     * 处理jar包中的类文件.
+     *
+     * @param source 输入的jar包
+     * @param dest   输出的jar包
+     */
+    private void transformJar(File source, File dest) throws IOException {
+        File parent = dest.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("mkdirs failed: " + parent);
+        }
+        JarInputStream jis = new JarInputStream(new FileInputStream(source));
+        JarOutputStream jos = new JarOutputStream(new FileOutputStream(dest));
+        try {
+            JarEntry entry;
+            while ((entry = jis.getNextJarEntry()) != null) {
+                jos.putNextEntry(new JarEntry(entry.getName()));
+                if (!entry.isDirectory()) {
+                    jos.write(transformEntry(entry.getName(), readFully(jis)));
+                }
+                jos.closeEntry();
+            }
+        } finally {
+            jis.close();
+            jos.close();
+        }
+    }
+
+    /**
+     * 处理单个文件，非类文件或被排除的类原样返回.
+     *
+     * @param path  文件的相对路径，以"/"分隔
+     * @param bytes 文件内容
+     * @return 处理后的文件内容
+     */
+    private byte[] transformEntry(String path, byte[] bytes) {
+        if (!mExtension.isEnabled() || !path.endsWith(CLASS_EXT)) {
+            return bytes;
+        }
+        String className = path.substring(0, path.length() - CLASS_EXT.length())
+                .replace('/', '.');
+        if (!mExtension.accept(className)) {
+            return bytes;
+        }
+        byte[] injected = CallSiteInjector.inject(bytes);
+        return injected == null ? bytes : injected;
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = is.read(buffer)) != -1) {
+            bos.write(buffer, 0, length);
+        }
+        return bos.toByteArray();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jlog插件的配置.
+ *
+ * <pre>
+ *     jlog {
+ *         enabled true
+ *         exclude 'com.example.LogWrapper'
+ *     }
+ * </pre>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class JLogExtension {
+
+    /** 是否在编译期生成调用位置. */
+    private boolean mEnabled = true;
+    /** 不处理的类名前缀，比如对Logger进行了封装的类. */
+    private final List<String> mExcludes = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public List<String> getExcludes() {
+        return mExcludes;
+    }
+
+    /**
+     * 添加不处理的类名前缀.
+     *
+     * @param prefix 全限定类名或包名前缀
+     */
+    public void exclude(String prefix) {
+        mExcludes.add(prefix);
+    }
+
+    /**
+     * 判断该类是否需要处理.
+     *
+     * @param className 全限定类名
+     * @return true - 处理，false - 不处理
+     */
+    boolean accept(String className) {
+        for (String prefix : mExcludes) {
+            if (className.startsWith(prefix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 JiongBull
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jiongbull.jlog.plugin;
+
+import com.android.build.gradle.BaseExtension;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+
+/**
+ * jlog的gradle插件，在编译期为Logger的调用生成调用位置.
+ *
+ * <p>需要在com.android.application或com.android.library之后应用.</p>
+ */
+public class JLogPlugin implements Plugin<Project> {
+
+    @Override
+    public void apply(Project project) {
+        JLogExtension extension = project.getExtensions().create("jlog", JLogExtension.class);
+        Object android = project.getExtensions().findByName("android");
+        if (!(android instanceof BaseExtension)) {
+            throw new GradleException(
+                    "pls apply 'com.jiongbull.jlog' after android application or library plugin");
+        }
+        ((BaseExtension) android).registerTransform(new CallSiteTransform(extension));
+    }
+}